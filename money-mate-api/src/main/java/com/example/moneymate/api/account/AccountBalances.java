@@ -0,0 +1,53 @@
+package com.example.moneymate.api.account;
+
+import com.example.moneymate.api.money.Money;
+import com.example.moneymate.api.obp.client.ObpAccountsResponse;
+import com.example.moneymate.api.obp.client.ObpClient;
+import com.example.moneymate.api.obp.client.ObpClientException;
+import com.example.moneymate.api.obp.client.ObpFanOut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Current balances of a caller's accounts, fetched from OBP concurrently so that latency
+ * tracks the slowest account rather than the sum of them.
+ */
+@Component
+public class AccountBalances {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountBalances.class);
+
+    private final ObpClient obpClient;
+    private final ObpFanOut fanOut;
+
+    public AccountBalances(ObpClient obpClient, ObpFanOut fanOut) {
+        this.obpClient = obpClient;
+        this.fanOut = fanOut;
+    }
+
+    /**
+     * One balance per account, in the same order. An account whose balance cannot be
+     * fetched gets {@code null} rather than failing the whole request.
+     */
+    public List<Money> fetch(String obpToken, List<ObpAccountsResponse.Account> obpAccounts) {
+        return fanOut.map(
+            obpAccounts,
+            obpAccount -> obpAccount.bankId() + "/" + obpAccount.id(),
+            obpAccount -> fetchBalance(obpToken, obpAccount),
+            obpAccount -> null
+        );
+    }
+
+    private Money fetchBalance(String obpToken, ObpAccountsResponse.Account obpAccount) {
+        try {
+            return obpClient.getAccountDetails(obpToken, obpAccount.bankId(), obpAccount.id()).balance();
+        } catch (ObpClientException e) {
+            log.warn("Failed to fetch balance for account {}/{}: {}",
+                obpAccount.bankId(), obpAccount.id(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.moneymate.api.account;
 
+import com.example.moneymate.api.money.Money;
+import com.example.moneymate.api.money.MoneyJson;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import org.springframework.hateoas.RepresentationModel;
 
 public class AccountResponse extends RepresentationModel<AccountResponse> {
@@ -9,18 +12,16 @@ public class AccountResponse extends RepresentationModel<AccountResponse> {
     private final String bankId;
     private final String bankName;
     private final String iban;
-    private final String currency;
-    private final String amount;
+    private final Money balance;
 
     public AccountResponse(String id, String accountType, String bankId, String bankName, String iban,
-                          String currency, String amount) {
+                          Money balance) {
         this.id = id;
         this.accountType = accountType;
         this.bankId = bankId;
         this.bankName = bankName;
         this.iban = iban;
-        this.currency = currency;
-        this.amount = amount;
+        this.balance = balance;
     }
 
     public String getId() {
@@ -44,10 +45,11 @@ public class AccountResponse extends RepresentationModel<AccountResponse> {
     }
 
     public String getCurrency() {
-        return currency;
+        return balance != null ? balance.currency() : null;
     }
 
-    public String getAmount() {
-        return amount;
+    @JsonSerialize(using = MoneyJson.AmountSerializer.class)
+    public Money getAmount() {
+        return balance;
     }
 }
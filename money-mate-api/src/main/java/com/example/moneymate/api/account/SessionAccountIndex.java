@@ -0,0 +1,102 @@
+package com.example.moneymate.api.account;
+
+import com.example.moneymate.api.obp.client.ObpAccountsResponse;
+import com.example.moneymate.api.obp.client.ObpClient;
+import com.example.moneymate.api.security.SessionRevokedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-session index of the caller's own accounts (accountId -> bankId).
+ * <p>
+ * Filled whenever a session's accounts are listed, so resolving an account to its bank
+ * does not need another {@code my/accounts} round-trip. The index only ever holds
+ * accounts OBP returned for that session's token, which is what enforces ownership:
+ * an account ID belonging to another user is simply not found.
+ * <p>
+ * An unknown account ID refreshes the listing from OBP at most once per
+ * {@value #REFRESH_INTERVAL_SECONDS} seconds per session, so requests for made-up IDs
+ * cannot be turned into a stream of OBP calls.
+ * <p>
+ * A session's entry is dropped on {@link SessionRevokedEvent}, and otherwise after an hour
+ * unused, which also covers sessions that end without the event (see
+ * {@link com.example.moneymate.api.security.SessionTokenStore}).
+ */
+@Component
+public class SessionAccountIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionAccountIndex.class);
+
+    private static final long MAX_SESSIONS = 50_000;
+    private static final Duration IDLE_EXPIRY = Duration.ofHours(1);
+    private static final long REFRESH_INTERVAL_SECONDS = 30;
+
+    private final ObpClient obpClient;
+    private final Cache<String, Map<String, String>> index = Caffeine.newBuilder()
+        .maximumSize(MAX_SESSIONS)
+        .expireAfterAccess(IDLE_EXPIRY)
+        .build();
+    // Sessions whose accounts were refreshed within the interval
+    private final Cache<String, Boolean> recentRefreshes = Caffeine.newBuilder()
+        .maximumSize(MAX_SESSIONS)
+        .expireAfterWrite(Duration.ofSeconds(REFRESH_INTERVAL_SECONDS))
+        .build();
+
+    public SessionAccountIndex(ObpClient obpClient) {
+        this.obpClient = obpClient;
+    }
+
+    /**
+     * Replace the session's index with the accounts just listed from OBP.
+     */
+    public void record(String obpToken, ObpAccountsResponse accounts) {
+        Map<String, String> bankIds = new HashMap<>(accounts.accounts().size() * 2);
+        for (ObpAccountsResponse.Account account : accounts.accounts()) {
+            bankIds.put(account.id(), account.bankId());
+        }
+        index.put(obpToken, Map.copyOf(bankIds));
+    }
+
+    /**
+     * Resolve the bank of one of the session's accounts. A miss triggers a single fresh
+     * listing of the session's accounts from OBP before giving up, unless the session's
+     * accounts were refreshed within the last {@value #REFRESH_INTERVAL_SECONDS} seconds.
+     *
+     * @return the bank ID, or empty if the account does not belong to this session
+     */
+    public Optional<String> bankIdFor(String obpToken, String accountId) {
+        Map<String, String> bankIds = index.getIfPresent(obpToken);
+        if (bankIds != null && bankIds.containsKey(accountId)) {
+            return Optional.of(bankIds.get(accountId));
+        }
+
+        // Nothing indexed yet: a (possibly cached) listing will do. Indexed but unknown
+        // account: it may have been opened since, so go to OBP for a fresh listing, but
+        // not again for the next miss until the interval has passed.
+        if (bankIds == null) {
+            record(obpToken, obpClient.getAccounts(obpToken));
+        } else if (recentRefreshes.asMap().putIfAbsent(obpToken, Boolean.TRUE) == null) {
+            log.debug("Account index miss for {}, refreshing accounts from OBP", accountId);
+            record(obpToken, obpClient.refreshAccounts(obpToken));
+        } else {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(index.getIfPresent(obpToken))
+            .map(refreshed -> refreshed.get(accountId));
+    }
+
+    @EventListener
+    public void onSessionRevoked(SessionRevokedEvent event) {
+        index.invalidate(event.principal().obpToken());
+        recentRefreshes.invalidate(event.principal().obpToken());
+    }
+}
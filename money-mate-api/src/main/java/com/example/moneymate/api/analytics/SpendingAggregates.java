@@ -0,0 +1,166 @@
+package com.example.moneymate.api.analytics;
+
+import com.example.moneymate.api.money.Money;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * One account's transaction count, money spent and money received per category per UTC
+ * month, in minor units.
+ * <p>
+ * Totals are kept per currency, so an account whose transactions are not all in one
+ * currency never adds up amounts in different ones. Each month is a flat {@code long[]}
+ * with three slots per {@link SpendingCategory}. Instances are immutable: {@link #plus}
+ * categorizes only the transactions passed to it and returns a new instance that shares
+ * every month they did not touch. Answering a question reads the precomputed totals and
+ * never revisits the transactions.
+ */
+public final class SpendingAggregates {
+
+    public static final SpendingAggregates EMPTY = new SpendingAggregates(new TreeMap<>());
+
+    private static final SpendingCategory[] CATEGORIES = SpendingCategory.values();
+    private static final int COUNT = 0;
+    private static final int SPENT = 1;
+    private static final int RECEIVED = 2;
+    private static final int FIELDS = 3;
+    private static final Comparator<MonthlySpending> NEWEST_FIRST =
+        Comparator.comparing(MonthlySpending::month).reversed().thenComparing(MonthlySpending::currency);
+
+    // Currency code to that currency's months
+    private final NavigableMap<String, NavigableMap<YearMonth, long[]>> currencies;
+
+    private SpendingAggregates(NavigableMap<String, NavigableMap<YearMonth, long[]>> currencies) {
+        this.currencies = currencies;
+    }
+
+    /**
+     * These aggregates with the given transactions added. The caller makes sure none of
+     * them has been added before.
+     */
+    public SpendingAggregates plus(List<? extends SpendingTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return this;
+        }
+
+        NavigableMap<String, NavigableMap<YearMonth, long[]>> updated = new TreeMap<>(currencies);
+        Map<String, Map<YearMonth, long[]>> copied = new HashMap<>();
+        for (SpendingTransaction transaction : transactions) {
+            String currency = transaction.amount().currency();
+            YearMonth month = YearMonth.from(transaction.posted().atOffset(ZoneOffset.UTC));
+            Map<YearMonth, long[]> copiedMonths = copied.computeIfAbsent(currency, key -> {
+                NavigableMap<YearMonth, long[]> existing = currencies.get(key);
+                updated.put(key, existing != null ? new TreeMap<>(existing) : new TreeMap<>());
+                return new HashMap<>();
+            });
+            NavigableMap<YearMonth, long[]> currencyMonths = updated.get(currency);
+            long[] totals = copiedMonths.computeIfAbsent(month, key -> {
+                long[] existing = currencyMonths.get(key);
+                long[] copy = existing != null ? existing.clone() : new long[CATEGORIES.length * FIELDS];
+                currencyMonths.put(key, copy);
+                return copy;
+            });
+
+            long amount = transaction.amount().minorUnits();
+            SpendingCategory category = TransactionCategorizer.categorize(transaction.type(),
+                transaction.description(), amount > 0);
+            int slot = category.ordinal() * FIELDS;
+            totals[slot + COUNT]++;
+            if (amount < 0) {
+                totals[slot + SPENT] = Math.subtractExact(totals[slot + SPENT], amount);
+            } else {
+                totals[slot + RECEIVED] = Math.addExact(totals[slot + RECEIVED], amount);
+            }
+        }
+        return new SpendingAggregates(updated);
+    }
+
+    /**
+     * The currencies of the transactions added, in code order.
+     */
+    public Set<String> currencies() {
+        return Collections.unmodifiableSet(currencies.navigableKeySet());
+    }
+
+    /**
+     * Totals for the months within [from, to], newest first, one per currency that month
+     * has transactions in. Categories with no transactions in a month are left out.
+     *
+     * @param from first month to include, or {@code null} for no lower bound
+     * @param to last month to include, or {@code null} for no upper bound
+     */
+    public List<MonthlySpending> months(YearMonth from, YearMonth to) {
+        List<MonthlySpending> result = new ArrayList<>();
+        for (Map.Entry<String, NavigableMap<YearMonth, long[]>> currency : currencies.entrySet()) {
+            NavigableMap<YearMonth, long[]> range = currency.getValue();
+            if (from != null) {
+                range = range.tailMap(from, true);
+            }
+            if (to != null) {
+                range = range.headMap(to, true);
+            }
+            for (Map.Entry<YearMonth, long[]> month : range.entrySet()) {
+                result.add(monthlySpending(month.getKey(), currency.getKey(), month.getValue()));
+            }
+        }
+        result.sort(NEWEST_FIRST);
+        return result;
+    }
+
+    private static MonthlySpending monthlySpending(YearMonth month, String currency, long[] totals) {
+        List<CategorySpending> categories = new ArrayList<>();
+        long spent = 0;
+        long received = 0;
+        for (SpendingCategory category : CATEGORIES) {
+            int slot = category.ordinal() * FIELDS;
+            if (totals[slot + COUNT] == 0) {
+                continue;
+            }
+            categories.add(new CategorySpending(category, totals[slot + COUNT],
+                Money.ofMinor(totals[slot + SPENT], currency), Money.ofMinor(totals[slot + RECEIVED], currency)));
+            spent += totals[slot + SPENT];
+            received += totals[slot + RECEIVED];
+        }
+        return new MonthlySpending(month, currency, Money.ofMinor(spent, currency),
+            Money.ofMinor(received, currency), categories);
+    }
+
+    /**
+     * Estimated retained heap of this instance.
+     */
+    public long estimatedBytes() {
+        long bytes = 64L;
+        for (NavigableMap<YearMonth, long[]> months : currencies.values()) {
+            bytes += 64L + months.size() * (64L + 16 + 8L * CATEGORIES.length * FIELDS);
+        }
+        return bytes;
+    }
+
+    /**
+     * One month's totals in one currency.
+     *
+     * @param spent sum of the debits, as a positive amount
+     * @param received sum of the credits
+     * @param categories per-category totals, in {@link SpendingCategory} order
+     */
+    public record MonthlySpending(YearMonth month, String currency, Money spent, Money received, List<CategorySpending> categories) {}
+
+    /**
+     * One category's totals within a month.
+     *
+     * @param transactionCount number of transactions
+     * @param spent sum of the debits, as a positive amount
+     * @param received sum of the credits
+     */
+    public record CategorySpending(SpendingCategory category, long transactionCount, Money spent, Money received) {}
+}
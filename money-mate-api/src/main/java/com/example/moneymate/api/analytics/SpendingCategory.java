@@ -0,0 +1,49 @@
+package com.example.moneymate.api.analytics;
+
+import java.util.List;
+
+/**
+ * What a transaction was for, as inferred by {@link TransactionCategorizer}.
+ * <p>
+ * Keywords are matched case-insensitively against the OBP description, then the OBP type,
+ * in declaration order, so more specific categories come first (delivery before transport,
+ * coffee before dining). Keywords are lower case.
+ */
+public enum SpendingCategory {
+
+    INCOME("Income", List.of("salary", "payroll", "wage", "pension", "dividend", "interest paid")),
+    COFFEE("Coffee", List.of("coffee", "cafe", "caf\u00e9", "espresso", "starbucks", "costa")),
+    GROCERIES("Groceries", List.of("grocer", "supermarket", "market", "aldi", "lidl", "tesco", "carrefour",
+        "rewe", "edeka", "whole foods", "sainsbury")),
+    DINING("Eating out", List.of("restaurant", "pizza", "burger", "mcdonald", "sushi", "takeaway", "deliveroo",
+        "uber eats", "just eat", "bistro", "dining")),
+    TRANSPORT("Transport", List.of("uber", "taxi", "lyft", "train", "rail", "metro", "bus ", "fuel", "petrol",
+        "gas station", "parking", "airline", "flight")),
+    HOUSING("Housing", List.of("rent", "mortgage", "landlord")),
+    UTILITIES("Utilities", List.of("electric", "water", "energy", "utility", "internet", "broadband", "phone",
+        "mobile")),
+    ENTERTAINMENT("Entertainment", List.of("netflix", "spotify", "cinema", "movie", "theatre", "concert",
+        "game")),
+    HEALTH("Health", List.of("pharmacy", "doctor", "dental", "hospital", "clinic", "gym", "fitness")),
+    SHOPPING("Shopping", List.of("amazon", "ikea", "shop", "store", "clothing")),
+    CASH("Cash", List.of("atm", "cash withdrawal")),
+    FEES("Fees", List.of("fee", "commission", "overdraft", "charge")),
+    TRANSFERS("Transfers", List.of("transfer", "sepa", "counterparty", "standing order")),
+    OTHER("Other", List.of());
+
+    private final String title;
+    private final List<String> keywords;
+
+    SpendingCategory(String title, List<String> keywords) {
+        this.title = title;
+        this.keywords = keywords;
+    }
+
+    public String title() {
+        return title;
+    }
+
+    List<String> keywords() {
+        return keywords;
+    }
+}
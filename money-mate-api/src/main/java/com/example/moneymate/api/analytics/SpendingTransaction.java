@@ -0,0 +1,19 @@
+package com.example.moneymate.api.analytics;
+
+import com.example.moneymate.api.money.Money;
+
+import java.time.Instant;
+
+/**
+ * What {@link SpendingAggregates} needs to know about a transaction to count it.
+ */
+public interface SpendingTransaction {
+
+    Instant posted();
+
+    String type();
+
+    String description();
+
+    Money amount();
+}
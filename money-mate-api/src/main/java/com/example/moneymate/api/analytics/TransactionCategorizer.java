@@ -0,0 +1,54 @@
+package com.example.moneymate.api.analytics;
+
+import java.util.Locale;
+
+/**
+ * Assigns a {@link SpendingCategory} from a transaction's OBP description and type.
+ * <p>
+ * The description decides when it matches anything. The type (e.g. {@code SEPA}) is only
+ * consulted when it does not, so a SEPA payment to a supermarket is groceries rather than
+ * a transfer. Keywords must start a word. Only credits are counted as income.
+ */
+public final class TransactionCategorizer {
+
+    private static final SpendingCategory[] CATEGORIES = SpendingCategory.values();
+
+    private TransactionCategorizer() {
+    }
+
+    public static SpendingCategory categorize(String type, String description, boolean credit) {
+        SpendingCategory category = match(description, credit);
+        if (category == null) {
+            category = match(type, credit);
+        }
+        return category != null ? category : SpendingCategory.OTHER;
+    }
+
+    private static SpendingCategory match(String text, boolean credit) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (SpendingCategory category : CATEGORIES) {
+            if (category == SpendingCategory.INCOME && !credit) {
+                continue;
+            }
+            for (String keyword : category.keywords()) {
+                if (containsWord(lower, keyword)) {
+                    return category;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Keyword found at the start of a word, so "rent" matches "rental" but not "current"
+    private static boolean containsWord(String text, String keyword) {
+        for (int i = text.indexOf(keyword); i >= 0; i = text.indexOf(keyword, i + 1)) {
+            if (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,76 +1,86 @@
 package com.example.moneymate.api.docs;
 
+import com.example.moneymate.api.web.StaticDocument;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+
 @RestController
 @RequestMapping("/docs")
 public class DocsController {
 
-    @GetMapping("/session")
-    public ResponseEntity<String> getSessionDocs() {
-        String docs = """
-            # Session semantics
+    /**
+     * Agent documentation only changes with a release: shared caches may keep it for an
+     * hour, and revalidation after that is a 304.
+     */
+    public static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
 
-            This document explains what a **session** represents in this API and how an
-            agent must interact with it.
+    private static final StaticDocument SESSION_DOCS = StaticDocument.markdown("""
+        # Session semantics
 
-            ## What a session is
-            A session represents an **authenticated interaction state** between the client
-            and the API. When a session exists, requests may access protected resources
-            according to the links and templates exposed by the API.
+        This document explains what a **session** represents in this API and how an
+        agent must interact with it.
 
-            A session is created **only** by executing the login operation exposed via a
-            HAL-FORMS template that targets `POST /session`.
+        ## What a session is
+        A session represents an **authenticated interaction state** between the client
+        and the API. When a session exists, requests may access protected resources
+        according to the links and templates exposed by the API.
 
-            ## Access token usage
-            When a session is created, the API returns an opaque access token.
+        A session is created **only** by executing the login operation exposed via a
+        HAL-FORMS template that targets `POST /session`.
 
-            You MUST include this token on all subsequent authenticated requests using the
-            HTTP header:
+        ## Access token usage
+        When a session is created, the API returns an opaque access token.
 
-            ```
-            Authorization: Bearer <access_token>
-            ```
+        You MUST include this token on all subsequent authenticated requests using the
+        HTTP header:
 
-            The access token has no meaning outside this API and MUST NOT be interpreted or
-            decoded by the client.
+        ```
+        Authorization: Bearer <access_token>
+        ```
 
-            ## Navigating after authentication
-            After creating a session, the API will expose links such as:
+        The access token has no meaning outside this API and MUST NOT be interpreted or
+        decoded by the client.
 
-            - `self` — the session resource
-            - `me` — the authenticated principal
-            - `root` — the API entrypoint
+        ## Navigating after authentication
+        After creating a session, the API will expose links such as:
 
-            You MUST navigate using only the relations provided in `_links`.
+        - `self` — the session resource
+        - `me` — the authenticated principal
+        - `root` — the API entrypoint
 
-            ## Logging out
-            A session is terminated **only** by executing the logout operation exposed via a
-            HAL-FORMS template on the session resource that targets `DELETE /session`.
+        You MUST navigate using only the relations provided in `_links`.
 
-            If no logout template is present, logout is not available in the current state.
+        ## Logging out
+        A session is terminated **only** by executing the logout operation exposed via a
+        HAL-FORMS template on the session resource that targets `DELETE /session`.
 
-            ## Session expiration
-            If a session token is missing, invalid, or expired, the API will respond with
-            `401 Unauthorized`.
+        If no logout template is present, logout is not available in the current state.
 
-            When this occurs, you MUST return to the API root and re-authenticate using the
-            hypermedia controls provided there.
+        ## Session expiration
+        If a session token is missing, invalid, or expired, the API will respond with
+        `401 Unauthorized`.
 
-            ## Authority
-            This document defines the semantics of the session resource.
+        When this occurs, you MUST return to the API root and re-authenticate using the
+        hypermedia controls provided there.
 
-            At all times, the authoritative source of what actions are permitted is the
-            current API response, as expressed through `_links` and `_templates`.
-            """;
+        ## Authority
+        This document defines the semantics of the session resource.
 
-        return ResponseEntity.ok()
-            .header(HttpHeaders.CONTENT_TYPE, "text/markdown;charset=utf-8")
-            .header(HttpHeaders.CACHE_CONTROL, "public, max-age=3600")
-            .body(docs);
+        At all times, the authoritative source of what actions are permitted is the
+        current API response, as expressed through `_links` and `_templates`.
+        """, CACHE_CONTROL);
+
+    @GetMapping("/session")
+    public ResponseEntity<byte[]> getSessionDocs(
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return SESSION_DOCS.respond(acceptEncoding, ifNoneMatch);
     }
 }
@@ -0,0 +1,9 @@
+package com.example.moneymate.api.fx;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FxProperties.class)
+public class FxConfig {
+}
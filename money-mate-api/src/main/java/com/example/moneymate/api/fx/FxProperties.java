@@ -0,0 +1,22 @@
+package com.example.moneymate.api.fx;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+import java.time.Duration;
+
+/**
+ * Where FX rates come from and how often they are reloaded.
+ *
+ * @param rates properties file of rates against a base currency; a {@code file:} location
+ *              can be updated in place and is picked up on the next refresh
+ * @param refreshInterval how often the rates file is reloaded
+ * @param defaultCurrency currency totals are reported in when the client does not choose one
+ */
+@ConfigurationProperties(prefix = "money-mate.fx")
+public record FxProperties(
+    Resource rates,
+    Duration refreshInterval,
+    String defaultCurrency
+) {
+}
@@ -0,0 +1,130 @@
+package com.example.moneymate.api.fx;
+
+import com.example.moneymate.api.money.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Process-wide table of FX rates, read from a local properties file.
+ * <p>
+ * The file names a {@code base} currency and gives, for every other currency, how many
+ * units of it one unit of the base buys. The bundled file holds stand-in reference rates;
+ * point {@code money-mate.fx.rates} at a {@code file:} location to supply real ones. It is
+ * loaded at startup and reloaded on a schedule. Readers get an immutable {@link Rates}
+ * snapshot through a volatile read, and a failed reload keeps serving the last good one.
+ */
+@Component
+public class FxRateTable {
+
+    private static final Logger log = LoggerFactory.getLogger(FxRateTable.class);
+
+    private final FxProperties properties;
+    private final Clock clock = Clock.systemUTC();
+    private volatile Rates rates = new Rates(null, Map.of(), null);
+
+    public FxRateTable(FxProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * The rates as of the last successful load.
+     */
+    public Rates rates() {
+        return rates;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAtStartup() {
+        refresh();
+    }
+
+    @Scheduled(
+        initialDelayString = "${money-mate.fx.refresh-interval}",
+        fixedDelayString = "${money-mate.fx.refresh-interval}"
+    )
+    public void refresh() {
+        try (InputStream in = properties.rates().getInputStream()) {
+            Properties file = new Properties();
+            file.load(in);
+
+            String base = file.getProperty("base");
+            if (base == null || base.isBlank()) {
+                throw new IllegalArgumentException("no base currency");
+            }
+            Map<String, BigDecimal> perBase = new HashMap<>();
+            perBase.put(base.trim(), BigDecimal.ONE);
+            for (String currency : file.stringPropertyNames()) {
+                if (currency.equals("base")) {
+                    continue;
+                }
+                BigDecimal rate = new BigDecimal(file.getProperty(currency).trim());
+                if (rate.signum() <= 0) {
+                    throw new IllegalArgumentException("rate for " + currency + " is not positive");
+                }
+                perBase.put(currency.trim(), rate);
+            }
+
+            // An unchanged file keeps the current snapshot, so results computed from it stay valid
+            if (!base.trim().equals(rates.base()) || !perBase.equals(rates.perBase())) {
+                rates = new Rates(base.trim(), Map.copyOf(perBase), clock.instant());
+                log.info("FX rates loaded: {} currencies against {}", perBase.size(), base.trim());
+            }
+
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("FX rate refresh from {} failed, keeping {} cached rates: {}",
+                properties.rates(), rates.perBase().size(), e.getMessage());
+        }
+    }
+
+    /**
+     * An immutable set of rates. A reload that finds the same rates keeps the existing
+     * snapshot, so a new instance always means the rates changed.
+     *
+     * @param base the currency the rates are quoted against
+     * @param perBase units of each currency per one unit of {@code base}
+     * @param loadedAt when these rates were first loaded
+     */
+    public record Rates(String base, Map<String, BigDecimal> perBase, Instant loadedAt) {
+
+        public boolean supports(String currency) {
+            return currency != null && perBase.containsKey(currency);
+        }
+
+        /**
+         * Convert an amount, rounding half-even to the target currency's minor unit.
+         *
+         * @return the converted amount, or empty if either currency has no rate
+         */
+        public Optional<Money> convert(Money amount, String currency) {
+            if (currency.equals(amount.currency())) {
+                return Optional.of(amount);
+            }
+            if (!supports(amount.currency()) || !supports(currency)) {
+                return Optional.empty();
+            }
+            BigDecimal from = perBase.get(amount.currency());
+            BigDecimal to = perBase.get(currency);
+            BigDecimal converted = amount.toBigDecimal()
+                .multiply(to)
+                .divide(from, MathContext.DECIMAL64)
+                .setScale(Money.zero(currency).fractionDigits(), RoundingMode.HALF_EVEN);
+            return Optional.of(Money.of(converted.toPlainString(), currency));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.moneymate.api.ledger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, memory-mapped log of one account's transactions.
+ * <p>
+ * Records are numbered by ordinal in the order they were appended, which is the order
+ * they arrived from OBP rather than posted order. The log is split into fixed-capacity
+ * {@link LogSegment}s. A new segment is started when the current one fills up, and each
+ * segment file is named after the ordinal of its first record.
+ * <p>
+ * Scans read the mapped records in place: nothing is copied or allocated per record.
+ * Each segment keeps the minimum and maximum posted time it holds, so a range query skips
+ * segments that cannot match. Appends are serialised per account. Reads never block and
+ * only see committed records.
+ */
+public class AccountLog implements AutoCloseable {
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final List<LogSegment> segments = new CopyOnWriteArrayList<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private AccountLog(Path directory, int segmentCapacity) {
+        this.directory = directory;
+        this.segmentCapacity = segmentCapacity;
+    }
+
+    /**
+     * Open the log in {@code directory}, creating it if needed and recovering the tail of
+     * the last segment after a crash.
+     */
+    static AccountLog open(Path directory, int segmentCapacity) throws IOException {
+        Files.createDirectories(directory);
+        AccountLog log = new AccountLog(directory, segmentCapacity);
+
+        List<Long> baseOrdinals;
+        try (Stream<Path> files = Files.list(directory)) {
+            baseOrdinals = files
+                .map(path -> path.getFileName().toString())
+                .filter(name -> name.endsWith(".log"))
+                .map(name -> Long.parseLong(name.substring(0, name.length() - ".log".length())))
+                .sorted()
+                .toList();
+        }
+        try {
+            for (long baseOrdinal : baseOrdinals) {
+                log.segments.add(LogSegment.open(directory, baseOrdinal));
+            }
+        } catch (IOException e) {
+            log.close();
+            throw e;
+        }
+        return log;
+    }
+
+    /**
+     * Append records and make them durable. Visible to readers once this returns.
+     * <p>
+     * If an append fails, records already committed to full segments stay in the log and
+     * the uncommitted rest of the batch is discarded.
+     */
+    public void append(List<LogEntry> entries) throws IOException {
+        appendLock.lock();
+        try {
+            LogSegment tail = segments.isEmpty() ? roll(0) : segments.getLast();
+            try {
+                for (LogEntry entry : entries) {
+                    while (!tail.append(entry.posted(), entry.amount(), entry.balance(), entry.currency(),
+                        entry.description())) {
+                        tail.commit();
+                        tail = roll(tail.baseOrdinal() + tail.count());
+                    }
+                }
+                tail.commit();
+            } catch (IOException | RuntimeException e) {
+                // Segments filled earlier in the batch are already committed; drop the rest
+                try {
+                    tail.rollback();
+                } catch (IOException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private LogSegment roll(long baseOrdinal) throws IOException {
+        LogSegment segment = LogSegment.create(directory, baseOrdinal, segmentCapacity);
+        segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * Number of committed records.
+     */
+    public long size() {
+        List<LogSegment> current = List.copyOf(segments);
+        if (current.isEmpty()) {
+            return 0;
+        }
+        LogSegment last = current.getLast();
+        return last.baseOrdinal() + last.count();
+    }
+
+    /**
+     * Visit every committed record posted within [from, to] (epoch millis, inclusive),
+     * in ordinal order.
+     */
+    public void scan(long from, long to, RecordVisitor visitor) {
+        for (LogSegment segment : segments) {
+            if (!segment.mayContain(from, to)) {
+                continue;
+            }
+            int count = segment.count();
+            for (int i = 0; i < count; i++) {
+                long posted = segment.posted(i);
+                if (posted >= from && posted <= to) {
+                    visitor.visit(segment.baseOrdinal() + i, posted, segment.amount(i), segment.balance(i),
+                        segment.currency(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Count, credits and debits of the records posted within [from, to], summed in minor
+     * units of the one currency an account's records share.
+     *
+     * @throws IllegalStateException if records in range are in more than one currency
+     */
+    public Totals totals(long from, long to) {
+        long count = 0;
+        long credits = 0;
+        long debits = 0;
+        int currency = 0;
+        for (LogSegment segment : segments) {
+            if (!segment.mayContain(from, to)) {
+                continue;
+            }
+            int size = segment.count();
+            for (int i = 0; i < size; i++) {
+                long posted = segment.posted(i);
+                if (posted >= from && posted <= to) {
+                    int recordCurrency = segment.currency(i);
+                    if (count == 0) {
+                        currency = recordCurrency;
+                    } else if (recordCurrency != currency) {
+                        throw new IllegalStateException("Log records in more than one currency");
+                    }
+                    long amount = segment.amount(i);
+                    if (amount >= 0) {
+                        credits += amount;
+                    } else {
+                        debits += amount;
+                    }
+                    count++;
+                }
+            }
+        }
+        return new Totals(count, credits, debits, currency);
+    }
+
+    /**
+     * Description of the record at {@code ordinal}, read from the segment's string file.
+     *
+     * @return the description, or {@code null} if the transaction had none
+     * @throws IndexOutOfBoundsException if there is no committed record at that ordinal
+     */
+    public String description(long ordinal) throws IOException {
+        LogSegment segment = segmentFor(ordinal);
+        return segment.description((int) (ordinal - segment.baseOrdinal()));
+    }
+
+    private LogSegment segmentFor(long ordinal) {
+        List<LogSegment> current = List.copyOf(segments);
+        int low = 0;
+        int high = current.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            LogSegment segment = current.get(mid);
+            if (ordinal < segment.baseOrdinal()) {
+                high = mid - 1;
+            } else if (ordinal >= segment.baseOrdinal() + segment.count()) {
+                low = mid + 1;
+            } else {
+                return segment;
+            }
+        }
+        throw new IndexOutOfBoundsException("No record at ordinal " + ordinal);
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (LogSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        segments.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Receives records from {@link #scan}. Currency is the packed code, see {@link LogEntry#packCurrency}.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(long ordinal, long posted, long amount, long balance, int currency);
+    }
+
+    /**
+     * Result of {@link #totals}.
+     *
+     * @param count number of records in range
+     * @param credits sum of the non-negative amounts, minor units
+     * @param debits sum of the negative amounts, minor units
+     * @param currency packed currency code of the records, see {@link LogEntry#packCurrency}; 0 if there are none
+     */
+    public record Totals(long count, long credits, long debits, int currency) {
+
+        public long net() {
+            return credits + debits;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.moneymate.api.ledger;
+
+import com.example.moneymate.api.account.SessionAccountIndex;
+import com.example.moneymate.api.money.Money;
+import com.example.moneymate.api.obp.client.ObpAsyncClient;
+import com.example.moneymate.api.security.SessionPrincipal;
+import com.example.moneymate.api.transaction.TransactionSync;
+import com.example.moneymate.api.web.ObpErrorResponses;
+import com.example.moneymate.api.web.ResourceETag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Money in and out of one account over a date range, scanned from the account's
+ * memory-mapped {@link TransactionLog} rather than loaded from the store.
+ */
+@RestController
+@RequestMapping("/accounts/{accountId}/cash-flow")
+public class CashFlowController {
+
+    private static final Logger log = LoggerFactory.getLogger(CashFlowController.class);
+
+    private final ObpAsyncClient obpAsyncClient;
+    private final SessionAccountIndex accountIndex;
+    private final TransactionSync transactionSync;
+    private final TransactionLog transactionLog;
+
+    public CashFlowController(ObpAsyncClient obpAsyncClient, SessionAccountIndex accountIndex,
+                              TransactionSync transactionSync, TransactionLog transactionLog) {
+        this.obpAsyncClient = obpAsyncClient;
+        this.accountIndex = accountIndex;
+        this.transactionSync = transactionSync;
+        this.transactionLog = transactionLog;
+    }
+
+    /**
+     * Totals of the transactions posted from the start of {@code from} to the end of
+     * {@code to} (UTC), either bound left open when not given.
+     */
+    @GetMapping
+    public CompletableFuture<ResponseEntity<CashFlowResponse>> getCashFlow(
+        @PathVariable String accountId,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        // Get SessionPrincipal from SecurityContextHolder (on the servlet thread)
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SessionPrincipal principal = (SessionPrincipal) authentication.getPrincipal();
+
+        // Syncing appends any new transactions to the log; the scan skips segments out of range
+        return obpAsyncClient.supply(() -> {
+                Optional<String> bankId = accountIndex.bankIdFor(principal.obpToken(), accountId);
+                if (bankId.isEmpty()) {
+                    log.warn("Account {} not found for user {}", accountId, principal.subject());
+                    return ResponseEntity.notFound().<CashFlowResponse>build();
+                }
+                Instant syncedAt = transactionSync.sync(principal.obpToken(), bankId.get(), accountId);
+                AccountLog.Totals totals = transactionLog.totals(bankId.get(), accountId, syncedAt,
+                    startOfDay(from), endOfDay(to));
+                return buildCashFlow(accountId, from, to, totals, ifNoneMatch);
+            })
+            .exceptionally(error -> ObpErrorResponses.of(error, log, "fetching cash flow"));
+    }
+
+    private ResponseEntity<CashFlowResponse> buildCashFlow(String accountId, LocalDate from, LocalDate to,
+                                                           AccountLog.Totals totals, String ifNoneMatch) {
+        String currency = LogEntry.unpackCurrency(totals.currency());
+        ResourceETag etag = new ResourceETag("cash-flow")
+            .add(accountId)
+            .add(from)
+            .add(to)
+            .add(currency)
+            .add(totals.count())
+            .add(totals.credits())
+            .add(totals.debits());
+        if (etag.matches(ifNoneMatch)) {
+            return etag.notModified();
+        }
+
+        CashFlowResponse response = new CashFlowResponse(
+            from != null ? from.toString() : null,
+            to != null ? to.toString() : null,
+            currency,
+            totals.count(),
+            Money.ofMinor(totals.credits(), currency),
+            Money.ofMinor(Math.negateExact(totals.debits()), currency),
+            Money.ofMinor(totals.net(), currency)
+        );
+
+        UriComponentsBuilder self = UriComponentsBuilder.fromPath("/accounts/" + accountId + "/cash-flow");
+        UriComponentsBuilder transactions = UriComponentsBuilder.fromPath("/accounts/" + accountId + "/transactions");
+        if (from != null) {
+            self.queryParam("from", from);
+            transactions.queryParam("from", from);
+        }
+        if (to != null) {
+            self.queryParam("to", to);
+            transactions.queryParam("to", to);
+        }
+        response.add(Link.of(self.toUriString(), "self").withTitle("Cash flow"));
+        response.add(Link.of(transactions.toUriString(), "transactions").withTitle("Transactions in this range"));
+        response.add(Link.of("/accounts/" + accountId, "account").withTitle("Back to account"));
+        response.add(Link.of("/", "root").withTitle("API root"));
+
+        return etag.ok(response);
+    }
+
+    private static long startOfDay(LocalDate date) {
+        return date != null ? date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli() : Long.MIN_VALUE;
+    }
+
+    private static long endOfDay(LocalDate date) {
+        return date != null
+            ? date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli() - 1
+            : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.moneymate.api.ledger;
+
+import com.example.moneymate.api.money.Money;
+import com.example.moneymate.api.money.MoneyJson;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.springframework.hateoas.RepresentationModel;
+
+public class CashFlowResponse extends RepresentationModel<CashFlowResponse> {
+
+    private final String from;
+    private final String to;
+    private final String currency;
+    private final long transactionCount;
+    private final Money received;
+    private final Money spent;
+    private final Money net;
+
+    public CashFlowResponse(String from, String to, String currency, long transactionCount,
+                            Money received, Money spent, Money net) {
+        this.from = from;
+        this.to = to;
+        this.currency = currency;
+        this.transactionCount = transactionCount;
+        this.received = received;
+        this.spent = spent;
+        this.net = net;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    @JsonSerialize(using = MoneyJson.AmountSerializer.class)
+    public Money getReceived() {
+        return received;
+    }
+
+    @JsonSerialize(using = MoneyJson.AmountSerializer.class)
+    public Money getSpent() {
+        return spent;
+    }
+
+    @JsonSerialize(using = MoneyJson.AmountSerializer.class)
+    public Money getNet() {
+        return net;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.moneymate.api.ledger;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TransactionLogProperties.class)
+public class LedgerConfig {
+}
@@ -0,0 +1,66 @@
+package com.example.moneymate.api.ledger;
+
+import com.example.moneymate.api.transaction.StoredTransaction;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One transaction in the compact form it is written to an {@link AccountLog}.
+ *
+ * @param posted posted time, epoch millis
+ * @param amount amount in the currency's minor units
+ * @param balance balance after the transaction in minor units, or {@link LogSegment#NO_BALANCE}
+ * @param currency currency code packed by {@link #packCurrency}
+ * @param description description, or {@code null}
+ */
+public record LogEntry(long posted, long amount, long balance, int currency, String description) {
+
+    private static final ConcurrentHashMap<Integer, String> CURRENCY_CODES = new ConcurrentHashMap<>();
+
+    /**
+     * Convert a transaction from the local store.
+     */
+    public static LogEntry of(StoredTransaction transaction) {
+        return new LogEntry(
+            transaction.posted().toEpochMilli(),
+            transaction.amount().minorUnits(),
+            transaction.newBalance() != null ? transaction.newBalance().minorUnits() : LogSegment.NO_BALANCE,
+            packCurrency(transaction.amount().currency()),
+            transaction.description()
+        );
+    }
+
+    /**
+     * Pack a three-letter currency code into an int, one ASCII letter per byte.
+     *
+     * @return the packed code, or 0 if {@code code} is not three ASCII characters
+     */
+    public static int packCurrency(String code) {
+        if (code == null || code.length() != 3) {
+            return 0;
+        }
+        int packed = 0;
+        for (int i = 0; i < 3; i++) {
+            char c = code.charAt(i);
+            if (c > 0x7F) {
+                return 0;
+            }
+            packed = (packed << 8) | c;
+        }
+        return packed;
+    }
+
+    /**
+     * The currency code for a packed value, as a shared (interned) String.
+     *
+     * @return the code, or {@code null} for 0
+     */
+    public static String unpackCurrency(int packed) {
+        if (packed == 0) {
+            return null;
+        }
+        return CURRENCY_CODES.computeIfAbsent(packed, value -> new String(new char[] {
+            (char) ((value >>> 16) & 0xFF), (char) ((value >>> 8) & 0xFF), (char) (value & 0xFF)
+        }));
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.moneymate.api.ledger;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-capacity segment of an {@link AccountLog}.
+ * <p>
+ * A segment is two files. The {@code .log} file is memory-mapped and holds a 64-byte header
+ * followed by fixed-size 40-byte records:
+ * <pre>
+ *  0  long  posted, epoch millis
+ *  8  long  amount, minor units
+ * 16  long  balance after the transaction, minor units ({@link #NO_BALANCE} if unknown)
+ * 24  int   offset of the description in the .str file, -1 if none
+ * 28  int   currency code, three ASCII letters packed into an int (0 if unknown)
+ * 32  int   CRC32C of bytes 0-31
+ * 36  int   reserved
+ * </pre>
+ * The {@code .str} file holds the descriptions, each as a length-prefixed UTF-8 string.
+ * <p>
+ * Only one thread appends at a time, and records only become visible to readers once
+ * {@link #commit()} has made them durable. On reopening, records are accepted up to the
+ * first one whose checksum fails or whose description lies beyond the end of the
+ * {@code .str} file. Anything after that is a torn write from a crash; it is zeroed, and
+ * the {@code .str} file is truncated to match.
+ */
+final class LogSegment implements AutoCloseable {
+
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_BYTES = 40;
+    static final long NO_BALANCE = Long.MIN_VALUE;
+
+    private static final int MAGIC = 0x4D4D544C; // "MMTL"
+    private static final int VERSION = 1;
+
+    private static final long POSTED = 0;
+    private static final long AMOUNT = 8;
+    private static final long BALANCE = 16;
+    private static final long DESCRIPTION = 24;
+    private static final long CURRENCY = 28;
+    private static final long CRC = 32;
+    private static final int CHECKED_BYTES = 32;
+
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED;
+
+    private final long baseOrdinal;
+    private final int capacity;
+    private final FileChannel dataChannel;
+    private final FileChannel stringsChannel;
+    private final Arena arena;
+    private final MemorySegment records;
+
+    // Written by the appending thread; count is what readers see
+    private volatile int count;
+    private volatile long minPosted = Long.MAX_VALUE;
+    private volatile long maxPosted = Long.MIN_VALUE;
+    private int written;
+    private long stringsEnd;
+    private long committedStringsEnd;
+
+    private LogSegment(long baseOrdinal, int capacity, FileChannel dataChannel, FileChannel stringsChannel)
+        throws IOException {
+        this.baseOrdinal = baseOrdinal;
+        this.capacity = capacity;
+        this.dataChannel = dataChannel;
+        this.stringsChannel = stringsChannel;
+        this.arena = Arena.ofShared();
+        this.records = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+            HEADER_BYTES + (long) capacity * RECORD_BYTES, arena);
+    }
+
+    static LogSegment create(Path directory, long baseOrdinal, int capacity) throws IOException {
+        LogSegment segment = new LogSegment(baseOrdinal, capacity,
+            FileChannel.open(dataPath(directory, baseOrdinal),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE),
+            FileChannel.open(stringsPath(directory, baseOrdinal),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        segment.records.set(INT, 0, MAGIC);
+        segment.records.set(INT, 4, VERSION);
+        segment.records.set(LONG, 8, baseOrdinal);
+        segment.records.set(INT, 16, capacity);
+        segment.records.force();
+        return segment;
+    }
+
+    static LogSegment open(Path directory, long baseOrdinal) throws IOException {
+        Path data = dataPath(directory, baseOrdinal);
+        int capacity;
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.READ)) {
+            // Written through the mapping, so in native byte order
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.nativeOrder());
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < 20 || header.getInt(0) != MAGIC || header.getInt(4) != VERSION
+                || header.getLong(8) != baseOrdinal) {
+                throw new IOException("Not a transaction log segment: " + data);
+            }
+            capacity = header.getInt(16);
+        }
+
+        LogSegment segment = new LogSegment(baseOrdinal, capacity,
+            FileChannel.open(data, StandardOpenOption.READ, StandardOpenOption.WRITE),
+            FileChannel.open(stringsPath(directory, baseOrdinal),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        segment.recover();
+        return segment;
+    }
+
+    static Path dataPath(Path directory, long baseOrdinal) {
+        return directory.resolve(String.format("%020d.log", baseOrdinal));
+    }
+
+    private static Path stringsPath(Path directory, long baseOrdinal) {
+        return directory.resolve(String.format("%020d.str", baseOrdinal));
+    }
+
+    private void recover() throws IOException {
+        long stringsSize = stringsChannel.size();
+        int valid = 0;
+        long validStringsEnd = 0;
+        while (valid < capacity) {
+            long offset = recordOffset(valid);
+            if (records.get(INT, offset + CRC) != checksum(offset)) {
+                break;
+            }
+            int description = records.get(INT, offset + DESCRIPTION);
+            if (description >= 0) {
+                long end = descriptionEnd(description, stringsSize);
+                if (end < 0) {
+                    break;
+                }
+                validStringsEnd = end;
+            }
+            track(records.get(LONG, offset + POSTED));
+            valid++;
+        }
+
+        // Drop the torn tail, if any
+        if (valid < capacity) {
+            records.asSlice(recordOffset(valid)).fill((byte) 0);
+            records.force();
+        }
+        if (stringsSize > validStringsEnd) {
+            stringsChannel.truncate(validStringsEnd);
+            stringsChannel.force(true);
+        }
+
+        written = valid;
+        count = valid;
+        stringsEnd = validStringsEnd;
+        committedStringsEnd = validStringsEnd;
+    }
+
+    private long descriptionEnd(int description, long stringsSize) throws IOException {
+        if (description + 4L > stringsSize) {
+            return -1;
+        }
+        ByteBuffer length = ByteBuffer.allocate(4);
+        stringsChannel.read(length, description);
+        long end = description + 4L + length.getInt(0);
+        return end <= stringsSize ? end : -1;
+    }
+
+    /**
+     * Append one record. Not visible to readers until {@link #commit()}.
+     *
+     * @return false if the segment is full
+     */
+    boolean append(long posted, long amount, long balance, int currency, String description) throws IOException {
+        if (written == capacity) {
+            return false;
+        }
+
+        int descriptionOffset = -1;
+        if (description != null) {
+            byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes).flip();
+            descriptionOffset = Math.toIntExact(stringsEnd);
+            while (buffer.hasRemaining()) {
+                stringsEnd += stringsChannel.write(buffer, stringsEnd);
+            }
+        }
+
+        long offset = recordOffset(written);
+        records.set(LONG, offset + POSTED, posted);
+        records.set(LONG, offset + AMOUNT, amount);
+        records.set(LONG, offset + BALANCE, balance);
+        records.set(INT, offset + DESCRIPTION, descriptionOffset);
+        records.set(INT, offset + CURRENCY, currency);
+        records.set(INT, offset + CRC, checksum(offset));
+        track(posted);
+        written++;
+        return true;
+    }
+
+    /**
+     * Make appended records durable, then visible. Descriptions are forced first so that a
+     * record never survives a crash without its description.
+     */
+    void commit() throws IOException {
+        if (written == count) {
+            return;
+        }
+        stringsChannel.force(false);
+        records.asSlice(recordOffset(count), (long) (written - count) * RECORD_BYTES).force();
+        committedStringsEnd = stringsEnd;
+        count = written;
+    }
+
+    /**
+     * Discard records appended since the last {@link #commit()}, so the next append starts
+     * right after the committed ones. The discarded records are zeroed so that recovery cannot
+     * bring them back after a crash.
+     */
+    void rollback() throws IOException {
+        if (written > count) {
+            MemorySegment uncommitted = records.asSlice(recordOffset(count), (long) (written - count) * RECORD_BYTES);
+            uncommitted.fill((byte) 0);
+            uncommitted.force();
+            written = count;
+        }
+        if (stringsEnd > committedStringsEnd) {
+            stringsEnd = committedStringsEnd;
+            stringsChannel.truncate(committedStringsEnd);
+        }
+    }
+
+    long baseOrdinal() {
+        return baseOrdinal;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * Whether any committed record may fall within [from, to].
+     */
+    boolean mayContain(long from, long to) {
+        return count > 0 && minPosted <= to && maxPosted >= from;
+    }
+
+    long posted(int index) {
+        return records.get(LONG, recordOffset(index) + POSTED);
+    }
+
+    long amount(int index) {
+        return records.get(LONG, recordOffset(index) + AMOUNT);
+    }
+
+    long balance(int index) {
+        return records.get(LONG, recordOffset(index) + BALANCE);
+    }
+
+    int currency(int index) {
+        return records.get(INT, recordOffset(index) + CURRENCY);
+    }
+
+    String description(int index) throws IOException {
+        int offset = records.get(INT, recordOffset(index) + DESCRIPTION);
+        if (offset < 0) {
+            return null;
+        }
+        ByteBuffer length = ByteBuffer.allocate(4);
+        stringsChannel.read(length, offset);
+        ByteBuffer bytes = ByteBuffer.allocate(length.getInt(0));
+        while (bytes.hasRemaining()) {
+            stringsChannel.read(bytes, offset + 4L + bytes.position());
+        }
+        return new String(bytes.array(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            arena.close();
+        } finally {
+            try {
+                dataChannel.close();
+            } finally {
+                stringsChannel.close();
+            }
+        }
+    }
+
+    private void track(long posted) {
+        if (posted < minPosted) {
+            minPosted = posted;
+        }
+        if (posted > maxPosted) {
+            maxPosted = posted;
+        }
+    }
+
+    private int checksum(long offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(records.asSlice(offset, CHECKED_BYTES).asByteBuffer());
+        return (int) crc.getValue();
+    }
+
+    private static long recordOffset(int index) {
+        return HEADER_BYTES + (long) index * RECORD_BYTES;
+    }
+}
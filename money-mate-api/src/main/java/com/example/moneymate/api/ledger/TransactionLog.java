@@ -0,0 +1,433 @@
+package com.example.moneymate.api.ledger;
+
+import com.example.moneymate.api.transaction.AccountSyncedEvent;
+import com.example.moneymate.api.transaction.StoredTransaction;
+import com.example.moneymate.api.transaction.TransactionStore;
+import com.example.moneymate.api.transaction.TransactionsStoredEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * The memory-mapped transaction logs of all accounts, one {@link AccountLog} per account.
+ * <p>
+ * Transactions are appended as this node stores them (see {@link TransactionsStoredEvent}).
+ * The local store remains the source of truth: a failed append is logged and does not fail
+ * the sync. Logs are opened on first use, which is when a crashed tail is recovered, and
+ * closed again once unused for the configured idle timeout.
+ * <p>
+ * Appends alone miss whatever another node stored, so each log is tracked against the
+ * account's {@code synced_at} (see {@link AccountSyncedEvent}). When a sync does not carry
+ * on from the version the log is known to reflect, the log is rebuilt from the store. That
+ * includes the first sync of each account after a restart, since versions are not persisted,
+ * and a first sync whose log already held transactions from before the store forgot the
+ * account. A rebuild writes a new generation of the log in its own directory and swaps it in;
+ * the old generation is closed and deleted once the last reader scanning it lets go. The logs
+ * of accounts the store no longer knows, such as those dropped by the retention purge, are
+ * deleted by a periodic sweep.
+ */
+@Component
+public class TransactionLog {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionLog.class);
+
+    private final TransactionLogProperties properties;
+    private final TransactionStore store;
+    private final ConcurrentHashMap<AccountKey, OpenLog> logs = new ConcurrentHashMap<>();
+    // The synced_at each account's log is known to reflect; absent when unknown
+    private final ConcurrentHashMap<AccountKey, Instant> versions = new ConcurrentHashMap<>();
+
+    public TransactionLog(TransactionLogProperties properties, TransactionStore store) {
+        this.properties = properties;
+        this.store = store;
+    }
+
+    /**
+     * Count, credits and debits of the account's transactions posted within [from, to]
+     * (epoch millis, inclusive). Scanned from the account's log when it is known to reflect
+     * {@code syncedAt}; otherwise, or with logging disabled, summed from the store.
+     *
+     * @param syncedAt the account's {@code synced_at}, as returned by the sync that preceded this read
+     * @throws IllegalStateException if the transactions in range are in more than one currency
+     */
+    public AccountLog.Totals totals(String bankId, String accountId, Instant syncedAt, long from, long to) {
+        AccountKey key = new AccountKey(bankId, accountId);
+        if (properties.enabled() && syncedAt.equals(versions.get(key))) {
+            try {
+                OpenLog open = acquire(key);
+                try {
+                    return open.accountLog.totals(from, to);
+                } finally {
+                    open.release();
+                }
+            } catch (UncheckedIOException e) {
+                log.warn("Summing transactions for {}/{} from the store, the log failed to open: {}",
+                    bankId, accountId, e.getMessage());
+            }
+        }
+        return summed(store.history(bankId, accountId), from, to);
+    }
+
+    private static AccountLog.Totals summed(List<StoredTransaction> history, long from, long to) {
+        long count = 0;
+        long credits = 0;
+        long debits = 0;
+        int currency = 0;
+        for (StoredTransaction transaction : history) {
+            long posted = transaction.posted().toEpochMilli();
+            if (posted < from || posted > to) {
+                continue;
+            }
+            int transactionCurrency = LogEntry.packCurrency(transaction.amount().currency());
+            if (count == 0) {
+                currency = transactionCurrency;
+            } else if (transactionCurrency != currency) {
+                throw new IllegalStateException("Stored transactions in more than one currency");
+            }
+            long amount = transaction.amount().minorUnits();
+            if (amount >= 0) {
+                credits += amount;
+            } else {
+                debits += amount;
+            }
+            count++;
+        }
+        return new AccountLog.Totals(count, credits, debits, currency);
+    }
+
+    @EventListener
+    public void onTransactionsStored(TransactionsStoredEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        AccountKey key = new AccountKey(event.bankId(), event.accountId());
+        try {
+            OpenLog open = acquire(key);
+            try {
+                open.accountLog.append(event.transactions().stream().map(LogEntry::of).toList());
+            } finally {
+                open.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to append {} transactions to the log for {}/{}: {}",
+                event.transactions().size(), event.bankId(), event.accountId(), e.getMessage(), e);
+            // Missing transactions now; the next sync rebuilds it
+            versions.remove(key);
+        }
+    }
+
+    @EventListener
+    public void onAccountSynced(AccountSyncedEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        AccountKey key = new AccountKey(event.bankId(), event.accountId());
+        try {
+            // A first sync was appended in full; any other must follow on from the known version
+            boolean caughtUp = event.continuous() && (event.previousSyncedAt() == null
+                ? holdsOnlyStored(key)
+                : event.previousSyncedAt().equals(versions.get(key)));
+            if (!caughtUp) {
+                versions.remove(key);
+                rebuild(key);
+            }
+            versions.put(key, event.syncedAt());
+        } catch (RuntimeException e) {
+            versions.remove(key);
+            log.error("Failed to rebuild the transaction log for {}/{}: {}",
+                event.bankId(), event.accountId(), e.getMessage(), e);
+        }
+    }
+
+    // The log of an account the store had forgotten (purged, or reset while the files stayed)
+    // still holds the old history, which the first sync has just appended again
+    private boolean holdsOnlyStored(AccountKey key) {
+        OpenLog open = acquire(key);
+        try {
+            return open.accountLog.size() == store.count(key.bankId(), key.accountId());
+        } finally {
+            open.release();
+        }
+    }
+
+    /**
+     * Close the logs that nothing has used within the idle timeout. Their files stay, so a
+     * log reopened later still reflects the same version.
+     */
+    @Scheduled(fixedDelayString = "${money-mate.transaction-log.idle-timeout}")
+    void closeIdle() {
+        long idleSince = System.nanoTime() - properties.idleTimeout().toNanos();
+        logs.forEach((key, open) -> {
+            if (open.lastUsed - idleSince < 0 && open.retireIfUnused()) {
+                logs.remove(key, open);
+            }
+        });
+    }
+
+    /**
+     * Delete the logs of accounts that have no sync state in the store: dropped by the
+     * retention purge on whichever node ran it, or left behind by a store that was reset.
+     * Logs still open are left for a later sweep.
+     */
+    @Scheduled(fixedDelayString = "${money-mate.transactions.retention.sweep-interval}")
+    void deleteOrphaned() {
+        List<Path> accountDirectories;
+        try (Stream<Path> files = Files.list(properties.directory())) {
+            accountDirectories = files.filter(Files::isDirectory).toList();
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            log.warn("Failed to list transaction logs in {}: {}", properties.directory(), e.getMessage());
+            return;
+        }
+
+        for (Path accountDirectory : accountDirectories) {
+            AccountKey key = AccountKey.fromDirectoryName(accountDirectory.getFileName().toString());
+            if (key == null || logs.containsKey(key) || store.syncState(key.bankId(), key.accountId()).isPresent()) {
+                continue;
+            }
+            // Holds the key's bin, so the log cannot be opened while its files are deleted
+            logs.compute(key, (k, open) -> {
+                if (open == null) {
+                    versions.remove(k);
+                    try {
+                        for (Path directory : generations(accountDirectory)) {
+                            deleteDirectory(directory);
+                        }
+                        Files.delete(accountDirectory);
+                        log.info("Deleted the transaction log of {}/{}, no longer in the store",
+                            k.bankId(), k.accountId());
+                    } catch (IOException e) {
+                        log.warn("Failed to delete the transaction log in {}: {}", accountDirectory, e.getMessage());
+                    }
+                }
+                return open;
+            });
+        }
+    }
+
+    // The account's current log, opening it if necessary; the caller must release it
+    private OpenLog acquire(AccountKey key) {
+        while (true) {
+            OpenLog open = logs.computeIfAbsent(key, this::open);
+            if (open.retain()) {
+                return open;
+            }
+            // Closed as idle just now; open it again
+            logs.remove(key, open);
+        }
+    }
+
+    private OpenLog open(AccountKey key) {
+        Path accountDirectory = properties.directory().resolve(key.directoryName());
+        try {
+            List<Path> generations = generations(accountDirectory);
+            Path directory = generations.isEmpty() ? generation(accountDirectory, 0) : generations.getLast();
+            return new OpenLog(directory, AccountLog.open(directory, properties.segmentCapacity()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open transaction log for "
+                + key.bankId() + "/" + key.accountId(), e);
+        }
+    }
+
+    // Syncs of one account are serialised, so nothing appends to it meanwhile. Readers may
+    // still be scanning the stale log, so it is only retired here, not closed.
+    private void rebuild(AccountKey key) {
+        List<LogEntry> history = store.history(key.bankId(), key.accountId()).stream().map(LogEntry::of).toList();
+        Path accountDirectory = properties.directory().resolve(key.directoryName());
+        OpenLog rebuilt;
+        try {
+            List<Path> generations = generations(accountDirectory);
+            long next = generations.isEmpty() ? 0 : generationNumber(generations.getLast()) + 1;
+            Path directory = generation(accountDirectory, next);
+            AccountLog accountLog = AccountLog.open(directory, properties.segmentCapacity());
+            try {
+                accountLog.append(history);
+            } catch (IOException | RuntimeException e) {
+                accountLog.close();
+                deleteDirectory(directory);
+                throw e;
+            }
+            rebuilt = new OpenLog(directory, accountLog);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rebuild transaction log for "
+                + key.bankId() + "/" + key.accountId(), e);
+        }
+
+        OpenLog stale = logs.put(key, rebuilt);
+        if (stale != null) {
+            stale.retire(true);
+        }
+        // Generations left by earlier runs, or by a stale log that was already closed as idle
+        try {
+            for (Path directory : generations(accountDirectory)) {
+                if (!directory.equals(rebuilt.directory) && (stale == null || !directory.equals(stale.directory))) {
+                    deleteDirectory(directory);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete old transaction log generations for {}/{}: {}",
+                key.bankId(), key.accountId(), e.getMessage());
+        }
+        log.info("Rebuilt the transaction log for {}/{} from {} stored transactions",
+            key.bankId(), key.accountId(), history.size());
+    }
+
+    // Generation directories of an account's log, oldest first
+    private static List<Path> generations(Path accountDirectory) throws IOException {
+        if (!Files.isDirectory(accountDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(accountDirectory)) {
+            return files
+                .filter(path -> Files.isDirectory(path) && path.getFileName().toString().matches("\\d{10}"))
+                .sorted(Comparator.comparingLong(TransactionLog::generationNumber))
+                .toList();
+        }
+    }
+
+    private static Path generation(Path accountDirectory, long number) {
+        return accountDirectory.resolve(String.format("%010d", number));
+    }
+
+    private static long generationNumber(Path directory) {
+        return Long.parseLong(directory.getFileName().toString());
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @PreDestroy
+    public void close() {
+        logs.forEach((key, open) -> open.retire(false));
+        logs.clear();
+        versions.clear();
+    }
+
+    /**
+     * An open {@link AccountLog} shared by the appending sync and any number of readers.
+     * It is closed once it has been retired (replaced, closed as idle or shut down) and the
+     * last user has released it, so no scan ever runs against a closed mapping.
+     */
+    private final class OpenLog {
+
+        final Path directory;
+        final AccountLog accountLog;
+        // Users holding the log, plus one for the map while the log is current
+        private final AtomicInteger users = new AtomicInteger(1);
+        private volatile boolean deleteOnClose;
+        volatile long lastUsed = System.nanoTime();
+
+        OpenLog(Path directory, AccountLog accountLog) {
+            this.directory = directory;
+            this.accountLog = accountLog;
+        }
+
+        /**
+         * @return whether the log is still open; if so, the caller must {@link #release()} it
+         */
+        boolean retain() {
+            int current;
+            do {
+                current = users.get();
+                if (current == 0) {
+                    return false;
+                }
+            } while (!users.compareAndSet(current, current + 1));
+            lastUsed = System.nanoTime();
+            return true;
+        }
+
+        void release() {
+            if (users.decrementAndGet() == 0) {
+                closeLog();
+            }
+        }
+
+        // Drop the map's reference; the log closes when the last user releases it
+        void retire(boolean delete) {
+            deleteOnClose = delete;
+            int current;
+            do {
+                current = users.get();
+                if (current == 0) {
+                    // Already closed as idle
+                    if (delete) {
+                        closeLog();
+                    }
+                    return;
+                }
+            } while (!users.compareAndSet(current, current - 1));
+            if (current == 1) {
+                closeLog();
+            }
+        }
+
+        // Close now if nothing but the map holds the log
+        boolean retireIfUnused() {
+            if (!users.compareAndSet(1, 0)) {
+                return false;
+            }
+            closeLog();
+            return true;
+        }
+
+        private void closeLog() {
+            try {
+                accountLog.close();
+                if (deleteOnClose) {
+                    deleteDirectory(directory);
+                }
+            } catch (IOException e) {
+                TransactionLog.log.warn("Failed to close transaction log in {}: {}", directory, e.getMessage());
+            }
+        }
+    }
+
+    private record AccountKey(String bankId, String accountId) {
+
+        // Bank and account IDs are arbitrary strings, so encode them into a safe file name
+        String directoryName() {
+            return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((bankId + "/" + accountId).getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Null if the name is not one of ours. Account IDs come from a URL path segment, so hold no '/'
+        static AccountKey fromDirectoryName(String name) {
+            String decoded;
+            try {
+                decoded = new String(Base64.getUrlDecoder().decode(name), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            int slash = decoded.lastIndexOf('/');
+            return slash >= 0 ? new AccountKey(decoded.substring(0, slash), decoded.substring(slash + 1)) : null;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.moneymate.api.ledger;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the per-account memory-mapped transaction logs.
+ *
+ * @param enabled whether newly stored transactions are appended to the logs and cash flow is read from them
+ * @param directory root directory; each account gets a sub-directory of log generations
+ * @param segmentCapacity records per segment file before a new one is started
+ * @param idleTimeout how long an account's log stays open (mapped, with its files open) after its last use
+ */
+@ConfigurationProperties(prefix = "money-mate.transaction-log")
+public record TransactionLogProperties(
+    boolean enabled,
+    Path directory,
+    int segmentCapacity,
+    Duration idleTimeout
+) {
+}
@@ -0,0 +1,238 @@
+package com.example.moneymate.api.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An amount of money: a {@code long} count of the currency's minor units (cents for EUR,
+ * yen for JPY) and a currency.
+ * <p>
+ * OBP sends amounts as decimal strings. They are parsed once, on the way in, without going
+ * through {@link BigDecimal} unless they carry more decimals than the currency has minor
+ * units (those are rounded half-even). From then on, sums and comparisons are plain
+ * {@code long} arithmetic. Overflow throws {@link ArithmeticException} rather than wrapping.
+ * <p>
+ * In JSON it reads and writes OBP's {@code {"currency": "EUR", "amount": "12.34"}} shape;
+ * see {@link MoneyJson}.
+ */
+@JsonSerialize(using = MoneyJson.Serializer.class)
+@JsonDeserialize(using = MoneyJson.Deserializer.class)
+public final class Money implements Comparable<Money> {
+
+    private static final int DEFAULT_FRACTION_DIGITS = 2;
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+    // Only ISO 4217 codes are cached, so arbitrary codes from upstream cannot grow it
+    private static final ConcurrentHashMap<String, Unit> UNITS = new ConcurrentHashMap<>();
+    private static final Unit NO_CURRENCY = new Unit(null, DEFAULT_FRACTION_DIGITS);
+
+    private final long minorUnits;
+    private final Unit unit;
+
+    private Money(long minorUnits, Unit unit) {
+        this.minorUnits = minorUnits;
+        this.unit = unit;
+    }
+
+    /**
+     * Parse a decimal amount such as {@code "-12.50"}.
+     *
+     * @param currency ISO 4217 code; {@code null} or an unknown code is treated as having two decimals
+     * @throws NumberFormatException if {@code amount} is not a decimal number
+     * @throws ArithmeticException if it does not fit in a {@code long} of minor units
+     */
+    public static Money of(String amount, String currency) {
+        Unit unit = unit(currency);
+        return new Money(parseMinorUnits(amount, unit.fractionDigits()), unit);
+    }
+
+    /**
+     * Like {@link #of}, but {@code null} or blank amounts give {@code null}.
+     */
+    public static Money ofNullable(String amount, String currency) {
+        return amount == null || amount.isBlank() ? null : of(amount, currency);
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, unit(currency));
+    }
+
+    public static Money zero(String currency) {
+        return new Money(0, unit(currency));
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    /**
+     * The currency code. ISO 4217 codes are interned, so equal codes are the same String.
+     */
+    public String currency() {
+        return unit.code();
+    }
+
+    /**
+     * Number of decimals in this currency's minor unit.
+     */
+    public int fractionDigits() {
+        return unit.fractionDigits();
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), unit);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), unit);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), unit);
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, unit.fractionDigits());
+    }
+
+    /**
+     * The amount with exactly the currency's number of decimals, e.g. {@code "-12.50"}.
+     */
+    public String toPlainString() {
+        int digits = unit.fractionDigits();
+        if (digits == 0) {
+            return Long.toString(minorUnits);
+        }
+        long scale = POWERS_OF_TEN[digits];
+        long whole = Math.abs(minorUnits / scale);
+        long fraction = Math.abs(minorUnits % scale);
+
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        text.append(whole).append('.');
+        String fractionText = Long.toString(fraction);
+        for (int pad = fractionText.length(); pad < digits; pad++) {
+            text.append('0');
+        }
+        return text.append(fractionText).toString();
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && minorUnits == other.minorUnits && unit.equals(other.unit);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + unit.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return unit.code() != null ? unit.code() + " " + toPlainString() : toPlainString();
+    }
+
+    /**
+     * Parse a decimal string straight into minor units. Plain decimals are handled digit by
+     * digit; anything else (exponents, excess non-zero decimals) falls back to BigDecimal.
+     */
+    static long parseMinorUnits(String amount, int fractionDigits) {
+        String text = amount.trim();
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        long value = 0;
+        int digitsSeen = 0;
+        int decimals = -1;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                digitsSeen++;
+                if (decimals >= 0 && ++decimals > fractionDigits) {
+                    if (c != '0') {
+                        return parseSlow(text, fractionDigits);
+                    }
+                    continue;
+                }
+                value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+            } else {
+                return parseSlow(text, fractionDigits);
+            }
+        }
+        if (digitsSeen == 0) {
+            throw new NumberFormatException("Not an amount: '" + amount + "'");
+        }
+
+        int decimalsRead = Math.min(Math.max(decimals, 0), fractionDigits);
+        value = Math.multiplyExact(value, POWERS_OF_TEN[fractionDigits - decimalsRead]);
+        return negative ? -value : value;
+    }
+
+    private static long parseSlow(String text, int fractionDigits) {
+        return new BigDecimal(text)
+            .setScale(fractionDigits, RoundingMode.HALF_EVEN)
+            .unscaledValue()
+            .longValueExact();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!unit.equals(other.unit)) {
+            throw new IllegalArgumentException("Currency mismatch: " + this + " and " + other);
+        }
+    }
+
+    private static Unit unit(String currency) {
+        if (currency == null) {
+            return NO_CURRENCY;
+        }
+        Unit unit = UNITS.get(currency);
+        if (unit != null) {
+            return unit;
+        }
+        Currency iso;
+        try {
+            iso = Currency.getInstance(currency);
+        } catch (IllegalArgumentException e) {
+            return new Unit(currency, DEFAULT_FRACTION_DIGITS);
+        }
+        return UNITS.computeIfAbsent(currency, code -> new Unit(code, fractionDigitsOf(iso)));
+    }
+
+    private static int fractionDigitsOf(Currency currency) {
+        int digits = currency.getDefaultFractionDigits();
+        return digits >= 0 && digits < POWERS_OF_TEN.length ? digits : DEFAULT_FRACTION_DIGITS;
+    }
+
+    private record Unit(String code, int fractionDigits) {}
+}
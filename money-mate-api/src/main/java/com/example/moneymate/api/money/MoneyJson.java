@@ -0,0 +1,90 @@
+package com.example.moneymate.api.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * Jackson support for {@link Money}. All of it streams tokens directly, with no
+ * intermediate tree or map.
+ */
+public final class MoneyJson {
+
+    private static final Logger log = LoggerFactory.getLogger(MoneyJson.class);
+
+    private MoneyJson() {
+    }
+
+    /**
+     * Writes {@code {"currency": "EUR", "amount": "12.34"}}.
+     */
+    public static class Serializer extends JsonSerializer<Money> {
+
+        @Override
+        public void serialize(Money money, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("currency", money.currency());
+            generator.writeStringField("amount", money.toPlainString());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes just the amount, {@code "12.34"}, for API resources that show the currency
+     * in a separate property.
+     */
+    public static class AmountSerializer extends JsonSerializer<Money> {
+
+        @Override
+        public void serialize(Money money, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeString(money.toPlainString());
+        }
+    }
+
+    /**
+     * Reads OBP's {@code {"currency": "EUR", "amount": "12.34"}}. The amount may be a string
+     * or a JSON number. An object without an amount reads as {@code null}, and so does one
+     * whose amount is not a scalar or cannot be parsed: one bad amount must not fail the whole
+     * response it is in.
+     */
+    public static class Deserializer extends JsonDeserializer<Money> {
+
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                return (Money) context.handleUnexpectedToken(Money.class, parser);
+            }
+
+            String currency = null;
+            String amount = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                // Only scalars are read; an object or array is skipped whole and counts as absent
+                boolean scalar = value.isScalarValue() && value != JsonToken.VALUE_NULL;
+                if ("currency".equals(field) && scalar) {
+                    currency = parser.getText();
+                } else if ("amount".equals(field) && scalar) {
+                    amount = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            try {
+                return Money.ofNullable(amount, currency);
+            } catch (NumberFormatException | ArithmeticException e) {
+                log.warn("Ignoring unparseable money amount '{}' ({}): {}", amount, currency, e.getMessage());
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.moneymate.api.networth;
+
+import com.example.moneymate.api.fx.FxRateTable;
+import com.example.moneymate.api.money.Money;
+import com.example.moneymate.api.security.SessionRevokedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Sums a session's account balances into one currency.
+ * <p>
+ * The last result is kept per session. On the next call an account whose balance is
+ * unchanged reuses its converted amount, and only changed or new accounts are converted
+ * again. If nothing changed, the previous result is returned as is. A different target
+ * currency or a new FX rate snapshot starts from scratch.
+ * <p>
+ * A session's result is dropped on {@link SessionRevokedEvent}, and otherwise after an hour
+ * unused, which also covers sessions that end without the event.
+ */
+@Component
+public class NetWorthCalculator {
+
+    private static final Logger log = LoggerFactory.getLogger(NetWorthCalculator.class);
+
+    private static final long MAX_SESSIONS = 50_000;
+    private static final Duration IDLE_EXPIRY = Duration.ofHours(1);
+
+    private final Cache<String, SessionNetWorth> lastResults = Caffeine.newBuilder()
+        .maximumSize(MAX_SESSIONS)
+        .expireAfterAccess(IDLE_EXPIRY)
+        .build();
+
+    /**
+     * Net worth of the given balances in {@code currency}. Accounts without a balance, or in
+     * a currency the rates do not cover, are listed but left out of the total.
+     */
+    public NetWorth calculate(String obpToken, List<AccountBalance> balances, String currency,
+                              FxRateTable.Rates rates) {
+        SessionNetWorth previous = lastResults.getIfPresent(obpToken);
+        boolean reusable = previous != null
+            && previous.result().currency().equals(currency)
+            && previous.result().rates() == rates;
+        Map<AccountKey, Contribution> prior = reusable ? previous.byAccount() : Map.of();
+
+        boolean changed = !reusable || prior.size() != balances.size();
+        int converted = 0;
+        List<Contribution> contributions = new ArrayList<>(balances.size());
+        Map<AccountKey, Contribution> byAccount = new HashMap<>(balances.size() * 2);
+        for (AccountBalance balance : balances) {
+            AccountKey key = new AccountKey(balance.bankId(), balance.accountId());
+            Contribution contribution = prior.get(key);
+            if (contribution == null || !Objects.equals(contribution.balance(), balance.balance())) {
+                contribution = new Contribution(balance.bankId(), balance.accountId(), balance.balance(),
+                    balance.balance() != null ? rates.convert(balance.balance(), currency).orElse(null) : null);
+                changed = true;
+                converted++;
+            }
+            contributions.add(contribution);
+            byAccount.put(key, contribution);
+        }
+        if (!changed) {
+            return previous.result();
+        }
+
+        Money total = Money.zero(currency);
+        for (Contribution contribution : contributions) {
+            if (contribution.converted() != null) {
+                total = total.plus(contribution.converted());
+            }
+        }
+        NetWorth result = new NetWorth(currency, rates, total, List.copyOf(contributions));
+        lastResults.put(obpToken, new SessionNetWorth(result, Map.copyOf(byAccount)));
+        log.debug("Net worth in {}: converted {} of {} accounts", currency, converted, balances.size());
+        return result;
+    }
+
+    @EventListener
+    public void onSessionRevoked(SessionRevokedEvent event) {
+        lastResults.invalidate(event.principal().obpToken());
+    }
+
+    /**
+     * One account's balance as fetched from OBP.
+     *
+     * @param balance the balance, or {@code null} if it could not be fetched
+     */
+    public record AccountBalance(String bankId, String accountId, Money balance) {}
+
+    /**
+     * One account's part of the total.
+     *
+     * @param converted the balance in the target currency, or {@code null} if it is not counted
+     */
+    public record Contribution(String bankId, String accountId, Money balance, Money converted) {}
+
+    /**
+     * Result of {@link #calculate}.
+     *
+     * @param rates the rate snapshot the conversions used
+     * @param accounts every account, counted in the total or not
+     */
+    public record NetWorth(String currency, FxRateTable.Rates rates, Money total, List<Contribution> accounts) {}
+
+    private record AccountKey(String bankId, String accountId) {}
+
+    private record SessionNetWorth(NetWorth result, Map<AccountKey, Contribution> byAccount) {}
+}
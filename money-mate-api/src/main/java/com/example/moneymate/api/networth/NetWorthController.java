@@ -0,0 +1,140 @@
+package com.example.moneymate.api.networth;
+
+import com.example.moneymate.api.account.AccountBalances;
+import com.example.moneymate.api.account.SessionAccountIndex;
+import com.example.moneymate.api.fx.FxProperties;
+import com.example.moneymate.api.fx.FxRateTable;
+import com.example.moneymate.api.money.Money;
+import com.example.moneymate.api.obp.client.ObpAccountsResponse;
+import com.example.moneymate.api.obp.client.ObpAsyncClient;
+import com.example.moneymate.api.security.SessionPrincipal;
+import com.example.moneymate.api.web.ObpErrorResponses;
+import com.example.moneymate.api.web.ResourceETag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * All of the caller's account balances summed into one currency.
+ */
+@RestController
+@RequestMapping("/users/me/net-worth")
+public class NetWorthController {
+
+    private static final Logger log = LoggerFactory.getLogger(NetWorthController.class);
+
+    private final ObpAsyncClient obpAsyncClient;
+    private final AccountBalances accountBalances;
+    private final SessionAccountIndex accountIndex;
+    private final FxRateTable rateTable;
+    private final NetWorthCalculator calculator;
+    private final FxProperties fxProperties;
+
+    public NetWorthController(ObpAsyncClient obpAsyncClient, AccountBalances accountBalances,
+                              SessionAccountIndex accountIndex, FxRateTable rateTable,
+                              NetWorthCalculator calculator, FxProperties fxProperties) {
+        this.obpAsyncClient = obpAsyncClient;
+        this.accountBalances = accountBalances;
+        this.accountIndex = accountIndex;
+        this.rateTable = rateTable;
+        this.calculator = calculator;
+        this.fxProperties = fxProperties;
+    }
+
+    @GetMapping
+    public CompletableFuture<ResponseEntity<NetWorthResponse>> getNetWorth(
+        @RequestParam(required = false) String currency,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Get SessionPrincipal from SecurityContextHolder (on the servlet thread)
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SessionPrincipal principal = (SessionPrincipal) authentication.getPrincipal();
+
+        String target = currency != null ? currency.trim().toUpperCase(Locale.ROOT) : fxProperties.defaultCurrency();
+        FxRateTable.Rates rates = rateTable.rates();
+        if (!rates.supports(target)) {
+            log.warn("Rejected net worth currency {}: no FX rate", target);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        return obpAsyncClient.getAccounts(principal.obpToken())
+            .thenCompose(accountsResponse -> obpAsyncClient.supply(
+                () -> buildNetWorth(principal, accountsResponse, target, rates, currency != null, ifNoneMatch)))
+            .exceptionally(error -> ObpErrorResponses.of(error, log, "computing net worth"));
+    }
+
+    private ResponseEntity<NetWorthResponse> buildNetWorth(SessionPrincipal principal,
+                                                           ObpAccountsResponse accountsResponse, String currency,
+                                                           FxRateTable.Rates rates, boolean currencyRequested,
+                                                           String ifNoneMatch) {
+        accountIndex.record(principal.obpToken(), accountsResponse);
+
+        // Fetch balances for all accounts concurrently - latency tracks the slowest call
+        List<ObpAccountsResponse.Account> obpAccounts = accountsResponse.accounts();
+        List<Money> fetched = accountBalances.fetch(principal.obpToken(), obpAccounts);
+        List<NetWorthCalculator.AccountBalance> balances = new ArrayList<>(obpAccounts.size());
+        for (int i = 0; i < obpAccounts.size(); i++) {
+            ObpAccountsResponse.Account obpAccount = obpAccounts.get(i);
+            balances.add(new NetWorthCalculator.AccountBalance(obpAccount.bankId(), obpAccount.id(), fetched.get(i)));
+        }
+        NetWorthCalculator.NetWorth netWorth = calculator.calculate(principal.obpToken(), balances, currency, rates);
+
+        ResourceETag etag = new ResourceETag("net-worth")
+            .add(currency)
+            .add(currencyRequested)
+            .add(netWorth.total())
+            .add(rates.loadedAt());
+        for (NetWorthCalculator.Contribution contribution : netWorth.accounts()) {
+            etag.add(contribution.accountId())
+                .add(contribution.bankId())
+                .add(contribution.balance())
+                .add(contribution.converted());
+        }
+        if (etag.matches(ifNoneMatch)) {
+            return etag.notModified();
+        }
+
+        List<NetWorthResponse.AccountContribution> accounts = netWorth.accounts().stream()
+            .map(contribution -> new NetWorthResponse.AccountContribution(
+                contribution.accountId(),
+                contribution.bankId(),
+                contribution.balance() != null ? contribution.balance().currency() : null,
+                contribution.balance(),
+                contribution.converted(),
+                contribution.converted() != null
+            ))
+            .toList();
+
+        NetWorthResponse response = new NetWorthResponse(
+            currency,
+            netWorth.total(),
+            rates.loadedAt() != null ? rates.loadedAt().toString() : null,
+            accounts
+        );
+
+        UriComponentsBuilder self = UriComponentsBuilder.fromPath("/users/me/net-worth");
+        if (currencyRequested) {
+            self.queryParam("currency", currency);
+        }
+        response.add(Link.of(self.toUriString(), "self").withTitle("Net worth"));
+        response.add(Link.of("/users/me", "user").withTitle("Back to user"));
+        response.add(Link.of("/accounts", "accounts").withTitle("All my accounts"));
+        response.add(Link.of("/", "root").withTitle("API root"));
+
+        return etag.ok(response);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.moneymate.api.networth;
+
+import com.example.moneymate.api.money.Money;
+import com.example.moneymate.api.money.MoneyJson;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.springframework.hateoas.RepresentationModel;
+
+import java.util.List;
+
+public class NetWorthResponse extends RepresentationModel<NetWorthResponse> {
+
+    private final String currency;
+    private final Money total;
+    private final String ratesAsOf;
+    private final List<AccountContribution> accounts;
+
+    public NetWorthResponse(String currency, Money total, String ratesAsOf, List<AccountContribution> accounts) {
+        this.currency = currency;
+        this.total = total;
+        this.ratesAsOf = ratesAsOf;
+        this.accounts = accounts;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    @JsonSerialize(using = MoneyJson.AmountSerializer.class)
+    public Money getTotal() {
+        return total;
+    }
+
+    public String getRatesAsOf() {
+        return ratesAsOf;
+    }
+
+    public List<AccountContribution> getAccounts() {
+        return accounts;
+    }
+
+    /**
+     * One account's balance in its own currency and, when it counts towards the total, in
+     * the requested one.
+     */
+    public record AccountContribution(
+        String id,
+        String bankId,
+        String currency,
+        @JsonSerialize(using = MoneyJson.AmountSerializer.class) Money balance,
+        @JsonSerialize(using = MoneyJson.AmountSerializer.class) Money converted,
+        boolean included
+    ) {
+    }
+}
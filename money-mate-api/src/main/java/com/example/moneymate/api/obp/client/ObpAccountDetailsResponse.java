@@ -1,5 +1,6 @@
 package com.example.moneymate.api.obp.client;
 
+import com.example.moneymate.api.money.Money;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public record ObpAccountDetailsResponse(
@@ -7,11 +8,7 @@ public record ObpAccountDetailsResponse(
     String label,
     String number,
     @JsonProperty("product_code") String productCode,
-    Balance balance,
+    Money balance,
     @JsonProperty("bank_id") String bankId
 ) {
-    public record Balance(
-        String currency,
-        String amount
-    ) {}
 }
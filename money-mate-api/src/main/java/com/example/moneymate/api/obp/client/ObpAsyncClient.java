@@ -0,0 +1,86 @@
+package com.example.moneymate.api.obp.client;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Future-returning view of {@link ObpClient} for asynchronous controllers.
+ * <p>
+ * Each call runs the full ObpClient pipeline (cache, single-flight, circuit breaker, hedging)
+ * on a virtual thread and completes a {@link CompletableFuture}, so the servlet thread that
+ * issued it is released while OBP I/O is in flight. How many calls can be in flight is then
+ * bounded by the connection pool and the bulkhead, not by the servlet thread pool.
+ * <p>
+ * The caller's request attributes travel with the work, so request-scoped state such as
+ * link building against the current request and stale-data markers keep working.
+ */
+@Service
+public class ObpAsyncClient {
+
+    private final ObpClient obpClient;
+    private final ExecutorService executor;
+
+    public ObpAsyncClient(ObpClient obpClient, @Qualifier("obpFanOutExecutor") ExecutorService executor) {
+        this.obpClient = obpClient;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<UserDetailsResponse> getCurrentUser(String obpToken) {
+        return supply(() -> obpClient.getCurrentUser(obpToken));
+    }
+
+    public CompletableFuture<ObpAccountsResponse> getAccounts(String obpToken) {
+        return supply(() -> obpClient.getAccounts(obpToken));
+    }
+
+    public CompletableFuture<ObpAccountDetailsResponse> getAccountDetails(String obpToken, String bankId,
+                                                                          String accountId) {
+        return supply(() -> obpClient.getAccountDetails(obpToken, bankId, accountId));
+    }
+
+    public CompletableFuture<ObpTransactionPage> getTransactionPage(String obpToken, String bankId, String accountId,
+                                                                    ObpTransactionQuery query) {
+        return supply(() -> obpClient.getTransactionPage(obpToken, bankId, accountId, query));
+    }
+
+    /**
+     * Run other blocking OBP-bound work (e.g. a fan-out across accounts) off the caller's thread.
+     * Chain blocking follow-up work as {@code thenCompose(result -> supply(...))}: a plain
+     * {@code thenApply} may run on whichever thread attaches it if the future is already done.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            try {
+                future.complete(work.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Strip the wrappers CompletableFuture puts around a failure to get at the original exception.
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+            && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
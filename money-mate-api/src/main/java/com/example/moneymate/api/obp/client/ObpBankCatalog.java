@@ -0,0 +1,126 @@
+package com.example.moneymate.api.obp.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide catalog of OBP banks.
+ * <p>
+ * The bank list is public and the same for every user, so it is loaded once at startup
+ * and refreshed in the background. Readers get an immutable snapshot through a volatile
+ * read; a failed refresh keeps serving the last good snapshot.
+ * <p>
+ * While the catalog is empty (OBP was unreachable at startup, or answered with no banks)
+ * it is retried well before the next regular refresh, backing off from the retry interval
+ * up to the refresh interval, so bank names resolve soon after OBP recovers.
+ */
+@Component
+public class ObpBankCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(ObpBankCatalog.class);
+
+    private final ObpClient obpClient;
+    private final Duration refreshInterval;
+    private final Duration retryInterval;
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of());
+    private volatile Duration retryBackoff;
+    private volatile long nextRetryAt;
+
+    public ObpBankCatalog(ObpClient obpClient, ObpProperties properties) {
+        this.obpClient = obpClient;
+        this.refreshInterval = properties.banks().refreshInterval();
+        this.retryInterval = properties.banks().retryInterval();
+        this.retryBackoff = retryInterval;
+        this.nextRetryAt = System.nanoTime();
+    }
+
+    /**
+     * Resolve a bank's short name, falling back to the bank ID when it is unknown.
+     */
+    public String bankName(String bankId) {
+        return snapshot.shortNames().getOrDefault(bankId, bankId);
+    }
+
+    /**
+     * All known banks as of the last successful refresh.
+     */
+    public List<ObpBanksResponse.Bank> banks() {
+        return snapshot.banks();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAtStartup() {
+        refresh();
+    }
+
+    @Scheduled(
+        initialDelayString = "${obp.banks.refresh-interval}",
+        fixedDelayString = "${obp.banks.refresh-interval}"
+    )
+    public void refresh() {
+        refresh(System.nanoTime());
+    }
+
+    @Scheduled(
+        initialDelayString = "${obp.banks.retry-interval}",
+        fixedDelayString = "${obp.banks.retry-interval}"
+    )
+    public void retryWhileEmpty() {
+        retryWhileEmpty(System.nanoTime());
+    }
+
+    /**
+     * Reload the catalog if it is still empty and its backoff has passed.
+     *
+     * @param now current {@link System#nanoTime()}
+     */
+    void retryWhileEmpty(long now) {
+        if (snapshot.banks().isEmpty() && now - nextRetryAt >= 0) {
+            refresh(now);
+        }
+    }
+
+    void refresh(long now) {
+        try {
+            ObpBanksResponse response = obpClient.getBanks();
+            List<ObpBanksResponse.Bank> banks = response != null && response.banks() != null
+                ? response.banks()
+                : List.of();
+
+            Map<String, String> shortNames = new HashMap<>(banks.size() * 2);
+            for (ObpBanksResponse.Bank bank : banks) {
+                if (bank.id() != null && bank.shortName() != null) {
+                    shortNames.put(bank.id(), bank.shortName());
+                }
+            }
+
+            snapshot = new Snapshot(List.copyOf(banks), Map.copyOf(shortNames));
+            log.info("Bank catalog refreshed with {} banks", banks.size());
+
+        } catch (ObpClientException e) {
+            log.warn("Bank catalog refresh failed, keeping {} cached banks: {}",
+                snapshot.banks().size(), e.getMessage());
+        }
+
+        if (snapshot.banks().isEmpty()) {
+            Duration backoff = retryBackoff;
+            nextRetryAt = now + backoff.toNanos();
+            Duration doubled = backoff.multipliedBy(2);
+            retryBackoff = doubled.compareTo(refreshInterval) < 0 ? doubled : refreshInterval;
+            log.info("Bank catalog is empty, retrying in {}", backoff);
+        } else {
+            retryBackoff = retryInterval;
+        }
+    }
+
+    private record Snapshot(List<ObpBanksResponse.Bank> banks, Map<String, String> shortNames) {}
+}
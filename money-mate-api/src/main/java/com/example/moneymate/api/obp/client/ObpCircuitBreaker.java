@@ -0,0 +1,188 @@
+package com.example.moneymate.api.obp.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count-based circuit breaker for one OBP endpoint family.
+ * <p>
+ * Tracks the outcome of the last {@code windowSize} calls. Once at least {@code minimumCalls}
+ * have been recorded and the failure rate reaches the threshold, the breaker opens and
+ * rejects calls for {@code openDuration}. It then lets a single probe through (half-open):
+ * success closes it again, failure re-opens it.
+ * <p>
+ * Each call reports its outcome with the {@link Permit} it was let through with. Every
+ * change of state issues a new permit, and outcomes reported with an older one are
+ * ignored: a call let through while the breaker was closed that finishes after it has
+ * opened says nothing about the probe.
+ */
+class ObpCircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final boolean[] failures;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openDurationNanos;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failureCount;
+    private long openedAt;
+    private boolean probeInFlight;
+    // Handed to the calls let through in the current state
+    private Permit permit = new Permit(true, Duration.ZERO);
+
+    ObpCircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, Duration openDuration) {
+        this.failures = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Ask to make a call.
+     *
+     * @return a permit to report the call's outcome with if it may proceed, otherwise a
+     *         rejection saying how long until the breaker will next allow one
+     */
+    Permit tryAcquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                long remaining = openedAt + openDurationNanos - System.nanoTime();
+                if (remaining > 0) {
+                    return Permit.rejected(Duration.ofNanos(remaining));
+                }
+                transition(State.HALF_OPEN);
+                probeInFlight = false;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probeInFlight) {
+                    return Permit.rejected(Duration.ofNanos(openDurationNanos));
+                }
+                probeInFlight = true;
+            }
+            return permit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onSuccess(Permit permit) {
+        record(permit, false);
+    }
+
+    void onFailure(Permit permit) {
+        record(permit, true);
+    }
+
+    /**
+     * Give back a call allowed by {@link #tryAcquire} that ended without an outcome, so a
+     * half-open breaker lets the next call probe instead of staying half-open for good.
+     */
+    void abandon(Permit permit) {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && permit == this.permit) {
+                probeInFlight = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(Permit permit, boolean failure) {
+        lock.lock();
+        try {
+            if (permit != this.permit) {
+                return;
+            }
+            if (state == State.HALF_OPEN) {
+                probeInFlight = false;
+                if (failure) {
+                    open();
+                } else {
+                    reset();
+                }
+                return;
+            }
+
+            if (recorded == failures.length && failures[next]) {
+                failureCount--;
+            }
+            failures[next] = failure;
+            if (failure) {
+                failureCount++;
+            }
+            next = (next + 1) % failures.length;
+            recorded = Math.min(recorded + 1, failures.length);
+
+            if (state == State.CLOSED && recorded >= minimumCalls
+                && failureCount * 100 >= failureRateThreshold * recorded) {
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAt = System.nanoTime();
+    }
+
+    private void reset() {
+        transition(State.CLOSED);
+        recorded = 0;
+        next = 0;
+        failureCount = 0;
+        Arrays.fill(failures, false);
+    }
+
+    private void transition(State to) {
+        state = to;
+        permit = new Permit(true, Duration.ZERO);
+    }
+
+    /**
+     * The answer to {@link #tryAcquire}: a call let through, or a rejection.
+     */
+    static final class Permit {
+
+        private final boolean granted;
+        private final Duration retryAfter;
+
+        private Permit(boolean granted, Duration retryAfter) {
+            this.granted = granted;
+            this.retryAfter = retryAfter;
+        }
+
+        private static Permit rejected(Duration retryAfter) {
+            return new Permit(false, retryAfter);
+        }
+
+        boolean granted() {
+            return granted;
+        }
+
+        /**
+         * How long until the breaker will next allow a call; zero if this one was let through.
+         */
+        Duration retryAfter() {
+            return retryAfter;
+        }
+    }
+}
@@ -1,12 +1,32 @@
 package com.example.moneymate.api.obp.client;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 @Service
 public class ObpClient {
 
@@ -15,12 +35,25 @@ public class ObpClient {
     private final RestClient publicRestClient;
     private final String consumerKey;
     private final String apiVersion;
+    private final ObpResponseCache responseCache;
+    private final ObpSingleFlight singleFlight = new ObpSingleFlight();
+    private final ObpResilience resilience;
+    private final ObpHedging hedging;
+    private final ObjectMapper objectMapper;
 
     public ObpClient(
         @Qualifier("obpPublicRestClient") RestClient publicRestClient,
-        ObpProperties properties
+        ObpProperties properties,
+        ObpResponseCache responseCache,
+        ObpResilience resilience,
+        ObpHedging hedging,
+        ObjectMapper objectMapper
     ) {
         this.publicRestClient = publicRestClient;
+        this.responseCache = responseCache;
+        this.resilience = resilience;
+        this.hedging = hedging;
+        this.objectMapper = objectMapper;
         this.consumerKey = properties.auth().consumerKey();
         this.apiVersion = properties.api().version();
     }
@@ -43,12 +76,12 @@ public class ObpClient {
         log.debug("Attempting OBP DirectLogin for user: {}", username);
 
         try {
-            DirectLoginResponse response = publicRestClient.post()
+            DirectLoginResponse response = resilience.call(ObpEndpoint.LOGIN, () -> publicRestClient.post()
                 .uri("/my/logins/direct")
                 .header("directlogin", directLoginHeader)
                 .body("{}")
                 .retrieve()
-                .body(DirectLoginResponse.class);
+                .body(DirectLoginResponse.class));
 
             if (response == null || response.token() == null) {
                 log.error("OBP DirectLogin returned null response or token for user: {}", username);
@@ -72,8 +105,13 @@ public class ObpClient {
      * @throws ObpClientException if OBP is unreachable or returns error
      */
     public UserDetailsResponse getCurrentUser(String obpToken) {
-        String directLoginHeader = "token=" + obpToken;
         String uri = "/obp/" + apiVersion + "/users/current";
+        return get(obpToken, ObpEndpoint.CURRENT_USER, uri,
+            retained -> ObpVersionedResponse.unversioned(fetchCurrentUser(obpToken, uri)));
+    }
+
+    private UserDetailsResponse fetchCurrentUser(String obpToken, String uri) {
+        String directLoginHeader = "token=" + obpToken;
 
         log.debug("Fetching current user from OBP");
 
@@ -106,25 +144,50 @@ public class ObpClient {
      * @throws ObpClientException if OBP is unreachable or returns error
      */
     public ObpAccountsResponse getAccounts(String obpToken) {
-        String directLoginHeader = "token=" + obpToken;
         String uri = "/obp/" + apiVersion + "/my/accounts";
+        return get(obpToken, ObpEndpoint.ACCOUNTS, uri, retained -> fetchAccounts(obpToken, uri, retained));
+    }
+
+    /**
+     * Get user's accounts from OBP, bypassing any cached listing.
+     *
+     * @param obpToken OBP DirectLogin token
+     * @return Accounts from OBP
+     * @throws ObpClientException if OBP is unreachable or returns error
+     */
+    public ObpAccountsResponse refreshAccounts(String obpToken) {
+        String uri = "/obp/" + apiVersion + "/my/accounts";
+        responseCache.evict(obpToken, ObpEndpoint.ACCOUNTS, uri);
+        return getAccounts(obpToken);
+    }
+
+    private ObpVersionedResponse<ObpAccountsResponse> fetchAccounts(
+        String obpToken, String uri, ObpVersionedResponse<ObpAccountsResponse> retained) {
+        String directLoginHeader = "token=" + obpToken;
 
         log.debug("Fetching accounts from OBP");
 
         try {
-            ObpAccountsResponse response = publicRestClient.get()
+            ResponseEntity<ObpAccountsResponse> entity = publicRestClient.get()
                 .uri(uri)
                 .header("directlogin", directLoginHeader)
+                .headers(headers -> ifNoneMatch(headers, retained))
                 .retrieve()
-                .body(ObpAccountsResponse.class);
+                .toEntity(ObpAccountsResponse.class);
 
+            if (isNotModified(entity.getStatusCode(), retained)) {
+                log.debug("OBP accounts not modified");
+                return retained;
+            }
+
+            ObpAccountsResponse response = entity.getBody();
             if (response == null) {
                 log.error("OBP my/accounts returned null response");
                 throw new ObpClientException("Failed to fetch accounts from OBP");
             }
 
             log.debug("Successfully fetched {} accounts", response.accounts().size());
-            return response;
+            return new ObpVersionedResponse<>(response, entity.getHeaders().getETag());
 
         } catch (RestClientException e) {
             log.error("Failed to fetch accounts from OBP: {}", e.getMessage(), e);
@@ -133,24 +196,22 @@ public class ObpClient {
     }
 
     /**
-     * Get all banks from OBP using DirectLogin token.
+     * Get all banks from OBP. The bank list is public and identical for every user,
+     * so no DirectLogin token is sent.
      *
-     * @param obpToken OBP DirectLogin token
      * @return Banks from OBP
      * @throws ObpClientException if OBP is unreachable or returns error
      */
-    public ObpBanksResponse getBanks(String obpToken) {
-        String directLoginHeader = "token=" + obpToken;
+    public ObpBanksResponse getBanks() {
         String uri = "/obp/" + apiVersion + "/banks";
 
         log.debug("Fetching banks from OBP");
 
         try {
-            ObpBanksResponse response = publicRestClient.get()
+            ObpBanksResponse response = resilience.call(ObpEndpoint.BANKS, () -> publicRestClient.get()
                 .uri(uri)
-                .header("directlogin", directLoginHeader)
                 .retrieve()
-                .body(ObpBanksResponse.class);
+                .body(ObpBanksResponse.class));
 
             if (response == null) {
                 log.error("OBP banks returned null response");
@@ -176,25 +237,39 @@ public class ObpClient {
      * @throws ObpClientException if OBP is unreachable or returns error
      */
     public ObpAccountDetailsResponse getAccountDetails(String obpToken, String bankId, String accountId) {
-        String directLoginHeader = "token=" + obpToken;
         String uri = "/obp/" + apiVersion + "/banks/" + bankId + "/accounts/" + accountId + "/owner/account";
+        return get(obpToken, ObpEndpoint.ACCOUNT_DETAILS, uri,
+            retained -> fetchAccountDetails(obpToken, bankId, accountId, uri, retained));
+    }
+
+    private ObpVersionedResponse<ObpAccountDetailsResponse> fetchAccountDetails(
+        String obpToken, String bankId, String accountId, String uri,
+        ObpVersionedResponse<ObpAccountDetailsResponse> retained) {
+        String directLoginHeader = "token=" + obpToken;
 
         log.debug("Fetching account details for {}/{}", bankId, accountId);
 
         try {
-            ObpAccountDetailsResponse response = publicRestClient.get()
+            ResponseEntity<ObpAccountDetailsResponse> entity = publicRestClient.get()
                 .uri(uri)
                 .header("directlogin", directLoginHeader)
+                .headers(headers -> ifNoneMatch(headers, retained))
                 .retrieve()
-                .body(ObpAccountDetailsResponse.class);
+                .toEntity(ObpAccountDetailsResponse.class);
+
+            if (isNotModified(entity.getStatusCode(), retained)) {
+                log.debug("OBP account details not modified for {}/{}", bankId, accountId);
+                return retained;
+            }
 
+            ObpAccountDetailsResponse response = entity.getBody();
             if (response == null) {
                 log.error("OBP account details returned null response for {}/{}", bankId, accountId);
                 throw new ObpClientException("Failed to fetch account details from OBP");
             }
 
             log.debug("Successfully fetched account details for {}/{}", bankId, accountId);
-            return response;
+            return new ObpVersionedResponse<>(response, entity.getHeaders().getETag());
 
         } catch (RestClientException e) {
             log.error("Failed to fetch account details from OBP for {}/{}: {}", bankId, accountId, e.getMessage(), e);
@@ -212,18 +287,32 @@ public class ObpClient {
      * @throws ObpClientException if OBP is unreachable or returns error
      */
     public ObpTransactionsResponse getTransactions(String obpToken, String bankId, String accountId) {
-        String directLoginHeader = "token=" + obpToken;
         String uri = "/obp/" + apiVersion + "/banks/" + bankId + "/accounts/" + accountId + "/owner/transactions";
+        return get(obpToken, ObpEndpoint.TRANSACTIONS, uri,
+            retained -> fetchTransactions(obpToken, bankId, accountId, uri, retained));
+    }
+
+    private ObpVersionedResponse<ObpTransactionsResponse> fetchTransactions(
+        String obpToken, String bankId, String accountId, String uri,
+        ObpVersionedResponse<ObpTransactionsResponse> retained) {
+        String directLoginHeader = "token=" + obpToken;
 
         log.debug("Fetching transactions for {}/{}", bankId, accountId);
 
         try {
-            ObpTransactionsResponse response = publicRestClient.get()
+            ResponseEntity<ObpTransactionsResponse> entity = publicRestClient.get()
                 .uri(uri)
                 .header("directlogin", directLoginHeader)
+                .headers(headers -> ifNoneMatch(headers, retained))
                 .retrieve()
-                .body(ObpTransactionsResponse.class);
+                .toEntity(ObpTransactionsResponse.class);
+
+            if (isNotModified(entity.getStatusCode(), retained)) {
+                log.debug("OBP transactions not modified for {}/{}", bankId, accountId);
+                return retained;
+            }
 
+            ObpTransactionsResponse response = entity.getBody();
             if (response == null) {
                 log.error("OBP transactions returned null response for {}/{}", bankId, accountId);
                 throw new ObpClientException("Failed to fetch transactions from OBP");
@@ -231,11 +320,191 @@ public class ObpClient {
 
             log.debug("Successfully fetched {} transactions for {}/{}",
                 response.transactions().size(), bankId, accountId);
-            return response;
+            return new ObpVersionedResponse<>(response, entity.getHeaders().getETag());
 
         } catch (RestClientException e) {
             log.error("Failed to fetch transactions from OBP for {}/{}: {}", bankId, accountId, e.getMessage(), e);
             throw new ObpClientException("Failed to fetch transactions from OBP", e);
         }
     }
+
+    /**
+     * Get one page of account transactions from OBP.
+     * <p>
+     * Paging and the date window are passed to OBP in its {@code obp_limit}, {@code obp_offset},
+     * {@code obp_from_date}, {@code obp_to_date} and {@code obp_sort_direction} request headers.
+     * The response is parsed incrementally, one transaction at a time, so memory use is bounded
+     * by the page size rather than by the size of the response body.
+     *
+     * @param obpToken OBP DirectLogin token
+     * @param bankId Bank ID
+     * @param accountId Account ID
+     * @param query the page and date window to fetch
+     * @return the requested page of transactions
+     * @throws ObpClientException if OBP is unreachable or returns error
+     */
+    public ObpTransactionPage getTransactionPage(String obpToken, String bankId, String accountId,
+                                                 ObpTransactionQuery query) {
+        String uri = "/obp/" + apiVersion + "/banks/" + bankId + "/accounts/" + accountId + "/owner/transactions";
+        return get(obpToken, ObpEndpoint.TRANSACTIONS, uri + "?" + query.describe(),
+            retained -> fetchTransactionPage(obpToken, bankId, accountId, uri, query, retained));
+    }
+
+    /**
+     * Lazily stream account transactions from OBP, fetching one page at a time as the stream
+     * is consumed. Only the current page is held in memory.
+     *
+     * @param obpToken OBP DirectLogin token
+     * @param bankId Bank ID
+     * @param accountId Account ID
+     * @param query the first page to fetch; its limit is used as the page size
+     * @return transactions in the order OBP returns them
+     * @throws ObpClientException if OBP is unreachable or returns error while the stream is consumed
+     */
+    public Stream<ObpTransactionsResponse.Transaction> streamTransactions(String obpToken, String bankId,
+                                                                         String accountId, ObpTransactionQuery query) {
+        Iterator<ObpTransactionsResponse.Transaction> pages = new TransactionPageIterator(obpToken, bankId, accountId, query);
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED | Spliterator.NONNULL),
+            false
+        );
+    }
+
+    private ObpVersionedResponse<ObpTransactionPage> fetchTransactionPage(
+        String obpToken, String bankId, String accountId, String uri, ObpTransactionQuery query,
+        ObpVersionedResponse<ObpTransactionPage> retained) {
+        String directLoginHeader = "token=" + obpToken;
+
+        log.debug("Fetching transaction page for {}/{} ({})", bankId, accountId, query.describe());
+
+        try {
+            ObpVersionedResponse<ObpTransactionPage> page = publicRestClient.get()
+                .uri(uri)
+                .header("directlogin", directLoginHeader)
+                .headers(headers -> applyPaging(headers, query))
+                .headers(headers -> ifNoneMatch(headers, retained))
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw new ObpClientException("Failed to fetch transactions from OBP",
+                            response.getStatusCode(), null);
+                    }
+                    if (isNotModified(response.getStatusCode(), retained)) {
+                        return retained;
+                    }
+                    List<ObpTransactionsResponse.Transaction> transactions =
+                        readTransactions(response.getBody(), query.limit());
+                    return new ObpVersionedResponse<>(new ObpTransactionPage(transactions, query),
+                        response.getHeaders().getETag());
+                });
+
+            log.debug("Fetched {} transactions for {}/{} at offset {}{}",
+                page.body().transactions().size(), bankId, accountId, query.offset(),
+                page == retained ? " (not modified)" : "");
+            return page;
+
+        } catch (RestClientException e) {
+            log.error("Failed to fetch transactions from OBP for {}/{}: {}", bankId, accountId, e.getMessage(), e);
+            throw new ObpClientException("Failed to fetch transactions from OBP", e);
+        }
+    }
+
+    /**
+     * Ask OBP to answer 304 if the retained copy is still current.
+     */
+    private static void ifNoneMatch(HttpHeaders headers, ObpVersionedResponse<?> retained) {
+        if (retained != null && retained.etag() != null) {
+            headers.setIfNoneMatch(retained.etag());
+        }
+    }
+
+    private static boolean isNotModified(HttpStatusCode status, ObpVersionedResponse<?> retained) {
+        return retained != null && status.isSameCodeAs(HttpStatus.NOT_MODIFIED);
+    }
+
+    private static void applyPaging(HttpHeaders headers, ObpTransactionQuery query) {
+        headers.set("obp_limit", Integer.toString(query.limit()));
+        headers.set("obp_offset", Integer.toString(query.offset()));
+        headers.set("obp_sort_direction", query.ascending() ? "ASC" : "DESC");
+        if (query.fromDate() != null) {
+            headers.set("obp_from_date", ObpTransactionQuery.OBP_DATE_FORMAT.format(query.fromDate()));
+        }
+        if (query.toDate() != null) {
+            headers.set("obp_to_date", ObpTransactionQuery.OBP_DATE_FORMAT.format(query.toDate()));
+        }
+    }
+
+    /**
+     * Pull transactions out of an OBP {@code {"transactions": [...]}} body with the streaming
+     * parser, binding one transaction object at a time and skipping everything else.
+     */
+    private List<ObpTransactionsResponse.Transaction> readTransactions(InputStream body, int expected) throws IOException {
+        List<ObpTransactionsResponse.Transaction> transactions = new ArrayList<>(expected);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new ObpClientException("Unexpected transactions response from OBP");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("transactions".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        transactions.add(objectMapper.readValue(parser, ObpTransactionsResponse.Transaction.class));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return transactions;
+    }
+
+    /**
+     * Token-scoped GET pipeline: fresh cache hit, else one coalesced call per (token, URI),
+     * hedged and retried per the endpoint's policy, with each attempt made under the
+     * endpoint's circuit breaker and its own bulkhead slot. The fetch is handed the retained
+     * cache copy, if any, to revalidate with OBP. If that call fails, the cache falls back to a
+     * stale copy when it has one.
+     */
+    private <T> T get(String obpToken, ObpEndpoint endpoint, String key,
+                      Function<ObpVersionedResponse<T>, ObpVersionedResponse<T>> fetch) {
+        return responseCache.get(obpToken, endpoint, key,
+            retained -> singleFlight.execute(obpToken, key,
+                () -> hedging.execute(endpoint, () -> fetch.apply(retained))));
+    }
+
+    private class TransactionPageIterator implements Iterator<ObpTransactionsResponse.Transaction> {
+
+        private final String obpToken;
+        private final String bankId;
+        private final String accountId;
+        private ObpTransactionQuery nextQuery;
+        private Iterator<ObpTransactionsResponse.Transaction> current = Collections.emptyIterator();
+
+        TransactionPageIterator(String obpToken, String bankId, String accountId, ObpTransactionQuery firstQuery) {
+            this.obpToken = obpToken;
+            this.bankId = bankId;
+            this.accountId = accountId;
+            this.nextQuery = firstQuery;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && nextQuery != null) {
+                ObpTransactionPage page = getTransactionPage(obpToken, bankId, accountId, nextQuery);
+                current = page.transactions().iterator();
+                nextQuery = page.hasMore() ? nextQuery.nextPage() : null;
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public ObpTransactionsResponse.Transaction next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
 }
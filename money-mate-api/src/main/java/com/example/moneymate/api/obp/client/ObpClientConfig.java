@@ -1,20 +1,76 @@
 package com.example.moneymate.api.obp.client;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
 @Configuration
 @EnableConfigurationProperties(ObpProperties.class)
 public class ObpClientConfig {
 
+    // The pool and its metrics exist only for the HTTP/1.1 transport; with http2 the JDK client is used
+    @Bean
+    @ConditionalOnProperty(prefix = "obp.api.http", name = "http2", havingValue = "false", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager obpConnectionManager(ObpProperties properties) {
+        ObpProperties.TimeoutProperties timeout = properties.api().timeout();
+        ObpProperties.HttpProperties http = properties.api().http();
+
+        return PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(http.maxConnectionsTotal())
+            .setMaxConnPerRoute(http.maxConnectionsPerRoute())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(timeout.connect()))
+                .setSocketTimeout(Timeout.of(timeout.read()))
+                .setTimeToLive(TimeValue.of(http.connectionTimeToLive()))
+                .build())
+            .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "obp.api.http", name = "http2", havingValue = "false", matchIfMissing = true)
+    public MeterBinder obpConnectionPoolMetrics(PoolingHttpClientConnectionManager obpConnectionManager) {
+        // Publishes httpcomponents.httpclient.pool.* gauges (leased, available, pending, max)
+        return new PoolingHttpClientConnectionManagerMetricsBinder(obpConnectionManager, "obp");
+    }
+
+    @Bean(name = "obpFanOutExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService obpFanOutExecutor() {
+        // Fan-out tasks spend nearly all their time blocked on OBP I/O. The security context
+        // of the submitting request is carried over to the virtual thread running each task.
+        ThreadFactory threadFactory = Thread.ofVirtual().name("obp-fan-out-", 0).factory();
+        return new DelegatingSecurityContextExecutorService(Executors.newThreadPerTaskExecutor(threadFactory));
+    }
+
     @Bean("obpPublicRestClient")
-    public RestClient obpPublicRestClient(RestClient.Builder builder, ObpProperties properties) {
-        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        requestFactory.setConnectTimeout(properties.api().timeout().connect());
-        requestFactory.setReadTimeout(properties.api().timeout().read());
+    public RestClient obpPublicRestClient(RestClient.Builder builder,
+                                          ObpProperties properties,
+                                          ObjectProvider<PoolingHttpClientConnectionManager> obpConnectionManager) {
+        ClientHttpRequestFactory requestFactory = properties.api().http().http2()
+            ? http2RequestFactory(properties)
+            : pooledRequestFactory(properties, obpConnectionManager.getObject());
 
         return builder
             .baseUrl(properties.api().baseUrl())
@@ -22,4 +78,42 @@ public class ObpClientConfig {
             .requestFactory(requestFactory)
             .build();
     }
+
+    private ClientHttpRequestFactory pooledRequestFactory(ObpProperties properties,
+                                                          PoolingHttpClientConnectionManager connectionManager) {
+        ObpProperties.HttpProperties http = properties.api().http();
+        TimeValue maxKeepAlive = TimeValue.of(http.keepAlive());
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(http.connectionAcquireTimeout()))
+                .setResponseTimeout(Timeout.of(properties.api().timeout().read()))
+                .build())
+            // Honour OBP's Keep-Alive hint, but never hold an idle connection longer than configured
+            .setKeepAliveStrategy((response, context) -> {
+                TimeValue serverHint = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return TimeValue.isPositive(serverHint) && serverHint.compareTo(maxKeepAlive) < 0
+                    ? serverHint
+                    : maxKeepAlive;
+            })
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(http.idleEviction()))
+            .build();
+
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    private ClientHttpRequestFactory http2RequestFactory(ObpProperties properties) {
+        // The JDK client multiplexes requests over one connection per host when the server
+        // negotiates h2, and falls back to HTTP/1.1 otherwise. Pool sizing does not apply here.
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(properties.api().timeout().connect())
+            .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(properties.api().timeout().read());
+        return requestFactory;
+    }
 }
@@ -0,0 +1,14 @@
+package com.example.moneymate.api.obp.client;
+
+/**
+ * Families of OBP endpoints that ObpClient calls. Used to key per-endpoint
+ * policies such as cache TTLs and circuit breakers.
+ */
+public enum ObpEndpoint {
+    LOGIN,
+    CURRENT_USER,
+    ACCOUNTS,
+    ACCOUNT_DETAILS,
+    TRANSACTIONS,
+    BANKS
+}
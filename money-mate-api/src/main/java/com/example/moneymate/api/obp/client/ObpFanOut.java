@@ -0,0 +1,118 @@
+package com.example.moneymate.api.obp.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Runs independent OBP calls concurrently with a bounded number in flight and an
+ * overall deadline, so the caller waits for the slowest call rather than the sum of all.
+ * <p>
+ * With fan-out disabled, or for a single item, the calls run one after another on the
+ * caller's thread. The deadline still applies: a call already running is not cut short,
+ * but none is started once it has passed.
+ */
+@Component
+public class ObpFanOut {
+
+    private static final Logger log = LoggerFactory.getLogger(ObpFanOut.class);
+
+    private final ExecutorService executor;
+    private final ObpProperties.FanOutProperties properties;
+
+    public ObpFanOut(@Qualifier("obpFanOutExecutor") ExecutorService executor, ObpProperties properties) {
+        this.executor = executor;
+        this.properties = properties.api().fanOut();
+    }
+
+    /**
+     * Apply {@code task} to every item and return the results in input order.
+     *
+     * @param items inputs, one OBP call each
+     * @param label identifies an item in log messages; keep it to IDs, never personal data
+     * @param task the call to make for an item
+     * @param fallback result for an item whose call failed or missed the deadline
+     * @return one result per item, in the same order as {@code items}
+     */
+    public <T, R> List<R> map(List<T> items, Function<T, String> label, Function<T, R> task,
+                              Function<T, R> fallback) {
+        if (!properties.enabled() || items.size() <= 1) {
+            long deadline = System.nanoTime() + properties.deadline().toNanos();
+            List<R> results = new ArrayList<>(items.size());
+            for (T item : items) {
+                if (System.nanoTime() - deadline >= 0) {
+                    log.warn("Fan-out call for {} not started, the {} deadline has passed", label.apply(item),
+                        properties.deadline());
+                    results.add(fallback.apply(item));
+                } else {
+                    results.add(applyOrFallback(item, label, task, fallback));
+                }
+            }
+            return results;
+        }
+
+        // Tasks run on other threads; share the caller's request attributes so that
+        // request-scoped markers (e.g. stale data) set by a task reach the response
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        Semaphore permits = new Semaphore(Math.max(1, properties.parallelism()));
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(executor.submit(() -> {
+                permits.acquire();
+                RequestContextHolder.setRequestAttributes(requestAttributes);
+                try {
+                    return task.apply(item);
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                    permits.release();
+                }
+            }));
+        }
+
+        long deadline = System.nanoTime() + properties.deadline().toNanos();
+        List<R> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            Future<R> future = futures.get(i);
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                results.add(future.get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Fan-out call for {} missed the {} deadline", label.apply(item), properties.deadline());
+                results.add(fallback.apply(item));
+            } catch (ExecutionException e) {
+                log.warn("Fan-out call for {} failed: {}", label.apply(item), e.getCause().getMessage());
+                results.add(fallback.apply(item));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new ObpClientException("Interrupted while waiting for OBP calls", e);
+            }
+        }
+        return results;
+    }
+
+    private <T, R> R applyOrFallback(T item, Function<T, String> label, Function<T, R> task,
+                                     Function<T, R> fallback) {
+        try {
+            return task.apply(item);
+        } catch (RuntimeException e) {
+            log.warn("Call for {} failed: {}", label.apply(item), e.getMessage());
+            return fallback.apply(item);
+        }
+    }
+}
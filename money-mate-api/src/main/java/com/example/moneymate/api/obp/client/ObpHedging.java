@@ -0,0 +1,238 @@
+package com.example.moneymate.api.obp.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests and budgeted retries for idempotent OBP GETs.
+ * <p>
+ * With hedging enabled for an endpoint, a call that has not answered within the endpoint's
+ * observed latency percentile (or a fixed delay until enough samples exist) is sent a second
+ * time and whichever copy succeeds first wins. Calls that fail with an outage-type error can
+ * be retried. Both kinds of extra attempt draw from a shared {@link ObpRetryBudget}, so they
+ * stay a bounded fraction of traffic.
+ * <p>
+ * The exchange handed in is one HTTP exchange with OBP. Each attempt runs it under the
+ * endpoint's circuit breaker and its own bulkhead slot, so hedges and retries each take their
+ * own slot and none is held while backing off. Latency is sampled inside the slot, around the
+ * exchange alone, so time spent queueing for the bulkhead does not raise the hedge delay. An
+ * attempt rejected by the breaker or the bulkhead is not retried. When one copy of a hedged
+ * call wins, the other is cancelled: its thread is interrupted, which aborts the exchange and
+ * hands back its slot and connection.
+ */
+@Component
+public class ObpHedging {
+
+    private static final Logger log = LoggerFactory.getLogger(ObpHedging.class);
+
+    private static final int LATENCY_WINDOW = 256;
+    private static final Duration DEFAULT_HEDGE_DELAY = Duration.ofMillis(250);
+    private static final ObpProperties.EndpointProperties NO_POLICY =
+        new ObpProperties.EndpointProperties(null, null);
+
+    private final ExecutorService executor;
+    private final ObpResilience resilience;
+    private final Map<ObpEndpoint, ObpProperties.EndpointProperties> policies;
+    private final Map<ObpEndpoint, ObpLatencyTracker> latencies = new EnumMap<>(ObpEndpoint.class);
+    private final ObpRetryBudget budget;
+    private final Counter hedgesSent;
+    private final Counter hedgeWins;
+    private final Counter retries;
+    private final Counter budgetExhausted;
+
+    public ObpHedging(@Qualifier("obpFanOutExecutor") ExecutorService executor,
+                      ObpResilience resilience,
+                      ObpProperties properties,
+                      MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.resilience = resilience;
+        this.policies = properties.api().endpoints() != null ? properties.api().endpoints() : Map.of();
+
+        ObpProperties.RetryBudgetProperties budgetProperties = properties.api().retryBudget();
+        this.budget = new ObpRetryBudget(budgetProperties.ratio(), budgetProperties.maxTokens());
+
+        for (ObpEndpoint endpoint : ObpEndpoint.values()) {
+            ObpProperties.HedgeProperties hedge = policy(endpoint).hedge();
+            int percentile = hedge != null && hedge.percentile() > 0 ? hedge.percentile() : 95;
+            latencies.put(endpoint, new ObpLatencyTracker(LATENCY_WINDOW, percentile));
+        }
+
+        Gauge.builder("obp.retry.budget.tokens", budget, ObpRetryBudget::availableTokens)
+            .description("Extra OBP attempts (hedges and retries) currently allowed")
+            .register(meterRegistry);
+        this.hedgesSent = meterRegistry.counter("obp.hedge.sent");
+        this.hedgeWins = meterRegistry.counter("obp.hedge.won");
+        this.retries = meterRegistry.counter("obp.retry.attempts");
+        this.budgetExhausted = meterRegistry.counter("obp.retry.budget.exhausted");
+    }
+
+    /**
+     * Run an idempotent OBP exchange with the endpoint's hedging and retry policy.
+     */
+    public <T> T execute(ObpEndpoint endpoint, Supplier<T> exchange) {
+        budget.recordRequest();
+
+        ObpProperties.EndpointProperties policy = policy(endpoint);
+        ObpProperties.HedgeProperties hedge = policy.hedge();
+        ObpProperties.RetryProperties retry = policy.retry();
+        int maxAttempts = retry != null ? Math.max(1, retry.maxAttempts()) : 1;
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return hedge != null && hedge.enabled()
+                    ? hedged(endpoint, hedge, exchange)
+                    : attempt(endpoint, exchange);
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || e instanceof ObpUnavailableException
+                    || !ObpResilience.isOutageFailure(e)) {
+                    throw e;
+                }
+                if (!budget.tryWithdraw()) {
+                    budgetExhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+                log.debug("Retrying OBP {} call (attempt {}) after: {}", endpoint, attempt + 1, e.getMessage());
+                backoff(retry.backoff());
+            }
+        }
+    }
+
+    private <T> T hedged(ObpEndpoint endpoint, ObpProperties.HedgeProperties hedge, Supplier<T> exchange) {
+        CompletableFuture<T> primary = new CompletableFuture<>();
+        Future<?> primaryTask = start(endpoint, exchange, primary);
+        Duration delay = hedgeDelay(endpoint, hedge);
+
+        try {
+            return primary.get(delay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (!budget.tryWithdraw()) {
+                budgetExhausted.increment();
+                return await(primary);
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            primaryTask.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ObpClientException("Interrupted while waiting for OBP", e);
+        }
+
+        hedgesSent.increment();
+        log.debug("OBP {} call slower than {}, sending hedge", endpoint, delay);
+        CompletableFuture<T> backup = new CompletableFuture<>();
+        Future<?> backupTask = start(endpoint, exchange, backup);
+
+        // Whichever copy succeeds first wins; the other is cancelled so that it does not keep
+        // its bulkhead slot and connection for a response nobody reads
+        primary.thenRun(() -> {
+            if (!backup.isDone()) {
+                backupTask.cancel(true);
+            }
+        });
+        backup.thenRun(() -> {
+            if (!primary.isDone()) {
+                hedgeWins.increment();
+                primaryTask.cancel(true);
+            }
+        });
+        return await(firstSuccessful(primary, backup));
+    }
+
+    /**
+     * How long a call waits before sending a hedge: the observed latency percentile, or the
+     * configured delay until enough samples exist.
+     */
+    Duration hedgeDelay(ObpEndpoint endpoint, ObpProperties.HedgeProperties hedge) {
+        return latencies.get(endpoint).percentileOr(hedge.delay() != null ? hedge.delay() : DEFAULT_HEDGE_DELAY);
+    }
+
+    private <T> Future<?> start(ObpEndpoint endpoint, Supplier<T> exchange, CompletableFuture<T> result) {
+        return executor.submit(() -> {
+            try {
+                result.complete(attempt(endpoint, exchange));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    private <T> T attempt(ObpEndpoint endpoint, Supplier<T> exchange) {
+        return resilience.call(endpoint, () -> {
+            long start = System.nanoTime();
+            T result = exchange.get();
+            latencies.get(endpoint).record(System.nanoTime() - start);
+            return result;
+        });
+    }
+
+    /**
+     * Completes with the first of the two to succeed, or with the later failure if both fail.
+     */
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> a, CompletableFuture<T> b) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> candidate : List.of(a, b)) {
+            candidate.whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                } else if (failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+        return result;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof CompletionException nested && nested.getCause() != null) {
+            cause = nested.getCause();
+        }
+        return cause instanceof RuntimeException runtime
+            ? runtime
+            : new ObpClientException("OBP call failed", cause);
+    }
+
+    private static void backoff(Duration backoff) {
+        if (backoff == null || backoff.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ObpClientException("Interrupted while backing off before OBP retry", e);
+        }
+    }
+
+    private ObpProperties.EndpointProperties policy(ObpEndpoint endpoint) {
+        return policies.getOrDefault(endpoint, NO_POLICY);
+    }
+}
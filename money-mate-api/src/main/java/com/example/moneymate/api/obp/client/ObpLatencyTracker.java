@@ -0,0 +1,54 @@
+package com.example.moneymate.api.obp.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Recent-latency window for one OBP endpoint family, used to derive hedging delays.
+ * Keeps the last {@code capacity} successful call durations and recomputes the
+ * requested percentile every {@code capacity / 8} samples.
+ */
+class ObpLatencyTracker {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] samples;
+    private final int recomputeEvery;
+    private final int percentile;
+    private int count;
+    private int next;
+    private int sinceRecompute;
+    private volatile long percentileNanos = -1;
+
+    ObpLatencyTracker(int capacity, int percentile) {
+        this.samples = new long[capacity];
+        this.recomputeEvery = Math.max(1, capacity / 8);
+        this.percentile = percentile;
+    }
+
+    void record(long nanos) {
+        lock.lock();
+        try {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            if (++sinceRecompute >= recomputeEvery) {
+                sinceRecompute = 0;
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                int index = Math.min(count - 1, (int) Math.ceil(percentile / 100.0 * count) - 1);
+                percentileNanos = sorted[Math.max(0, index)];
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the tracked percentile, or {@code fallback} until enough samples have been seen
+     */
+    Duration percentileOr(Duration fallback) {
+        long nanos = percentileNanos;
+        return nanos < 0 ? fallback : Duration.ofNanos(nanos);
+    }
+}
@@ -1,18 +1,27 @@
 package com.example.moneymate.api.obp.client;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
+import java.util.Map;
 
 @ConfigurationProperties(prefix = "obp")
 public record ObpProperties(
     ApiProperties api,
-    AuthProperties auth
+    AuthProperties auth,
+    CacheProperties cache,
+    BankCatalogProperties banks,
+    ResilienceProperties resilience
 ) {
     public record ApiProperties(
         String baseUrl,
         String version,
-        TimeoutProperties timeout
+        TimeoutProperties timeout,
+        HttpProperties http,
+        FanOutProperties fanOut,
+        RetryBudgetProperties retryBudget,
+        Map<ObpEndpoint, EndpointProperties> endpoints
     ) {
         public String buildUrl(String path) {
             return baseUrl + "/obp/" + version + path;
@@ -24,7 +33,151 @@ public record ObpProperties(
         Duration read
     ) {}
 
+    /**
+     * Connection pool settings for the transport underneath the OBP RestClient.
+     *
+     * @param maxConnectionsTotal upper bound on open connections across all routes
+     * @param maxConnectionsPerRoute upper bound on open connections to a single OBP host
+     * @param connectionAcquireTimeout how long a caller waits for a pooled connection before failing
+     * @param idleEviction close connections that have been idle for longer than this
+     * @param keepAlive cap on how long an idle connection is kept for reuse, even if OBP allows longer
+     * @param connectionTimeToLive hard limit on the lifetime of a pooled connection
+     * @param http2 negotiate HTTP/2 (via ALPN) with the JDK client instead of the pooled HTTP/1.1 transport
+     */
+    public record HttpProperties(
+        int maxConnectionsTotal,
+        int maxConnectionsPerRoute,
+        Duration connectionAcquireTimeout,
+        Duration idleEviction,
+        Duration keepAlive,
+        Duration connectionTimeToLive,
+        boolean http2
+    ) {}
+
+    /**
+     * Settings for issuing independent OBP calls concurrently (e.g. one balance lookup per account).
+     *
+     * @param enabled run fan-out calls concurrently; when false they run one after another on the caller's thread
+     * @param parallelism maximum number of calls in flight for a single fan-out
+     * @param deadline overall time budget for a fan-out; calls still running after it are abandoned,
+     *                 and calls run one after another are not started after it
+     */
+    public record FanOutProperties(
+        boolean enabled,
+        int parallelism,
+        Duration deadline
+    ) {}
+
+    /**
+     * Shared allowance for extra OBP attempts (hedges and retries).
+     *
+     * @param ratio extra attempts allowed per original request, e.g. 0.1 for 10% of traffic
+     * @param maxTokens cap on extra attempts that can be banked during quiet periods
+     */
+    public record RetryBudgetProperties(
+        double ratio,
+        int maxTokens
+    ) {}
+
+    /**
+     * Tail-latency policy for one OBP endpoint family. Either part may be omitted.
+     */
+    public record EndpointProperties(
+        HedgeProperties hedge,
+        RetryProperties retry
+    ) {}
+
+    /**
+     * @param enabled send a second copy of a slow idempotent GET
+     * @param percentile observed latency percentile after which the hedge is sent
+     * @param delay hedge delay used until enough latencies have been observed
+     */
+    public record HedgeProperties(
+        boolean enabled,
+        int percentile,
+        Duration delay
+    ) {}
+
+    /**
+     * @param maxAttempts total attempts including the first; 1 disables retries
+     * @param backoff pause before each retry
+     */
+    public record RetryProperties(
+        int maxAttempts,
+        Duration backoff
+    ) {}
+
     public record AuthProperties(
         String consumerKey
     ) {}
+
+    /**
+     * Per-session cache of OBP responses.
+     *
+     * @param enabled cache OBP responses at all
+     * @param maxMemory estimated memory budget shared by all cached responses
+     * @param ttl how long each kind of response stays fresh; zero disables caching for it
+     * @param staleRetention how long past its TTL a response is kept to serve if OBP is unavailable
+     */
+    public record CacheProperties(
+        boolean enabled,
+        DataSize maxMemory,
+        CacheTtlProperties ttl,
+        Duration staleRetention
+    ) {}
+
+    public record CacheTtlProperties(
+        Duration accounts,
+        Duration accountDetails,
+        Duration transactions
+    ) {}
+
+    /**
+     * Shared catalog of OBP banks.
+     *
+     * @param refreshInterval how often the catalog is reloaded from OBP in the background
+     * @param retryInterval first delay before reloading a catalog that is still empty; doubles
+     *                      with each failed attempt, up to the refresh interval
+     */
+    public record BankCatalogProperties(
+        Duration refreshInterval,
+        Duration retryInterval
+    ) {}
+
+    /**
+     * Fail-fast protection around OBP calls.
+     *
+     * @param enabled apply circuit breakers and the bulkhead
+     * @param circuitBreaker settings shared by the per-endpoint circuit breakers
+     * @param bulkhead limit on concurrent OBP calls across all endpoints
+     */
+    public record ResilienceProperties(
+        boolean enabled,
+        CircuitBreakerProperties circuitBreaker,
+        BulkheadProperties bulkhead
+    ) {}
+
+    /**
+     * @param slidingWindowSize number of most recent calls the failure rate is computed over
+     * @param minimumCalls calls that must be recorded before the breaker can open
+     * @param failureRateThreshold failure percentage at which the breaker opens
+     * @param openDuration how long an open breaker rejects calls before letting a probe through
+     */
+    public record CircuitBreakerProperties(
+        int slidingWindowSize,
+        int minimumCalls,
+        int failureRateThreshold,
+        Duration openDuration
+    ) {}
+
+    /**
+     * @param maxConcurrentCalls OBP calls allowed in flight at once
+     * @param maxWait how long a call waits for a free slot before being rejected
+     * @param retryAfter Retry-After advertised to clients when the bulkhead is full
+     */
+    public record BulkheadProperties(
+        int maxConcurrentCalls,
+        Duration maxWait,
+        Duration retryAfter
+    ) {}
 }
@@ -0,0 +1,152 @@
+package com.example.moneymate.api.obp.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breakers (one per endpoint family) and a shared concurrency bulkhead around
+ * outbound OBP calls.
+ * <p>
+ * When OBP is slow or failing, calls are rejected immediately with
+ * {@link ObpUnavailableException} instead of tying up request threads for the full read
+ * timeout. Client errors (4xx) mean OBP is answering and do not count as failures.
+ */
+@Component
+public class ObpResilience {
+
+    private static final Logger log = LoggerFactory.getLogger(ObpResilience.class);
+
+    private final ObpProperties.ResilienceProperties properties;
+    private final Map<ObpEndpoint, ObpCircuitBreaker> breakers = new EnumMap<>(ObpEndpoint.class);
+    private final Semaphore bulkhead;
+    private final Counter bulkheadRejections;
+    private final Map<ObpEndpoint, Counter> breakerRejections = new EnumMap<>(ObpEndpoint.class);
+
+    public ObpResilience(ObpProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.resilience();
+        ObpProperties.CircuitBreakerProperties breaker = this.properties.circuitBreaker();
+
+        for (ObpEndpoint endpoint : ObpEndpoint.values()) {
+            ObpCircuitBreaker circuitBreaker = new ObpCircuitBreaker(
+                breaker.slidingWindowSize(),
+                breaker.minimumCalls(),
+                breaker.failureRateThreshold(),
+                breaker.openDuration()
+            );
+            breakers.put(endpoint, circuitBreaker);
+
+            String tag = endpoint.name().toLowerCase();
+            Gauge.builder("obp.circuit.state", circuitBreaker, cb -> cb.state().ordinal())
+                .description("OBP circuit breaker state (0=closed, 1=open, 2=half-open)")
+                .tag("endpoint", tag)
+                .register(meterRegistry);
+            breakerRejections.put(endpoint, Counter.builder("obp.circuit.rejected")
+                .description("OBP calls rejected by an open circuit breaker")
+                .tag("endpoint", tag)
+                .register(meterRegistry));
+        }
+
+        this.bulkhead = new Semaphore(this.properties.bulkhead().maxConcurrentCalls(), true);
+        Gauge.builder("obp.bulkhead.available", bulkhead, Semaphore::availablePermits)
+            .description("Free slots for concurrent OBP calls")
+            .register(meterRegistry);
+        this.bulkheadRejections = Counter.builder("obp.bulkhead.rejected")
+            .description("OBP calls rejected because too many were in flight")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Run an outbound OBP call under the endpoint's circuit breaker and the shared bulkhead.
+     * The breaker is asked first, so calls it rejects never take a bulkhead slot.
+     *
+     * @throws ObpUnavailableException if the call was rejected without being attempted
+     */
+    public <T> T call(ObpEndpoint endpoint, Supplier<T> call) {
+        if (!properties.enabled()) {
+            return call.get();
+        }
+
+        ObpCircuitBreaker breaker = breakers.get(endpoint);
+        ObpCircuitBreaker.Permit permit = breaker.tryAcquire();
+        if (!permit.granted()) {
+            breakerRejections.get(endpoint).increment();
+            throw new ObpUnavailableException("OBP " + endpoint + " circuit is open", permit.retryAfter());
+        }
+
+        boolean recorded = false;
+        try {
+            acquireBulkhead(endpoint);
+            try {
+                T result = call.get();
+                recorded = true;
+                breaker.onSuccess(permit);
+                return result;
+            } catch (RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // Cancelled by the caller (the losing copy of a hedged call), not failed by OBP
+                    throw e;
+                }
+                recorded = true;
+                if (isOutageFailure(e)) {
+                    breaker.onFailure(permit);
+                    if (breaker.state() == ObpCircuitBreaker.State.OPEN) {
+                        log.warn("OBP {} circuit is open after failure: {}", endpoint, e.getMessage());
+                    }
+                } else {
+                    breaker.onSuccess(permit);
+                }
+                throw e;
+            } finally {
+                bulkhead.release();
+            }
+        } finally {
+            // Rejected by the bulkhead, cancelled or an Error: no outcome, but a half-open probe is handed back
+            if (!recorded) {
+                breaker.abandon(permit);
+            }
+        }
+    }
+
+    private void acquireBulkhead(ObpEndpoint endpoint) {
+        ObpProperties.BulkheadProperties settings = properties.bulkhead();
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(settings.maxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ObpClientException("Interrupted while waiting for an OBP call slot", e);
+        }
+        if (!acquired) {
+            bulkheadRejections.increment();
+            throw new ObpUnavailableException(
+                "Too many concurrent OBP calls, rejected " + endpoint, settings.retryAfter());
+        }
+    }
+
+    /**
+     * Only failures that suggest OBP is down or overloaded trip the breaker:
+     * timeouts, connection errors and 5xx responses.
+     */
+    static boolean isOutageFailure(RuntimeException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpClientErrorException) {
+                return false;
+            }
+            if (t instanceof ObpClientException obp && obp.getStatusCode() != null) {
+                return obp.getStatusCode().is5xxServerError();
+            }
+        }
+        return true;
+    }
+}
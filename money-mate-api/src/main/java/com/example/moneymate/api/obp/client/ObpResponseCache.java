@@ -0,0 +1,187 @@
+package com.example.moneymate.api.obp.client;
+
+import com.example.moneymate.api.security.SessionRevokedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for per-session OBP responses, keyed by OBP token and request URI.
+ * <p>
+ * Entries are fresh for a per-endpoint TTL and are then kept for a further stale-retention
+ * period. A stale entry is never served while OBP answers, but if reloading it fails it is
+ * returned instead of the error and the response is flagged stale via {@link ObpStaleness}.
+ * Total size is bounded by an estimated memory budget; when it is exceeded Caffeine evicts
+ * using its frequency/recency (W-TinyLFU) policy. All entries for a token are dropped when
+ * its session is revoked; the keys are indexed by token, so that costs the token's own
+ * entries rather than a scan of the whole cache. A session that ends without a
+ * {@link SessionRevokedEvent} leaves its entries to expire with the stale retention.
+ */
+@Component
+public class ObpResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ObpResponseCache.class);
+
+    // Rough retained-size estimates used by the weigher
+    private static final int BASE_ENTRY_BYTES = 512;
+    private static final int ACCOUNT_BYTES = 768;
+    private static final int TRANSACTION_BYTES = 1024;
+
+    private final ObpProperties.CacheProperties properties;
+    private final Cache<Key, Entry> cache;
+    // Keys in the cache per OBP token; may briefly name keys already gone, never misses one
+    private final ConcurrentHashMap<String, Set<Key>> keysByToken = new ConcurrentHashMap<>();
+
+    public ObpResponseCache(ObpProperties properties) {
+        this.properties = properties.cache();
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(this.properties.maxMemory().toBytes())
+            .weigher((Key key, Entry entry) -> weigh(entry.response().body()))
+            .expireAfter(new RetentionExpiry())
+            .removalListener((Key key, Entry entry, RemovalCause cause) -> {
+                if (key != null && cause != RemovalCause.REPLACED) {
+                    unindex(key);
+                }
+            })
+            .build();
+    }
+
+    /**
+     * Return the fresh cached response for this token and URI, loading it with {@code loader}
+     * otherwise. The loader is given the retained copy, or {@code null} when there is none,
+     * so it can revalidate that copy with OBP rather than download it again. Concurrent loads
+     * for the same URI are coalesced by the loader itself (ObpClient wraps it in single-flight).
+     *
+     * @throws ObpClientException if loading fails and there is no stale copy to fall back on
+     */
+    @SuppressWarnings("unchecked")
+    <T> T get(String obpToken, ObpEndpoint endpoint, String uri,
+              Function<ObpVersionedResponse<T>, ObpVersionedResponse<T>> loader) {
+        if (!properties.enabled() || ttl(endpoint).isZero()) {
+            return loader.apply(null).body();
+        }
+
+        Key key = new Key(obpToken, endpoint, uri);
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null && System.nanoTime() - cached.freshUntil() < 0) {
+            return (T) cached.response().body();
+        }
+
+        try {
+            ObpVersionedResponse<T> retained = cached != null ? (ObpVersionedResponse<T>) cached.response() : null;
+            ObpVersionedResponse<T> response = loader.apply(retained);
+            cache.put(key, new Entry(response, System.nanoTime() + ttl(endpoint).toNanos()));
+            index(key);
+            return response.body();
+        } catch (ObpClientException e) {
+            if (cached == null) {
+                throw e;
+            }
+            log.warn("Serving stale {} response after OBP failure: {}", endpoint, e.getMessage());
+            ObpStaleness.markStale();
+            return (T) cached.response().body();
+        }
+    }
+
+    /**
+     * Drop the cached response for one token and URI, so the next read goes to OBP.
+     */
+    public void evict(String obpToken, ObpEndpoint endpoint, String uri) {
+        cache.invalidate(new Key(obpToken, endpoint, uri));
+    }
+
+    /**
+     * Drop every cached response belonging to this OBP token.
+     */
+    public void invalidate(String obpToken) {
+        Set<Key> keys = keysByToken.remove(obpToken);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    // Called after the put, so a concurrent unindex either runs after this or sees the entry
+    private void index(Key key) {
+        keysByToken.compute(key.obpToken(), (token, keys) -> {
+            Set<Key> indexed = keys != null ? keys : new HashSet<>();
+            indexed.add(key);
+            return indexed;
+        });
+    }
+
+    private void unindex(Key key) {
+        keysByToken.computeIfPresent(key.obpToken(), (token, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+        // The same URI may have been cached again since; keep it findable
+        if (cache.asMap().containsKey(key)) {
+            index(key);
+        }
+    }
+
+    @EventListener
+    public void onSessionRevoked(SessionRevokedEvent event) {
+        log.debug("Evicting cached OBP responses for revoked session of {}", event.principal().subject());
+        invalidate(event.principal().obpToken());
+    }
+
+    private Duration ttl(ObpEndpoint endpoint) {
+        ObpProperties.CacheTtlProperties ttl = properties.ttl();
+        return switch (endpoint) {
+            case ACCOUNTS -> ttl.accounts();
+            case ACCOUNT_DETAILS -> ttl.accountDetails();
+            case TRANSACTIONS -> ttl.transactions();
+            case CURRENT_USER, BANKS, LOGIN -> Duration.ZERO;
+        };
+    }
+
+    private static int weigh(Object value) {
+        long bytes = BASE_ENTRY_BYTES;
+        if (value instanceof ObpAccountsResponse accounts && accounts.accounts() != null) {
+            bytes += (long) accounts.accounts().size() * ACCOUNT_BYTES;
+        } else if (value instanceof ObpTransactionsResponse transactions && transactions.transactions() != null) {
+            bytes += (long) transactions.transactions().size() * TRANSACTION_BYTES;
+        } else if (value instanceof ObpTransactionPage page) {
+            bytes += (long) page.transactions().size() * TRANSACTION_BYTES;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private record Key(String obpToken, ObpEndpoint endpoint, String uri) {}
+
+    private record Entry(ObpVersionedResponse<?> response, long freshUntil) {}
+
+    private class RetentionExpiry implements Expiry<Key, Entry> {
+
+        @Override
+        public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+            return retention(key);
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+            return retention(key);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private long retention(Key key) {
+            return ttl(key.endpoint()).plus(properties.staleRetention()).toNanos();
+        }
+    }
+}
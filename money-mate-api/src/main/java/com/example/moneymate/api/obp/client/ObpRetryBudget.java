@@ -0,0 +1,53 @@
+package com.example.moneymate.api.obp.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that caps extra OBP attempts (hedges and retries) at a fraction of
+ * regular traffic.
+ * <p>
+ * Every original request deposits {@code ratio} of a token; every extra attempt must
+ * withdraw a whole token. During an outage, when every request wants to retry, the
+ * bucket drains and extra attempts stop instead of multiplying load on OBP.
+ */
+class ObpRetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    /**
+     * @param ratio extra attempts allowed per original request, e.g. 0.1 for 10%
+     * @param maxTokens cap on banked extra attempts, which bounds bursts after quiet periods
+     */
+    ObpRetryBudget(double ratio, int maxTokens) {
+        this.depositPerRequest = Math.round(ratio * SCALE);
+        this.maxBalance = (long) maxTokens * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    void recordRequest() {
+        balance.accumulateAndGet(depositPerRequest, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    /**
+     * @return true if an extra attempt may be made, in which case its token has been spent
+     */
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    double availableTokens() {
+        return (double) balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.moneymate.api.obp.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical in-flight OBP requests.
+ * <p>
+ * The first caller for a (token, URI) pair performs the request; callers that arrive while
+ * it is running wait for and share its result, or its exception. The entry is removed as
+ * soon as the request completes, so nothing is served that was not fetched for a caller
+ * currently waiting.
+ */
+class ObpSingleFlight {
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    <T> T execute(String obpToken, String uri, Supplier<T> call) {
+        Key key = new Key(obpToken, uri);
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, leader);
+
+        if (existing != null) {
+            return (T) await(existing);
+        }
+
+        try {
+            T result = call.get();
+            leader.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            // Waiters share the failure too; an incomplete future would leave them blocked for good
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new ObpClientException("OBP request failed", e.getCause());
+        }
+    }
+
+    private record Key(String obpToken, String uri) {}
+}
@@ -0,0 +1,47 @@
+package com.example.moneymate.api.obp.client;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Records on the current HTTP request that some OBP data in its response was served
+ * from a stale cache copy because OBP could not be reached.
+ * <p>
+ * The flag is set on the servlet request itself rather than through
+ * {@link org.springframework.web.context.request.RequestAttributes}: OBP work for an
+ * asynchronous controller runs after the initial dispatch has completed, when the
+ * attributes wrapper refuses writes, while the request lives on until the response is written.
+ */
+public final class ObpStaleness {
+
+    private static final String STALE_ATTRIBUTE = ObpStaleness.class.getName() + ".STALE";
+
+    private ObpStaleness() {
+    }
+
+    /**
+     * Flag the current request's response as stale. No-op outside a request.
+     */
+    public static void markStale() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            attributes.getRequest().setAttribute(STALE_ATTRIBUTE, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Whether anything served so far for the current request was stale. {@code false}
+     * outside a request.
+     */
+    public static boolean isStale() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+            && isStale(attributes.getRequest());
+    }
+
+    /**
+     * Whether anything served for {@code request} was stale.
+     */
+    public static boolean isStale(HttpServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(STALE_ATTRIBUTE));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.moneymate.api.obp.client;
+
+import java.util.List;
+
+/**
+ * One page of an account's transactions, as returned for an {@link ObpTransactionQuery}.
+ *
+ * @param transactions at most {@code query.limit()} transactions
+ * @param query the query that produced this page
+ */
+public record ObpTransactionPage(
+    List<ObpTransactionsResponse.Transaction> transactions,
+    ObpTransactionQuery query
+) {
+    /**
+     * Whether OBP may have more transactions after this page. A full page is taken to mean
+     * there could be more; a short page is the end of the history.
+     */
+    public boolean hasMore() {
+        return transactions.size() >= query.limit();
+    }
+}
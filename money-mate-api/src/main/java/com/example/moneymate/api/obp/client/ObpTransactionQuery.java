@@ -0,0 +1,70 @@
+package com.example.moneymate.api.obp.client;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Window of an account's transaction history to request from OBP.
+ *
+ * @param fromDate only transactions completed at or after this instant, or {@code null} for no lower bound
+ * @param toDate only transactions completed at or before this instant, or {@code null} for no upper bound
+ * @param offset number of matching transactions to skip
+ * @param limit maximum number of transactions to return
+ * @param ascending oldest first when true, newest first (OBP's default) when false
+ */
+public record ObpTransactionQuery(
+    Instant fromDate,
+    Instant toDate,
+    int offset,
+    int limit,
+    boolean ascending
+) {
+    // Date format OBP expects in the obp_from_date / obp_to_date headers
+    static final DateTimeFormatter OBP_DATE_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    public ObpTransactionQuery {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+    }
+
+    /**
+     * Newest-first query for the first page of the whole history.
+     */
+    public static ObpTransactionQuery firstPage(int limit) {
+        return new ObpTransactionQuery(null, null, 0, limit, false);
+    }
+
+    public ObpTransactionQuery withDateRange(Instant fromDate, Instant toDate) {
+        return new ObpTransactionQuery(fromDate, toDate, offset, limit, ascending);
+    }
+
+    public ObpTransactionQuery withOffset(int offset) {
+        return new ObpTransactionQuery(fromDate, toDate, offset, limit, ascending);
+    }
+
+    public ObpTransactionQuery withLimit(int limit) {
+        return new ObpTransactionQuery(fromDate, toDate, offset, limit, ascending);
+    }
+
+    public ObpTransactionQuery inAscendingOrder() {
+        return new ObpTransactionQuery(fromDate, toDate, offset, limit, true);
+    }
+
+    public ObpTransactionQuery nextPage() {
+        return withOffset(offset + limit);
+    }
+
+    /**
+     * Stable textual form used to tell identical requests apart.
+     */
+    String describe() {
+        return "from=" + fromDate + "&to=" + toDate + "&offset=" + offset + "&limit=" + limit
+            + "&sort=" + (ascending ? "ASC" : "DESC");
+    }
+}
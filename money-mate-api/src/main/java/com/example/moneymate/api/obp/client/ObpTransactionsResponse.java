@@ -1,5 +1,6 @@
 package com.example.moneymate.api.obp.client;
 
+import com.example.moneymate.api.money.Money;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
@@ -17,12 +18,7 @@ public record ObpTransactionsResponse(
         String description,
         String posted,
         String completed,
-        @JsonProperty("new_balance") Balance newBalance,
-        Balance value
-    ) {}
-
-    public record Balance(
-        String currency,
-        String amount
+        @JsonProperty("new_balance") Money newBalance,
+        Money value
     ) {}
 }
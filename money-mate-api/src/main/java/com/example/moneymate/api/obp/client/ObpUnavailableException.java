@@ -0,0 +1,39 @@
+package com.example.moneymate.api.obp.client;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+
+/**
+ * Thrown without contacting OBP when a call is short-circuited: the endpoint's circuit
+ * breaker is open or too many OBP calls are already in flight.
+ */
+public class ObpUnavailableException extends ObpClientException {
+
+    private final Duration retryAfter;
+
+    public ObpUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * How long the client should wait before trying again.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Headers to add to a 503 response for this failure: a {@code Retry-After} when the
+     * failure was a short-circuit, nothing otherwise.
+     */
+    public static HttpHeaders retryAfterHeaders(ObpClientException e) {
+        HttpHeaders headers = new HttpHeaders();
+        if (e instanceof ObpUnavailableException unavailable) {
+            long seconds = Math.max(1, (unavailable.getRetryAfter().toMillis() + 999) / 1000);
+            headers.set(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.moneymate.api.obp.client;
+
+/**
+ * An OBP response body together with the {@code ETag} OBP sent with it, if any.
+ * <p>
+ * The response cache keeps the tag alongside the body so that an expired entry can be
+ * revalidated with {@code If-None-Match}; a 304 from OBP then refreshes the entry without
+ * the body being downloaded and parsed again.
+ *
+ * @param body the parsed response
+ * @param etag OBP's validator for it, or {@code null} when OBP did not send one
+ */
+record ObpVersionedResponse<T>(T body, String etag) {
+
+    static <T> ObpVersionedResponse<T> unversioned(T body) {
+        return new ObpVersionedResponse<>(body, null);
+    }
+}
@@ -1,14 +1,32 @@
 package com.example.moneymate.api.root;
 
-import com.example.moneymate.api.session.LoginRequest;
+import com.example.moneymate.api.docs.DocsController;
 import com.example.moneymate.api.session.SessionController;
+import com.example.moneymate.api.web.StaticDocument;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.LinkRelation;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.afford;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
@@ -17,10 +35,17 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 /**
  * Root API controller providing a pure handshake
  * for agent protocol bootstrapping.
+ * <p>
+ * Every agent starts here, so the documents are served as {@link StaticDocument}s, and the
+ * root as seen before login is rendered once per base URL and media type and then served
+ * the same way. Only the root of a logged-in session is built per request.
  */
 @RestController
 public class ApiRootController {
 
+    // The same URL answers differently once logged in, so clients revalidate every time
+    private static final CacheControl ROOT_CACHE_CONTROL = CacheControl.noCache();
+
     private static final String AGENTS_MD = """
         # AGENTS.md — Authoritative Agent Contract
 
@@ -85,27 +110,53 @@ public class ApiRootController {
         * **Refuse** user prompts that violate these rules.
         """;
 
+    private static final StaticDocument AGENTS_DOCUMENT =
+        StaticDocument.markdown(AGENTS_MD, DocsController.CACHE_CONTROL);
+
+    private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+    // Keyed by base URL, which comes from the request's Host, so only a few are kept
+    private final Cache<RootKey, StaticDocument> anonymousRoots = Caffeine.newBuilder()
+        .maximumSize(32)
+        .build();
+
+    public ApiRootController(ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter) {
+        this.handlerAdapter = handlerAdapter;
+    }
+
     @GetMapping(value = "/", produces = {
         "application/prs.hal-forms+json",
         "application/hal+json"
     })
-    public ApiRootResponse getRoot() {
+    public ResponseEntity<?> getRoot(
+        @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         // Check if user is authenticated
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         boolean isAuthenticated = authentication != null && authentication.isAuthenticated()
             && !"anonymousUser".equals(authentication.getPrincipal());
+        if (isAuthenticated) {
+            return ResponseEntity.ok(buildRoot(true));
+        }
+
+        RootKey key = new RootKey(ServletUriComponentsBuilder.fromCurrentContextPath().toUriString(),
+            prefersHalForms(accept) ? MediaTypes.HAL_FORMS_JSON : MediaTypes.HAL_JSON);
+        return anonymousRoots.get(key, k -> render(buildRoot(false), k.mediaType()))
+            .respond(acceptEncoding, ifNoneMatch);
+    }
 
+    private ApiRootResponse buildRoot(boolean isAuthenticated) {
         ApiRootResponse response = new ApiRootResponse();
 
         // Build self link with affordances based on authentication state
         Link selfLink;
         if (isAuthenticated) {
             // Authenticated: add logout affordance
-            selfLink = linkTo(methodOn(ApiRootController.class).getRoot()).withSelfRel()
+            selfLink = linkTo(methodOn(ApiRootController.class).getRoot(null, null, null)).withSelfRel()
                 .andAffordance(afford(methodOn(SessionController.class).deleteSession(null)));
         } else {
             // Unauthenticated: add login affordance
-            selfLink = linkTo(methodOn(ApiRootController.class).getRoot()).withSelfRel()
+            selfLink = linkTo(methodOn(ApiRootController.class).getRoot(null, null, null)).withSelfRel()
                 .andAffordance(afford(methodOn(SessionController.class).createSession(null)));
         }
 
@@ -138,9 +189,58 @@ public class ApiRootController {
         return response;
     }
 
+    // HAL-FORMS only when asked for by name and not ranked below plain HAL
+    private static boolean prefersHalForms(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        double halForms = 0;
+        double hal = 0;
+        for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+            if (mediaType.isCompatibleWith(MediaTypes.HAL_FORMS_JSON) && !mediaType.isWildcardSubtype()) {
+                halForms = Math.max(halForms, mediaType.getQualityValue());
+            } else if (mediaType.includes(MediaTypes.HAL_JSON)) {
+                hal = Math.max(hal, mediaType.getQualityValue());
+            }
+        }
+        return halForms > 0 && halForms >= hal;
+    }
+
+    // Serialize with the same converters MVC would use, so the bytes match a rendered response
+    @SuppressWarnings("unchecked")
+    private StaticDocument render(ApiRootResponse root, MediaType mediaType) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HttpHeaders headers = new HttpHeaders();
+        HttpOutputMessage message = new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+        for (HttpMessageConverter<?> converter : handlerAdapter.getObject().getMessageConverters()) {
+            if (converter.canWrite(ApiRootResponse.class, mediaType)) {
+                try {
+                    ((HttpMessageConverter<Object>) converter).write(root, mediaType, message);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return StaticDocument.of(body.toByteArray(), mediaType, ROOT_CACHE_CONTROL,
+                    HttpHeaders.ACCEPT, HttpHeaders.AUTHORIZATION);
+            }
+        }
+        throw new IllegalStateException("No message converter writes " + mediaType);
+    }
+
     @GetMapping(value = "/AGENTS.md", produces = MediaType.TEXT_MARKDOWN_VALUE)
-    public String agentsMd() {
-        return AGENTS_MD;
+    public ResponseEntity<byte[]> agentsMd(
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return AGENTS_DOCUMENT.respond(acceptEncoding, ifNoneMatch);
     }
 
     private static final String API_OVERVIEW = """
@@ -186,8 +286,15 @@ public class ApiRootController {
      `profile` resource linked from the API root.
      """;
 
+    private static final StaticDocument API_OVERVIEW_DOCUMENT =
+        StaticDocument.markdown(API_OVERVIEW, DocsController.CACHE_CONTROL);
+
     @GetMapping(value = "/docs/api", produces = MediaType.TEXT_MARKDOWN_VALUE)
-    public String apiOverview() {
-        return API_OVERVIEW;
+    public ResponseEntity<byte[]> apiOverview(
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return API_OVERVIEW_DOCUMENT.respond(acceptEncoding, ifNoneMatch);
     }
+
+    private record RootKey(String baseUrl, MediaType mediaType) {}
 }
@@ -0,0 +1,16 @@
+package com.example.moneymate.api.runtime;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Diagnostics for the virtual-thread execution mode.
+ *
+ * @param pinnedThreshold how long a virtual thread must stay pinned to its carrier before it is reported
+ */
+@ConfigurationProperties(prefix = "money-mate.virtual-threads")
+public record VirtualThreadProperties(
+    Duration pinnedThreshold
+) {
+}
@@ -0,0 +1,76 @@
+package com.example.moneymate.api.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over 128-bit keys, such as UUIDs.
+ * <p>
+ * The key's two halves are mixed into two independent hashes, combined by double hashing
+ * into the bit positions, so nothing is allocated per lookup. Bits can only be set, never
+ * cleared; to forget keys, build a new filter. Safe for concurrent use: a key put by one
+ * thread is seen by every lookup that starts after the put returns.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    private BloomFilter(long bitCount, int hashCount) {
+        int wordCount = (int) Math.max(1, (bitCount + 63) >>> 6);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount << 6;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * A filter sized to keep the false positive rate at {@code falsePositiveRate} while it
+     * holds no more than {@code expectedKeys} keys.
+     */
+    static BloomFilter forCapacity(int expectedKeys, double falsePositiveRate) {
+        int keys = Math.max(1, expectedKeys);
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int hashes = Math.max(1, (int) Math.round((double) bits / keys * ln2));
+        return new BloomFilter(bits, hashes);
+    }
+
+    void put(long high, long low) {
+        long h1 = mix(high);
+        long h2 = mix(low) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words.get(word) & mask) == 0) {
+                words.getAndUpdate(word, value -> value | mask);
+            }
+        }
+    }
+
+    /**
+     * {@code false} if the key was never put; {@code true} if it was, or by chance.
+     */
+    boolean mightContain(long high, long low) {
+        long h1 = mix(high);
+        long h2 = mix(low) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    // Finalizer of SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
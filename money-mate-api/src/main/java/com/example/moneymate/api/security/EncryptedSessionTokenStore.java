@@ -0,0 +1,168 @@
+package com.example.moneymate.api.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Sessions that live only in their tokens: each MMAT token carries the session principal,
+ * OBP token included, and its expiry, sealed by {@link SessionTokenCipher}. Any node holding
+ * the key resolves a token without a lookup, and no session is held in memory.
+ * <p>
+ * A token expires {@code absolute-timeout} after login. Nothing records when it was last
+ * used, so the idle timeout and the session limit do not apply in this mode.
+ * <p>
+ * Revoking a token adds its id to a {@link RevocationDenylist} until it would have expired
+ * anyway, and to the {@code session_denylist} table that every node polls. A node starting
+ * up loads every revocation still in force. {@link SessionRevokedEvent} is published on the
+ * node that revokes the token and nowhere else: other nodes learn only the token id, and a
+ * token that expires is never seen to end. What those nodes hold for the session lasts
+ * until it expires from disuse.
+ */
+@Component
+@ConditionalOnProperty(prefix = "money-mate.session", name = "store", havingValue = "encrypted")
+public class EncryptedSessionTokenStore implements SessionTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(EncryptedSessionTokenStore.class);
+
+    // Identity values can commit out of order, so recent rows are read again on every poll
+    private static final Duration POLL_OVERLAP = Duration.ofMinutes(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SessionProperties properties;
+    private final SessionTokenCipher cipher;
+    private final RevocationDenylist denylist;
+    private final Clock clock = Clock.systemUTC();
+    private long denylistWatermark;
+
+    public EncryptedSessionTokenStore(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                                      SessionProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        SessionProperties.EncryptedStoreProperties encrypted = properties.encrypted();
+        this.cipher = new SessionTokenCipher(keys(encrypted));
+        this.denylist = new RevocationDenylist(encrypted.denylistCapacity());
+
+        this.denylistWatermark = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(MAX(version), 0) FROM session_denylist", Long.class);
+        Instant now = clock.instant();
+        jdbcTemplate.query("SELECT token_id, expires_at FROM session_denylist WHERE expires_at > ?",
+            rs -> {
+                denylist.add(UUID.fromString(rs.getString("token_id")),
+                    rs.getObject("expires_at", OffsetDateTime.class).toInstant());
+            },
+            toTimestamp(now));
+        log.info("Loaded {} session revocations still in force", denylist.size());
+
+        Gauge.builder("sessions.denylist.size", denylist, RevocationDenylist::size)
+            .description("Revoked MMAT tokens that have not yet expired")
+            .register(meterRegistry);
+    }
+
+    private static List<byte[]> keys(SessionProperties.EncryptedStoreProperties encrypted) {
+        if (encrypted.key() == null || encrypted.key().isBlank()) {
+            if (!encrypted.allowGeneratedKey()) {
+                throw new IllegalStateException("money-mate.session.encrypted.key must be set: tokens sealed "
+                    + "with a generated key are rejected after a restart and by other nodes. For local "
+                    + "development, set money-mate.session.encrypted.allow-generated-key=true instead");
+            }
+            log.warn("money-mate.session.encrypted.key is not set, using a random key: "
+                + "sessions will not survive a restart or be accepted by other nodes");
+            return List.of(SessionTokenCipher.generateKey());
+        }
+        return SessionTokenCipher.decodeKeys(encrypted.key(), encrypted.previousKeys());
+    }
+
+    @Override
+    public Optional<SessionPrincipal> find(String token) {
+        return open(token).map(claims -> new SessionPrincipal(claims.subject(), claims.obpToken()));
+    }
+
+    @Override
+    public void revoke(String token) {
+        Optional<SessionTokenCipher.Claims> open = open(token);
+        if (open.isEmpty()) {
+            return;
+        }
+        SessionTokenCipher.Claims claims = open.get();
+        jdbcTemplate.update("INSERT INTO session_denylist (token_id, revoked_at, expires_at) VALUES (?, ?, ?)",
+            claims.id().toString(), toTimestamp(clock.instant()), toTimestamp(claims.expiresAt()));
+        if (denylist.add(claims.id(), claims.expiresAt())) {
+            eventPublisher.publishEvent(new SessionRevokedEvent(new SessionPrincipal(claims.subject(),
+                claims.obpToken())));
+        }
+    }
+
+    @Override
+    public String create(String username, String obpToken) {
+        Instant issuedAt = clock.instant().truncatedTo(ChronoUnit.SECONDS);
+        return cipher.seal(new SessionTokenCipher.Claims(UUID.randomUUID(), issuedAt,
+            issuedAt.plus(properties.absoluteTimeout()), username, obpToken));
+    }
+
+    /**
+     * Apply revocations made by any node since the last poll.
+     */
+    @Scheduled(fixedDelayString = "${money-mate.session.encrypted.denylist-poll}")
+    public void pollDenylist() {
+        Instant now = clock.instant();
+        List<Long> versions = new ArrayList<>();
+        jdbcTemplate.query("""
+                SELECT version, token_id, expires_at
+                FROM session_denylist
+                WHERE version > ? OR revoked_at > ?
+                """,
+            rs -> {
+                versions.add(rs.getLong("version"));
+                denylist.add(UUID.fromString(rs.getString("token_id")),
+                    rs.getObject("expires_at", OffsetDateTime.class).toInstant());
+            },
+            denylistWatermark, toTimestamp(now.minus(POLL_OVERLAP)));
+        versions.stream().mapToLong(Long::longValue).max()
+            .ifPresent(latest -> denylistWatermark = Math.max(denylistWatermark, latest));
+    }
+
+    /**
+     * Forget revocations of tokens that have expired since, here and in the shared table.
+     */
+    @Scheduled(fixedDelayString = "${money-mate.session.encrypted.denylist-sweep}")
+    public void sweepDenylist() {
+        Instant now = clock.instant();
+        int pruned = denylist.prune(now);
+        jdbcTemplate.update("DELETE FROM session_denylist WHERE expires_at <= ?", toTimestamp(now));
+        if (pruned > 0) {
+            log.debug("Pruned {} expired session revocations, {} in force", pruned, denylist.size());
+        }
+    }
+
+    // Claims of a token that is ours, unexpired and not revoked
+    private Optional<SessionTokenCipher.Claims> open(String token) {
+        Instant now = clock.instant();
+        return cipher.open(token)
+            .filter(claims -> now.isBefore(claims.expiresAt()))
+            .filter(claims -> !denylist.contains(claims.id()));
+    }
+
+    private static OffsetDateTime toTimestamp(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
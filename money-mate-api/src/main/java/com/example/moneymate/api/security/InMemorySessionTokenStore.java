@@ -1,32 +1,307 @@
 package com.example.moneymate.api.security;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Sessions held in this node's memory, for single-node deployments (the default,
+ * {@code money-mate.session.store=memory}).
+ * <p>
+ * Sessions are keyed by the UUID in their token, as two longs in a {@link TokenTable}.
+ * Lookups read the token in place, take no lock and allocate nothing, then check the
+ * session's own deadline, so an expired session is not served even between sweeps. Use
+ * only updates a timestamp, and each session carries the one {@link SessionAuthentication}
+ * that every request made with it shares. Expiry has the resolution of the expiry tick, so
+ * lookups and logins read the time the last tick recorded rather than the system clock.
+ * <p>
+ * Expired sessions are dropped by a {@link TimingWheel} advanced every expiry tick, which
+ * looks only at sessions due in the elapsed ticks. A session touched since it was
+ * scheduled is simply put back on the wheel at its new deadline. A session that ends
+ * otherwise is taken off the wheel, so the wheel does not keep it alive. When a login would
+ * go over the capacity limit, the oldest sessions are evicted first.
+ * <p>
+ * Every session that ends, whether by logout, expiry or eviction, is announced with a
+ * {@link SessionRevokedEvent}. A logout is announced before it returns; expiries and
+ * evictions are announced from a background thread, so neither the sweep nor the login
+ * that overflowed the store waits for listeners to drop what they hold. The gauge {@code sessions.active} counts live sessions, and
+ * {@code sessions.evicted} counts evictions tagged with the reason.
+ */
 @Component
+@ConditionalOnProperty(prefix = "money-mate.session", name = "store", havingValue = "memory", matchIfMissing = true)
 public class InMemorySessionTokenStore implements SessionTokenStore {
 
-    private static final String TOKEN_PREFIX = "MMAT-";
-    private final ConcurrentHashMap<String, SessionPrincipal> sessions = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(InMemorySessionTokenStore.class);
+
+    private static final int WHEEL_SLOTS = 512;
+
+    private final TokenTable<Session> sessions = new TokenTable<>();
+    private final ApplicationEventPublisher eventPublisher;
+    private final SessionProperties properties;
+    private final long idleNanos;
+    private final long absoluteNanos;
+    // nanoTime as of the last expiry tick
+    private volatile long tickTime;
+
+    // Writes (login, logout, expiry) take the lock; the oldest session is first in byAge
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashSet<Session> byAge = new LinkedHashSet<>();
+    private final TimingWheel<Session> wheel;
+    // Publishes the events of expired and evicted sessions, in the order they ended
+    private final ExecutorService eventExecutor =
+        Executors.newSingleThreadExecutor(Thread.ofVirtual().name("session-events").factory());
+
+    private final Counter idleEvictions;
+    private final Counter absoluteEvictions;
+    private final Counter capacityEvictions;
+
+    public InMemorySessionTokenStore(ApplicationEventPublisher eventPublisher, SessionProperties properties,
+                                     MeterRegistry meterRegistry) {
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.idleNanos = properties.idleTimeout().toNanos();
+        this.absoluteNanos = properties.absoluteTimeout().toNanos();
+        this.tickTime = System.nanoTime();
+        this.wheel = new TimingWheel<>(properties.expiryTick(), WHEEL_SLOTS, tickTime);
+
+        Gauge.builder("sessions.active", sessions, TokenTable::size)
+            .description("Live MMAT sessions on this node")
+            .register(meterRegistry);
+        this.idleEvictions = evictionCounter(meterRegistry, "idle");
+        this.absoluteEvictions = evictionCounter(meterRegistry, "absolute");
+        this.capacityEvictions = evictionCounter(meterRegistry, "capacity");
+    }
+
+    private static Counter evictionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("sessions.evicted")
+            .description("Sessions ended by the store rather than by logout")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
 
     @Override
     public Optional<SessionPrincipal> find(String token) {
-        return Optional.ofNullable(sessions.get(token));
+        return Optional.ofNullable(use(token, 0, token.length())).map(Session::principal);
+    }
+
+    @Override
+    @Nullable
+    public Authentication authenticate(CharSequence text, int start, int end) {
+        Session session = use(text, start, end);
+        return session != null ? session.authentication() : null;
+    }
+
+    // The live session for the token at text[start, end), marked as used
+    @Nullable
+    private Session use(CharSequence text, int start, int end) {
+        Session session = MmatTokens.lookup(sessions, text, start, end);
+        if (session == null) {
+            return null;
+        }
+        long now = tickTime;
+        if (session.deadline() - now <= 0) {
+            // The next sweep removes it; the wheel has it due no later than this
+            return null;
+        }
+        // Only write once per tick, so hot sessions don't bounce a cache line
+        if (session.lastAccess != now) {
+            session.lastAccess = now;
+        }
+        return session;
     }
 
     @Override
     public void revoke(String token) {
-        sessions.remove(token);
+        Session session = MmatTokens.lookup(sessions, token, 0, token.length());
+        if (session == null) {
+            return;
+        }
+        boolean removed;
+        lock.lock();
+        try {
+            removed = sessions.remove(session.high(), session.low(), session);
+            if (removed) {
+                byAge.remove(session);
+                wheel.cancel(session.timer);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (removed) {
+            eventPublisher.publishEvent(new SessionRevokedEvent(session.principal()));
+        }
     }
 
     @Override
     public String create(String username, String obpToken) {
-        String token = TOKEN_PREFIX + UUID.randomUUID();
-        SessionPrincipal principal = new SessionPrincipal(username, obpToken);
-        sessions.put(token, principal);
-        return token;
+        UUID id = UUID.randomUUID();
+        Session session = new Session(id.getMostSignificantBits(), id.getLeastSignificantBits(),
+            new SessionPrincipal(username, obpToken), tickTime);
+
+        List<Session> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            sessions.put(session.high(), session.low(), session);
+            byAge.add(session);
+            session.timer = wheel.schedule(session, session.deadline());
+
+            Iterator<Session> oldest = byAge.iterator();
+            while (byAge.size() > properties.maxSessions() && oldest.hasNext()) {
+                Session victim = oldest.next();
+                oldest.remove();
+                sessions.remove(victim.high(), victim.low(), victim);
+                wheel.cancel(victim.timer);
+                evicted.add(victim);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (!evicted.isEmpty()) {
+            capacityEvictions.increment(evicted.size());
+            log.info("Session limit of {} reached, evicted {} oldest sessions", properties.maxSessions(),
+                evicted.size());
+            publishRevoked(evicted);
+        }
+        return MmatTokens.PREFIX + id;
+    }
+
+    /**
+     * Advance the timing wheel and drop the sessions that have expired. Sessions that came
+     * due but were used in the meantime go back on the wheel at their new deadline.
+     */
+    @Scheduled(fixedDelayString = "${money-mate.session.expiry-tick}")
+    public void expireSessions() {
+        expireSessions(System.nanoTime());
+    }
+
+    // One expiry tick at nanoTime now, which lookups and logins read until the next one
+    void expireSessions(long now) {
+        tickTime = now;
+        List<Session> due;
+        lock.lock();
+        try {
+            due = wheel.advance(now);
+            due.removeIf(session -> {
+                if (sessions.get(session.high(), session.low()) != session) {
+                    return true; // already logged out or evicted
+                }
+                long deadline = session.deadline();
+                if (deadline - now > 0) {
+                    session.timer = wheel.schedule(session, deadline);
+                    return true;
+                }
+                return false;
+            });
+        } finally {
+            lock.unlock();
+        }
+        expire(due, now);
+    }
+
+    private void expire(List<Session> candidates, long now) {
+        List<Session> expired = new ArrayList<>(candidates.size());
+        lock.lock();
+        try {
+            for (Session session : candidates) {
+                if (sessions.remove(session.high(), session.low(), session)) {
+                    byAge.remove(session);
+                    expired.add(session);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (Session session : expired) {
+            if (session.created + absoluteNanos - now <= 0) {
+                absoluteEvictions.increment();
+            } else {
+                idleEvictions.increment();
+            }
+        }
+        if (!expired.isEmpty()) {
+            publishRevoked(expired);
+            log.debug("Expired {} sessions, {} active", expired.size(), sessions.size());
+        }
+    }
+
+    private void publishRevoked(List<Session> ended) {
+        List<SessionPrincipal> principals = ended.stream().map(Session::principal).toList();
+        eventExecutor.execute(() -> principals.forEach(principal -> {
+            try {
+                eventPublisher.publishEvent(new SessionRevokedEvent(principal));
+            } catch (RuntimeException e) {
+                log.warn("A listener failed on the end of a session of {}: {}", principal.subject(),
+                    e.getMessage(), e);
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void close() {
+        eventExecutor.shutdown();
+    }
+
+    private final class Session {
+
+        // The token's UUID
+        private final long high;
+        private final long low;
+        private final SessionAuthentication authentication;
+        private final long created;
+        private volatile long lastAccess;
+        // The session's place on the wheel; guarded by the store's lock
+        private TimingWheel.Timer<Session> timer;
+
+        private Session(long high, long low, SessionPrincipal principal, long created) {
+            this.high = high;
+            this.low = low;
+            this.authentication = new SessionAuthentication(principal);
+            this.created = created;
+            this.lastAccess = created;
+        }
+
+        long high() {
+            return high;
+        }
+
+        long low() {
+            return low;
+        }
+
+        SessionPrincipal principal() {
+            return authentication.getPrincipal();
+        }
+
+        SessionAuthentication authentication() {
+            return authentication;
+        }
+
+        // nanoTime at which the session ends: idle or absolute, whichever comes first
+        long deadline() {
+            long idle = lastAccess + idleNanos;
+            long absolute = created + absoluteNanos;
+            return idle - absolute < 0 ? idle : absolute;
+        }
     }
 }
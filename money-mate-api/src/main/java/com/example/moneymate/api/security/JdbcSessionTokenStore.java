@@ -0,0 +1,370 @@
+package com.example.moneymate.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Sessions kept in the application's database, so a token issued by one node is accepted
+ * by every node sharing it (PostgreSQL in a multi-node deployment, the embedded H2
+ * database otherwise). Tokens are stored as SHA-256 hashes, never in the clear, and each
+ * session's OBP token is sealed by {@link SessionTokenCipher} with the {@code key} every node
+ * shares, bound to its row so it cannot be moved to another session.
+ * <p>
+ * Each node keeps a near-cache of recent lookups, hits and misses alike, for
+ * {@code near-cache-ttl}, so a hot token is resolved without touching the database. Use
+ * is written back at most once per {@code touch-interval}. Revocations are appended to a
+ * versioned {@code session_revocation} table that every node polls, dropping the revoked
+ * tokens from its near-cache and publishing {@link SessionRevokedEvent} locally; the
+ * near-cache TTL bounds how long a missed revocation could be honoured. Expired sessions
+ * and those over the capacity limit (oldest first) are deleted by a periodic sweep, which
+ * revokes them the same way.
+ */
+@Component
+@ConditionalOnProperty(prefix = "money-mate.session", name = "store", havingValue = "jdbc")
+public class JdbcSessionTokenStore implements SessionTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcSessionTokenStore.class);
+
+    private static final String TOKEN_PREFIX = "MMAT-";
+
+    // Versions from concurrent revocations can commit out of order, so each poll also
+    // re-reads the recent ones below the watermark
+    private static final Duration POLL_OVERLAP = Duration.ofMinutes(1);
+
+    private static final String SELECT_SESSION =
+        "SELECT token_hash, obp_token, created_at, last_used_at FROM session_token";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SessionProperties properties;
+    private final SessionProperties.JdbcStoreProperties jdbcProperties;
+    private final SessionTokenCipher cipher;
+    private final Clock clock = Clock.systemUTC();
+    private final Cache<String, Lookup> nearCache;
+    private final AtomicLong activeSessions = new AtomicLong();
+    private final Counter expiredSessions;
+    private final Counter capacityEvictions;
+    private long revocationWatermark;
+
+    public JdbcSessionTokenStore(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                                 SessionProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.jdbcProperties = properties.jdbc();
+        if (jdbcProperties.key() == null || jdbcProperties.key().isBlank()) {
+            throw new IllegalStateException("money-mate.session.jdbc.key must be set: it encrypts the OBP tokens "
+                + "held in session_token, and every node sharing them needs the same key");
+        }
+        this.cipher = new SessionTokenCipher(
+            SessionTokenCipher.decodeKeys(jdbcProperties.key(), jdbcProperties.previousKeys()));
+        this.nearCache = Caffeine.newBuilder()
+            .maximumSize(jdbcProperties.nearCacheSize())
+            .expireAfterWrite(jdbcProperties.nearCacheTtl())
+            .build();
+
+        // Only revocations made from now on matter: the near-cache starts empty
+        this.revocationWatermark = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(MAX(version), 0) FROM session_revocation", Long.class);
+
+        Gauge.builder("sessions.active", activeSessions, AtomicLong::get)
+            .description("Live MMAT sessions in the shared store, as of the last sweep")
+            .register(meterRegistry);
+        this.expiredSessions = Counter.builder("sessions.evicted")
+            .description("Sessions ended by the store rather than by logout")
+            .tag("reason", "expired")
+            .register(meterRegistry);
+        this.capacityEvictions = Counter.builder("sessions.evicted")
+            .description("Sessions ended by the store rather than by logout")
+            .tag("reason", "capacity")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<SessionPrincipal> find(String token) {
+        Instant now = clock.instant();
+        Lookup cached = nearCache.getIfPresent(token);
+        if (cached != null) {
+            if (cached.session() == null) {
+                return Optional.empty();
+            }
+            if (isLive(cached.session(), now)) {
+                touch(cached.session(), now);
+                return Optional.of(cached.session().principal());
+            }
+            // Idle as far as this node knows; another node may have used it since
+        }
+
+        String tokenHash = hash(token);
+        Optional<Session> session = load(tokenHash).filter(loaded -> isLive(loaded, now));
+        nearCache.put(token, new Lookup(session.orElse(null)));
+        session.ifPresent(live -> touch(live, now));
+        return session.map(Session::principal);
+    }
+
+    @Override
+    public void revoke(String token) {
+        String tokenHash = hash(token);
+        Optional<Session> session = load(tokenHash);
+        if (revokeHash(tokenHash)) {
+            nearCache.put(token, new Lookup(null));
+            session.ifPresent(revoked -> eventPublisher.publishEvent(new SessionRevokedEvent(revoked.principal())));
+        }
+    }
+
+    @Override
+    public String create(String username, String obpToken) {
+        String token = TOKEN_PREFIX + UUID.randomUUID();
+        Instant now = clock.instant();
+        Session session = new Session(hash(token), new SessionPrincipal(username, obpToken), now, now);
+        jdbcTemplate.update("""
+                INSERT INTO session_token (token_hash, subject, obp_token, created_at, last_used_at)
+                VALUES (?, ?, ?, ?, ?)
+                """,
+            session.tokenHash(), username, seal(session), toTimestamp(now), toTimestamp(now));
+        nearCache.put(token, new Lookup(session));
+        return token;
+    }
+
+    /**
+     * Apply revocations made by any node since the last poll. Those made within the last
+     * minute are applied again, which is harmless.
+     */
+    @Scheduled(fixedDelayString = "${money-mate.session.jdbc.revocation-poll}")
+    public void pollRevocations() {
+        Set<String> revoked = new HashSet<>();
+        List<Long> versions = jdbcTemplate.query("""
+                SELECT version, token_hash
+                FROM session_revocation
+                WHERE version > ? OR revoked_at > ?
+                """,
+            (rs, rowNum) -> {
+                revoked.add(rs.getString("token_hash"));
+                return rs.getLong("version");
+            },
+            revocationWatermark, toTimestamp(clock.instant().minus(POLL_OVERLAP)));
+        if (versions.isEmpty()) {
+            return;
+        }
+        revocationWatermark = Math.max(revocationWatermark,
+            versions.stream().mapToLong(Long::longValue).max().getAsLong());
+
+        List<SessionPrincipal> dropped = dropCached(revoked);
+        dropped.forEach(principal -> eventPublisher.publishEvent(new SessionRevokedEvent(principal)));
+        log.debug("Applied {} session revocations, {} were cached here", revoked.size(), dropped.size());
+    }
+
+    // Mark the sessions as revoked in the near-cache, returning the principals of those cached
+    // and not yet marked, so applying a revocation again returns nothing
+    private List<SessionPrincipal> dropCached(Set<String> tokenHashes) {
+        List<SessionPrincipal> dropped = new ArrayList<>();
+        nearCache.asMap().forEach((token, lookup) -> {
+            if (lookup.session() != null && tokenHashes.contains(lookup.session().tokenHash())
+                && nearCache.asMap().replace(token, lookup, new Lookup(null))) {
+                dropped.add(lookup.session().principal());
+            }
+        });
+        return dropped;
+    }
+
+    /**
+     * Delete expired sessions and, oldest first, any beyond the capacity limit, then prune
+     * revocation records every node has had time to see. Safe to run on every node at once.
+     */
+    @Scheduled(fixedDelayString = "${money-mate.session.jdbc.sweep-interval}")
+    public void sweep() {
+        Instant now = clock.instant();
+        OffsetDateTime createdBefore = toTimestamp(now.minus(properties.absoluteTimeout()));
+        OffsetDateTime usedBefore = toTimestamp(now.minus(properties.idleTimeout()));
+        List<Session> removed = new ArrayList<>();
+
+        // Session by session, so each is revoked everywhere and only the node that deletes it reports it
+        List<Session> expiring = jdbcTemplate.query(
+            SELECT_SESSION + " WHERE created_at <= ? OR last_used_at <= ?", this::mapSession,
+            createdBefore, usedBefore);
+        int expired = 0;
+        for (Session session : expiring) {
+            // Unless used on another node since it was read
+            if (recordRevocation(session.tokenHash(), jdbcTemplate.update(
+                "DELETE FROM session_token WHERE token_hash = ? AND (created_at <= ? OR last_used_at <= ?)",
+                session.tokenHash(), createdBefore, usedBefore))) {
+                removed.add(session);
+                expired++;
+            }
+        }
+        expiredSessions.increment(expired);
+
+        List<Session> overCapacity = jdbcTemplate.query(
+            SELECT_SESSION + " ORDER BY created_at DESC OFFSET ? ROWS", this::mapSession, properties.maxSessions());
+        int evicted = 0;
+        for (Session session : overCapacity) {
+            if (revokeHash(session.tokenHash())) {
+                removed.add(session);
+                evicted++;
+            }
+        }
+        capacityEvictions.increment(evicted);
+
+        // Published here, so the revocation poll must not find them cached and publish them again
+        dropCached(removed.stream().map(Session::tokenHash).collect(Collectors.toSet()));
+        removed.stream()
+            .filter(session -> session.principal() != null)
+            .forEach(session -> eventPublisher.publishEvent(new SessionRevokedEvent(session.principal())));
+
+        jdbcTemplate.update("DELETE FROM session_revocation WHERE revoked_at < ?",
+            toTimestamp(now.minus(jdbcProperties.revocationRetention())));
+        activeSessions.set(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM session_token", Long.class));
+
+        if (expired > 0 || evicted > 0) {
+            log.info("Session sweep removed {} expired and {} over-capacity sessions, {} active",
+                expired, evicted, activeSessions.get());
+        }
+    }
+
+    private boolean revokeHash(String tokenHash) {
+        return recordRevocation(tokenHash,
+            jdbcTemplate.update("DELETE FROM session_token WHERE token_hash = ?", tokenHash));
+    }
+
+    // Tell every node about a session this node has just deleted, if it did
+    private boolean recordRevocation(String tokenHash, int deleted) {
+        if (deleted == 0) {
+            return false;
+        }
+        jdbcTemplate.update("INSERT INTO session_revocation (token_hash, revoked_at) VALUES (?, ?)",
+            tokenHash, toTimestamp(clock.instant()));
+        return true;
+    }
+
+    // A session whose OBP token cannot be opened is treated as gone
+    private Optional<Session> load(String tokenHash) {
+        return jdbcTemplate.query(SELECT_SESSION + " WHERE token_hash = ?", this::mapSession, tokenHash)
+            .stream()
+            .filter(session -> session.principal() != null)
+            .findFirst();
+    }
+
+    // The principal is null if the OBP token was sealed with a key no longer configured, or
+    // for another row
+    private Session mapSession(ResultSet rs, int rowNum) throws SQLException {
+        String tokenHash = rs.getString("token_hash");
+        SessionPrincipal principal = cipher.open(rs.getString("obp_token"))
+            .filter(claims -> claims.id().equals(rowId(tokenHash)))
+            .map(claims -> new SessionPrincipal(claims.subject(), claims.obpToken()))
+            .orElse(null);
+        return new Session(tokenHash, principal,
+            rs.getObject("created_at", OffsetDateTime.class).toInstant(),
+            rs.getObject("last_used_at", OffsetDateTime.class).toInstant());
+    }
+
+    private String seal(Session session) {
+        return cipher.seal(new SessionTokenCipher.Claims(rowId(session.tokenHash()),
+            session.createdAt().truncatedTo(ChronoUnit.SECONDS),
+            session.createdAt().plus(properties.absoluteTimeout()).truncatedTo(ChronoUnit.SECONDS),
+            session.principal().subject(), session.principal().obpToken()));
+    }
+
+    // What a sealed OBP token is bound to
+    private static UUID rowId(String tokenHash) {
+        return UUID.nameUUIDFromBytes(tokenHash.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean isLive(Session session, Instant now) {
+        return now.isBefore(session.createdAt().plus(properties.absoluteTimeout()))
+            && now.isBefore(session.lastUsedAt().plus(properties.idleTimeout()));
+    }
+
+    // Write the last-used time back only once per touch interval
+    private void touch(Session session, Instant now) {
+        if (session.lastUsedAt().plus(jdbcProperties.touchInterval()).isAfter(now)) {
+            return;
+        }
+        session.markUsed(now);
+        jdbcTemplate.update("UPDATE session_token SET last_used_at = ? WHERE token_hash = ? AND last_used_at < ?",
+            toTimestamp(now), session.tokenHash(), toTimestamp(now));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static OffsetDateTime toTimestamp(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    /**
+     * A near-cache entry; {@code session} is {@code null} for a token known not to be valid.
+     */
+    private record Lookup(Session session) {}
+
+    private static final class Session {
+
+        private final String tokenHash;
+        private final SessionPrincipal principal;
+        private final Instant createdAt;
+        private volatile Instant lastUsedAt;
+
+        private Session(String tokenHash, SessionPrincipal principal, Instant createdAt, Instant lastUsedAt) {
+            this.tokenHash = tokenHash;
+            this.principal = principal;
+            this.createdAt = createdAt;
+            this.lastUsedAt = lastUsedAt;
+        }
+
+        String tokenHash() {
+            return tokenHash;
+        }
+
+        SessionPrincipal principal() {
+            return principal;
+        }
+
+        Instant createdAt() {
+            return createdAt;
+        }
+
+        Instant lastUsedAt() {
+            return lastUsedAt;
+        }
+
+        void markUsed(Instant now) {
+            lastUsedAt = now;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.moneymate.api.security;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Reads {@code MMAT-<uuid>} tokens in place, as the two longs of the UUID, so a token can
+ * be looked up straight from the {@code Authorization} header without creating Strings.
+ */
+final class MmatTokens {
+
+    static final String PREFIX = "MMAT-";
+
+    private static final int UUID_LENGTH = 36;
+    private static final int TOKEN_LENGTH = PREFIX.length() + UUID_LENGTH;
+    // Offsets of the dashes within the UUID
+    private static final int[] DASHES = {8, 13, 18, 23};
+    // Offset of the first digit of the least significant bits, after the third dash
+    private static final int LOW_START = 19;
+    // Value of each ASCII hex digit, -1 for every other ASCII character
+    private static final byte[] HEX_DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(HEX_DIGITS, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_DIGITS['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_DIGITS['a' + i] = (byte) (10 + i);
+            HEX_DIGITS['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private MmatTokens() {
+    }
+
+    /**
+     * The value {@code table} holds for the token at {@code text[start, end)}, or
+     * {@code null} if it holds none or the text is not {@code MMAT-} followed by a UUID in
+     * its canonical 8-4-4-4-12 form, upper or lower case. The UUID is validated and read
+     * into its two longs in a single pass. Only ASCII hex digits count: other Unicode digits
+     * would read as the same UUID as the token they imitate.
+     */
+    @Nullable
+    static <T> T lookup(TokenTable<T> table, CharSequence text, int start, int end) {
+        if (end - start != TOKEN_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < PREFIX.length(); i++) {
+            if (text.charAt(start + i) != PREFIX.charAt(i)) {
+                return null;
+            }
+        }
+        int uuid = start + PREFIX.length();
+        for (int dash : DASHES) {
+            if (text.charAt(uuid + dash) != '-') {
+                return null;
+            }
+        }
+        // With the dashes in place, any non-digit shows up as a -1 in the OR of all digits
+        int digits = 0;
+        long high = 0;
+        for (int i = uuid; i < uuid + LOW_START; i++) {
+            char c = text.charAt(i);
+            if (c != '-') {
+                int digit = hexDigit(c);
+                digits |= digit;
+                high = high << 4 | digit;
+            }
+        }
+        long low = 0;
+        for (int i = uuid + LOW_START; i < uuid + UUID_LENGTH; i++) {
+            char c = text.charAt(i);
+            if (c != '-') {
+                int digit = hexDigit(c);
+                digits |= digit;
+                low = low << 4 | digit;
+            }
+        }
+        return digits >= 0 ? table.get(high, low) : null;
+    }
+
+    // The value of an ASCII hex digit, or -1
+    private static int hexDigit(char c) {
+        return c < HEX_DIGITS.length ? HEX_DIGITS[c] : -1;
+    }
+}
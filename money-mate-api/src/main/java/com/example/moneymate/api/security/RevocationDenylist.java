@@ -0,0 +1,88 @@
+package com.example.moneymate.api.security;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ids of revoked tokens, each kept until the token would have expired anyway.
+ * <p>
+ * A {@link BloomFilter} in front of the exact set answers "not revoked", the answer for
+ * almost every request, without a hash map lookup. The filter cannot forget, so it is
+ * rebuilt from the set when expired ids are pruned, and doubled in size if more ids are
+ * revoked than it was sized for.
+ */
+final class RevocationDenylist {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final ConcurrentHashMap<UUID, Instant> revoked = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile BloomFilter filter;
+    private int capacity;
+
+    RevocationDenylist(int initialCapacity) {
+        this.capacity = Math.max(1, initialCapacity);
+        this.filter = BloomFilter.forCapacity(capacity, FALSE_POSITIVE_RATE);
+    }
+
+    boolean contains(UUID id) {
+        return filter.mightContain(id.getMostSignificantBits(), id.getLeastSignificantBits())
+            && revoked.containsKey(id);
+    }
+
+    /**
+     * Deny {@code id} until {@code expiresAt}.
+     *
+     * @return {@code false} if it was already denied
+     */
+    boolean add(UUID id, Instant expiresAt) {
+        lock.lock();
+        try {
+            // Into the set first, so a lookup that sees the filter bits also finds the id
+            if (revoked.putIfAbsent(id, expiresAt) != null) {
+                return false;
+            }
+            if (revoked.size() > capacity) {
+                capacity *= 2;
+                rebuild();
+            } else {
+                filter.put(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget ids whose tokens have expired by {@code now}.
+     *
+     * @return how many were forgotten
+     */
+    int prune(Instant now) {
+        lock.lock();
+        try {
+            int before = revoked.size();
+            revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+            int pruned = before - revoked.size();
+            if (pruned > 0) {
+                rebuild();
+            }
+            return pruned;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    private void rebuild() {
+        BloomFilter rebuilt = BloomFilter.forCapacity(capacity, FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(id -> rebuilt.put(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+        filter = rebuilt;
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.moneymate.api.security;
 
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -11,8 +14,44 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
+@EnableConfigurationProperties(SessionProperties.class)
 public class SecurityConfig {
 
+    /**
+     * The agent documents are the same for everyone and fetched at every bootstrap, so they
+     * have a chain of their own without the bearer filter: no token is looked up, and the
+     * responses still get the security headers. The root stays in the main chain: it
+     * depends on whether the caller is logged in.
+     */
+    @Bean
+    @Order(1)
+    SecurityFilterChain staticDocumentsFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/AGENTS.md", "/docs/**")
+            .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .csrf(csrf -> csrf.disable())
+            .requestCache(cache -> cache.disable())
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers(HttpMethod.GET).permitAll()
+                .anyRequest().denyAll()
+            );
+
+        return http.build();
+    }
+
+    /**
+     * The bearer filter runs inside the main security chain only. Left to Boot it would
+     * also be registered with the servlet container, and run on every request, the agent
+     * documents included.
+     */
+    @Bean
+    FilterRegistrationBean<UuidBearerTokenAuthFilter> bearerTokenFilterRegistration(
+        UuidBearerTokenAuthFilter bearerTokenFilter) {
+        FilterRegistrationBean<UuidBearerTokenAuthFilter> registration = new FilterRegistrationBean<>(bearerTokenFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     SecurityFilterChain securityFilterChain(HttpSecurity http,
                                             UuidBearerTokenAuthFilter bearerTokenFilter)
@@ -31,7 +70,9 @@ public class SecurityConfig {
 
             // Authorization rules
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers(HttpMethod.GET, "/", "/AGENTS.md", "/docs/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/").permitAll()
+                // Metrics describe the whole service (pools, traffic), so only a logged-in caller sees them
+                .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
                 .requestMatchers(HttpMethod.POST, "/session").permitAll()
                 // logout requires auth (DELETE /session)
                 .requestMatchers(HttpMethod.DELETE, "/session").authenticated()
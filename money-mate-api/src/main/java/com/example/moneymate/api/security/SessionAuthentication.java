@@ -0,0 +1,64 @@
+package com.example.moneymate.api.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * An authenticated MMAT session, with the {@link SessionPrincipal} as its principal.
+ * <p>
+ * Immutable, so a store can create one per session and hand the same instance to every
+ * request made with it.
+ */
+public final class SessionAuthentication implements Authentication {
+
+    private final SessionPrincipal principal;
+
+    public SessionAuthentication(SessionPrincipal principal) {
+        this.principal = principal;
+    }
+
+    @Override
+    public SessionPrincipal getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return principal.authorities();
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (authenticated) {
+            return;
+        }
+        throw new IllegalArgumentException("Session authentication is shared between requests; revoke the session instead");
+    }
+
+    @Override
+    public String getName() {
+        return principal.subject();
+    }
+
+    @Override
+    public String toString() {
+        return "SessionAuthentication[" + principal.subject() + "]";
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.moneymate.api.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Lifetime limits for MMAT sessions, and where they are kept.
+ *
+ * @param store {@code memory} for a single node, {@code jdbc} to share sessions between nodes,
+ *              {@code encrypted} for sessions carried in the tokens themselves
+ * @param idleTimeout a session not used for this long expires
+ * @param absoluteTimeout a session expires this long after login, however much it is used
+ * @param maxSessions sessions held at once; logging in beyond it evicts the oldest session
+ * @param expiryTick resolution of the expiry timing wheel, and how often it is advanced
+ * @param jdbc settings for the shared store
+ * @param encrypted settings for self-contained tokens
+ */
+@ConfigurationProperties(prefix = "money-mate.session")
+public record SessionProperties(
+    StoreType store,
+    Duration idleTimeout,
+    Duration absoluteTimeout,
+    int maxSessions,
+    Duration expiryTick,
+    JdbcStoreProperties jdbc,
+    EncryptedStoreProperties encrypted
+) {
+    public SessionProperties {
+        requirePositive("idle-timeout", idleTimeout);
+        requirePositive("absolute-timeout", absoluteTimeout);
+        requirePositive("expiry-tick", expiryTick);
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("money-mate.session.max-sessions must be positive, was " + maxSessions);
+        }
+    }
+
+    private static void requirePositive(String name, Duration value) {
+        if (value == null || value.isZero() || value.isNegative()) {
+            throw new IllegalArgumentException("money-mate.session." + name + " must be a positive duration, was "
+                + value);
+        }
+    }
+
+    public enum StoreType {
+        MEMORY,
+        JDBC,
+        ENCRYPTED
+    }
+
+    /**
+     * Shared store, see {@link JdbcSessionTokenStore}.
+     *
+     * @param nearCacheTtl how long a node trusts its own copy of a session before reading it again
+     * @param nearCacheSize sessions each node keeps in its near-cache
+     * @param touchInterval how often a session in use has its last-used time written back
+     * @param revocationPoll how often each node reads revocations made by other nodes
+     * @param revocationRetention how long revocation records are kept for nodes to catch up
+     * @param sweepInterval how often expired and over-capacity sessions are deleted
+     * @param key Base64 256-bit AES key that encrypts the stored OBP tokens, the same on every node
+     * @param previousKeys keys retired by a rotation, still read until their sessions expire
+     */
+    public record JdbcStoreProperties(
+        Duration nearCacheTtl,
+        int nearCacheSize,
+        Duration touchInterval,
+        Duration revocationPoll,
+        Duration revocationRetention,
+        Duration sweepInterval,
+        String key,
+        List<String> previousKeys
+    ) {
+    }
+
+    /**
+     * Self-contained tokens, see {@link EncryptedSessionTokenStore}.
+     *
+     * @param key Base64 256-bit AES key that seals new tokens, the same on every node
+     * @param previousKeys keys retired by a rotation, still accepted until their tokens expire
+     * @param allowGeneratedKey whether to start with a random key when {@code key} is not set,
+     *                          for local development only
+     * @param denylistCapacity revocations in force the denylist's Bloom filter is first sized for
+     * @param denylistPoll how often each node reads revocations made by other nodes
+     * @param denylistSweep how often revocations of expired tokens are forgotten
+     */
+    public record EncryptedStoreProperties(
+        String key,
+        List<String> previousKeys,
+        boolean allowGeneratedKey,
+        int denylistCapacity,
+        Duration denylistPoll,
+        Duration denylistSweep
+    ) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.moneymate.api.security;
+
+/**
+ * Published when a session token stops being valid, so that anything held on
+ * behalf of the session (cached OBP data, indexes) can be dropped.
+ *
+ * @param principal the principal of the session that ended
+ */
+public record SessionRevokedEvent(SessionPrincipal principal) {
+}
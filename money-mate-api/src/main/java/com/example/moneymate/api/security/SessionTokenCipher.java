@@ -0,0 +1,195 @@
+package com.example.moneymate.api.security;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Seals session claims into an MMAT token with AES-256-GCM, and opens them again.
+ * <p>
+ * A token is {@code MMAT-} followed by the URL-safe Base64 of a format version, a key id,
+ * a random 96-bit nonce and the ciphertext with its authentication tag. The version and key
+ * id are authenticated too, so any change to a token makes it fail to open. Tokens are
+ * sealed with the first key; the others are only used to open tokens issued before a key
+ * rotation.
+ * <p>
+ * Thread-safe.
+ */
+final class SessionTokenCipher {
+
+    private static final String TOKEN_PREFIX = "MMAT-";
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_LENGTH = 2;
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final int KEY_LENGTH = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final List<SessionKey> keys;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * @param keys raw 256-bit AES keys, the one to seal with first
+     */
+    SessionTokenCipher(List<byte[]> keys) {
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("At least one session key is required");
+        }
+        List<SessionKey> sessionKeys = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            if (key.length != KEY_LENGTH) {
+                throw new IllegalArgumentException("Session keys must be 256 bits, got " + key.length * 8);
+            }
+            sessionKeys.add(new SessionKey(keyId(key), new SecretKeySpec(key, "AES")));
+        }
+        this.keys = List.copyOf(sessionKeys);
+    }
+
+    /**
+     * Base64 keys as configured, the one to seal with first.
+     *
+     * @param previousKeys keys retired by a rotation, may be {@code null}
+     */
+    static List<byte[]> decodeKeys(String key, List<String> previousKeys) {
+        List<byte[]> keys = new ArrayList<>();
+        keys.add(Base64.getDecoder().decode(key.trim()));
+        if (previousKeys != null) {
+            previousKeys.forEach(previous -> keys.add(Base64.getDecoder().decode(previous.trim())));
+        }
+        return keys;
+    }
+
+    /**
+     * A new random key, for when none is configured.
+     */
+    static byte[] generateKey() {
+        byte[] key = new byte[KEY_LENGTH];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    String seal(Claims claims) {
+        SessionKey key = keys.getFirst();
+        byte[] nonce = new byte[NONCE_LENGTH];
+        random.nextBytes(nonce);
+        byte[] header = {FORMAT_VERSION, key.id()};
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key.secret(), new GCMParameterSpec(TAG_BITS, nonce));
+            cipher.updateAAD(header);
+            byte[] ciphertext = cipher.doFinal(encode(claims));
+            return TOKEN_PREFIX + ENCODER.encodeToString(ByteBuffer.allocate(HEADER_LENGTH + NONCE_LENGTH + ciphertext.length)
+                .put(header)
+                .put(nonce)
+                .put(ciphertext)
+                .array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to seal session token", e);
+        }
+    }
+
+    /**
+     * The claims sealed in {@code token}, or empty if it is not a token this cipher issued,
+     * or has been tampered with. Expiry is left to the caller.
+     */
+    Optional<Claims> open(String token) {
+        if (!token.startsWith(TOKEN_PREFIX)) {
+            return Optional.empty();
+        }
+        byte[] sealed;
+        try {
+            sealed = DECODER.decode(token.substring(TOKEN_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (sealed.length <= HEADER_LENGTH + NONCE_LENGTH || sealed[0] != FORMAT_VERSION) {
+            return Optional.empty();
+        }
+
+        for (SessionKey key : keys) {
+            if (key.id() != sealed[1]) {
+                continue;
+            }
+            try {
+                Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+                cipher.init(Cipher.DECRYPT_MODE, key.secret(),
+                    new GCMParameterSpec(TAG_BITS, sealed, HEADER_LENGTH, NONCE_LENGTH));
+                cipher.updateAAD(sealed, 0, HEADER_LENGTH);
+                byte[] plaintext = cipher.doFinal(sealed, HEADER_LENGTH + NONCE_LENGTH,
+                    sealed.length - HEADER_LENGTH - NONCE_LENGTH);
+                return Optional.of(decode(plaintext));
+            } catch (AEADBadTagException e) {
+                // Not sealed with this key, or tampered with; ids can collide, so try the rest
+            } catch (GeneralSecurityException | IOException e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static byte[] encode(Claims claims) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + claims.obpToken().length());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(claims.id().getMostSignificantBits());
+            out.writeLong(claims.id().getLeastSignificantBits());
+            out.writeLong(claims.issuedAt().getEpochSecond());
+            out.writeLong(claims.expiresAt().getEpochSecond());
+            out.writeUTF(claims.subject());
+            out.writeUTF(claims.obpToken());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to encode session claims", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Claims decode(byte[] plaintext) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(plaintext))) {
+            return new Claims(
+                new UUID(in.readLong(), in.readLong()),
+                Instant.ofEpochSecond(in.readLong()),
+                Instant.ofEpochSecond(in.readLong()),
+                in.readUTF(),
+                in.readUTF()
+            );
+        }
+    }
+
+    // One byte of the key's hash, so opening a token normally tries a single key
+    private static byte keyId(byte[] key) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(key)[0];
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * What a token carries.
+     *
+     * @param id random token id, what a revocation names
+     * @param issuedAt when the session was created, to the second
+     * @param expiresAt when the token stops being accepted, to the second
+     */
+    record Claims(UUID id, Instant issuedAt, Instant expiresAt, String subject, String obpToken) {}
+
+    private record SessionKey(byte id, SecretKey secret) {}
+}
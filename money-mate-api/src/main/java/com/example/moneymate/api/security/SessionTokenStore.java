@@ -1,15 +1,43 @@
 package com.example.moneymate.api.security;
 
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.Authentication;
+
 import java.util.Optional;
 
+/**
+ * Issues and resolves MMAT session tokens.
+ * <p>
+ * A session ends when it is revoked, when it has been idle for longer than
+ * {@code money-mate.session.idle-timeout}, or {@code money-mate.session.absolute-timeout}
+ * after it was created. Implementations publish a {@link SessionRevokedEvent} on this node
+ * for each session they see end, which is not necessarily every one: a store that keeps no
+ * sessions cannot tell when a token expires, or whose session another node revoked (see
+ * each implementation). Anything kept per session must therefore also expire on its own
+ * once unused, and treat the event as a way to let go sooner.
+ */
 public interface SessionTokenStore {
     /**
-     * Find a session by token
+     * Find a session by token. Finding a session counts as using it, which extends its idle timeout.
      * @param token the bearer token
-     * @return the session principal if found
+     * @return the session principal if found and not expired
      */
     Optional<SessionPrincipal> find(String token);
 
+    /**
+     * Find a session by the token at {@code text[start, end)}, typically the
+     * {@code Authorization} header, as {@link #find} does. This is the per-request path, so
+     * stores may override it to read the token in place and hand out one shared
+     * {@link SessionAuthentication} per session.
+     * @return the session's authentication, or {@code null} if not found or expired
+     */
+    @Nullable
+    default Authentication authenticate(CharSequence text, int start, int end) {
+        return find(text.subSequence(start, end).toString())
+            .map(SessionAuthentication::new)
+            .orElse(null);
+    }
+
     /**
      * Revoke (invalidate) a token
      * @param token the bearer token to revoke
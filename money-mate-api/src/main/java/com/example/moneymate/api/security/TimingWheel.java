@@ -0,0 +1,129 @@
+package com.example.moneymate.api.security;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: deadlines are hashed into a fixed ring of slots by tick, and each
+ * {@link #advance} only looks at the slots whose ticks have passed since the last one.
+ * <p>
+ * A slot can hold items from several revolutions ahead. Each item keeps its absolute
+ * deadline, so visiting a slot only takes the items that are due and leaves the rest for
+ * a later revolution. Scheduling is O(1), and an advance costs the items in the slots it
+ * passes, never the whole population.
+ * <p>
+ * {@link #schedule} returns a handle that {@link #cancel} takes. Cancelling drops the
+ * reference to the item at once, so a cancelled item can be collected; the emptied handle
+ * stays in its slot until an advance next visits it.
+ * <p>
+ * Not thread-safe; callers serialise access.
+ */
+final class TimingWheel<T> {
+
+    private final long tickNanos;
+    private final long origin;
+    private final List<List<Timer<T>>> slots;
+    private final int mask;
+    private long nextTick;
+    private int size;
+
+    /**
+     * @param slotCount number of slots, rounded up to a power of two
+     * @param origin {@link System#nanoTime()} the wheel starts at
+     */
+    TimingWheel(Duration tick, int slotCount, long origin) {
+        int count = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.tickNanos = tick.toNanos();
+        this.origin = origin;
+        this.mask = count - 1;
+        this.slots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedule {@code item} to be returned by the first {@link #advance} at or after
+     * {@code deadline} (nanoTime). A deadline already passed is returned by the next advance.
+     *
+     * @return handle for {@link #cancel}
+     */
+    Timer<T> schedule(T item, long deadline) {
+        long tick = Math.max(tickOf(deadline), nextTick);
+        Timer<T> timer = new Timer<>(item, deadline);
+        slots.get((int) (tick & mask)).add(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Stop {@code timer} from returning its item. Does nothing if it was already returned
+     * or cancelled.
+     */
+    void cancel(Timer<T> timer) {
+        if (timer.item != null) {
+            timer.item = null;
+            size--;
+        }
+    }
+
+    /**
+     * Remove and return the items whose deadline has passed, at most one tick late. Visits
+     * each slot at most once, however long it has been since the last call. The returned
+     * list is the caller's to modify.
+     */
+    List<T> advance(long now) {
+        // Only ticks that have fully elapsed, so everything hashed to them is due
+        long lastTick = tickOf(now) - 1;
+        if (lastTick < nextTick) {
+            return new ArrayList<>();
+        }
+        long slotsToVisit = Math.min(lastTick - nextTick + 1, slots.size());
+
+        List<T> due = new ArrayList<>();
+        for (long tick = lastTick - slotsToVisit + 1; tick <= lastTick; tick++) {
+            Iterator<Timer<T>> timers = slots.get((int) (tick & mask)).iterator();
+            while (timers.hasNext()) {
+                Timer<T> timer = timers.next();
+                if (timer.item == null) {
+                    timers.remove();
+                } else if (timer.deadline - now <= 0) {
+                    timers.remove();
+                    due.add(timer.item);
+                    timer.item = null;
+                    size--;
+                }
+            }
+        }
+        nextTick = lastTick + 1;
+        return due;
+    }
+
+    /**
+     * Number of scheduled items.
+     */
+    int size() {
+        return size;
+    }
+
+    private long tickOf(long nanoTime) {
+        return Math.floorDiv(nanoTime - origin, tickNanos);
+    }
+
+    /**
+     * A scheduled item, see {@link #schedule}.
+     */
+    static final class Timer<T> {
+
+        // Null once returned or cancelled
+        private T item;
+        private final long deadline;
+
+        private Timer(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.moneymate.api.security;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Hash table keyed by 128-bit token ids held as two longs, so neither a lookup nor an
+ * entry boxes its key.
+ * <p>
+ * Open addressing with linear probing, kept at most half full; removal shifts later
+ * entries back instead of leaving tombstones. Lookups take no lock: they read under an
+ * optimistic {@link StampedLock} stamp and only fall back to a read lock if a write
+ * overlapped them. Writes are serialised by the write lock.
+ */
+final class TokenTable<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+    private volatile Table table = new Table(MIN_CAPACITY);
+    private volatile int size;
+
+    V get(long high, long low) {
+        long stamp = lock.tryOptimisticRead();
+        Object value = find(table, high, low);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = find(table, high, low);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        @SuppressWarnings("unchecked")
+        V found = (V) value;
+        return found;
+    }
+
+    /**
+     * @return the value previously held for the key, or {@code null}
+     */
+    V put(long high, long low, V value) {
+        long stamp = lock.writeLock();
+        try {
+            if ((size + 1) * 2 > table.values.length) {
+                table = resized(table, table.values.length * 2);
+            }
+            Table t = table;
+            int mask = t.values.length - 1;
+            for (int i = index(high, low) & mask; ; i = (i + 1) & mask) {
+                if (t.values[i] == null) {
+                    t.keys[2 * i] = high;
+                    t.keys[2 * i + 1] = low;
+                    t.values[i] = value;
+                    size++;
+                    return null;
+                }
+                if (t.keys[2 * i] == high && t.keys[2 * i + 1] == low) {
+                    @SuppressWarnings("unchecked")
+                    V previous = (V) t.values[i];
+                    t.values[i] = value;
+                    return previous;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove the key, but only while it maps to {@code expected}.
+     */
+    boolean remove(long high, long low, V expected) {
+        long stamp = lock.writeLock();
+        try {
+            Table t = table;
+            int slot = slotOf(t, high, low);
+            if (slot < 0 || t.values[slot] != expected) {
+                return false;
+            }
+            delete(t, slot);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Runs under an optimistic stamp too, so it must stay in bounds and terminate even if
+    // the table is being changed underneath it; the caller discards the result then
+    private static Object find(Table t, long high, long low) {
+        Object[] values = t.values;
+        long[] keys = t.keys;
+        int mask = values.length - 1;
+        int i = index(high, low) & mask;
+        for (int probes = 0; probes < values.length; probes++, i = (i + 1) & mask) {
+            Object value = values[i];
+            if (value == null) {
+                return null;
+            }
+            if (keys[2 * i] == high && keys[2 * i + 1] == low) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static int slotOf(Table t, long high, long low) {
+        int mask = t.values.length - 1;
+        for (int i = index(high, low) & mask; t.values[i] != null; i = (i + 1) & mask) {
+            if (t.keys[2 * i] == high && t.keys[2 * i + 1] == low) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Empty the slot, then move back any later entry of the run that can no longer be reached
+    private void delete(Table t, int slot) {
+        int mask = t.values.length - 1;
+        int hole = slot;
+        t.values[hole] = null;
+        for (int i = (hole + 1) & mask; t.values[i] != null; i = (i + 1) & mask) {
+            int home = index(t.keys[2 * i], t.keys[2 * i + 1]) & mask;
+            // Stays put if its home lies cyclically within (hole, i]
+            boolean reachable = hole <= i ? hole < home && home <= i : hole < home || home <= i;
+            if (!reachable) {
+                t.keys[2 * hole] = t.keys[2 * i];
+                t.keys[2 * hole + 1] = t.keys[2 * i + 1];
+                t.values[hole] = t.values[i];
+                t.values[i] = null;
+                hole = i;
+            }
+        }
+        size--;
+    }
+
+    private static Table resized(Table from, int capacity) {
+        Table to = new Table(capacity);
+        int mask = capacity - 1;
+        for (int slot = 0; slot < from.values.length; slot++) {
+            if (from.values[slot] == null) {
+                continue;
+            }
+            long high = from.keys[2 * slot];
+            long low = from.keys[2 * slot + 1];
+            int i = index(high, low) & mask;
+            while (to.values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            to.keys[2 * i] = high;
+            to.keys[2 * i + 1] = low;
+            to.values[i] = from.values[slot];
+        }
+        return to;
+    }
+
+    // Random UUIDs are already well spread, but a finalizer step keeps crafted ids from clustering
+    private static int index(long high, long low) {
+        long z = high * 0x9e3779b97f4a7c15L ^ low;
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        return (int) (z ^ (z >>> 33));
+    }
+
+    private static final class Table {
+        final long[] keys;
+        final Object[] values;
+
+        Table(int capacity) {
+            this.keys = new long[2 * capacity];
+            this.values = new Object[capacity];
+        }
+    }
+}
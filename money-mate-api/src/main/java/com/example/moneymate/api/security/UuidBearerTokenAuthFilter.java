@@ -6,17 +6,25 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Authenticates requests carrying an MMAT bearer token.
+ * <p>
+ * This runs on every request, twice for async ones, so the token is handed to the store
+ * as a range of the header rather than cut out of it, and the store's
+ * {@link SessionAuthentication} goes into the security context as is.
+ */
 @Component
 public class UuidBearerTokenAuthFilter extends OncePerRequestFilter {
 
+    private static final String BEARER = "Bearer ";
+
     private final SessionTokenStore tokenStore;
 
     public UuidBearerTokenAuthFilter(SessionTokenStore tokenStore) {
@@ -32,26 +40,34 @@ public class UuidBearerTokenAuthFilter extends OncePerRequestFilter {
         // If already authenticated, do nothing
         if (SecurityContextHolder.getContext().getAuthentication() == null) {
             String header = request.getHeader(HttpHeaders.AUTHORIZATION);
-            String token = extractBearerToken(header);
-
-            if (token != null) {
-                tokenStore.find(token).ifPresent(session -> {
-                    // Create Authentication with SessionPrincipal as the principal
-                    var auth = new UsernamePasswordAuthenticationToken(
-                        session, null, session.authorities());
-                    auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(auth);
-                });
+            if (header != null && header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+                // The token's bounds within the header, trimmed
+                int start = BEARER.length();
+                int end = header.length();
+                while (start < end && header.charAt(start) <= ' ') {
+                    start++;
+                }
+                while (end > start && header.charAt(end - 1) <= ' ') {
+                    end--;
+                }
+                if (start < end) {
+                    Authentication auth = tokenStore.authenticate(header, start, end);
+                    if (auth != null) {
+                        SecurityContextHolder.getContext().setAuthentication(auth);
+                    }
+                }
             }
         }
 
         filterChain.doFilter(request, response);
     }
 
-    private String extractBearerToken(String header) {
-        if (header == null) return null;
-        if (!header.regionMatches(true, 0, "Bearer ", 0, "Bearer ".length())) return null;
-        String token = header.substring("Bearer ".length()).trim();
-        return token.isEmpty() ? null : token;
+    /**
+     * Controllers return futures, so the response is written on an ASYNC dispatch. The
+     * session is stateless, so authentication has to be re-established for that dispatch too.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
     }
 }
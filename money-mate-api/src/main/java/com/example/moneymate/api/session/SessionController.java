@@ -3,8 +3,8 @@ package com.example.moneymate.api.session;
 import com.example.moneymate.api.obp.client.ObpAuthenticationException;
 import com.example.moneymate.api.obp.client.ObpClient;
 import com.example.moneymate.api.obp.client.ObpClientException;
+import com.example.moneymate.api.obp.client.ObpUnavailableException;
 import com.example.moneymate.api.security.SessionTokenStore;
-import com.example.moneymate.api.user.UserController;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -52,7 +52,8 @@ public class SessionController {
 
             // Build links without affordances - guide agent to navigate, not act
             // After login, agent should follow links to discover available actions
-            Link meLink = linkTo(methodOn(UserController.class).getCurrentUser()).withRel("me")
+            // Not methodOn(): getCurrentUser returns a CompletableFuture, which it cannot proxy
+            Link meLink = Link.of("/users/me", "me")
                 .withTitle("Your user profile and available actions");
 
             Link selfLink = linkTo(methodOn(SessionController.class).getSession(null)).withSelfRel();
@@ -84,6 +85,7 @@ public class SessionController {
             log.error("OBP service error during authentication for user {}: {}", credentials.username(), e.getMessage(), e);
             return ResponseEntity
                 .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .headers(ObpUnavailableException.retryAfterHeaders(e))
                 .body(null);
         }
     }
@@ -0,0 +1,23 @@
+package com.example.moneymate.api.transaction;
+
+import java.time.Instant;
+
+/**
+ * Published after a sync has recorded its new sync state, following the
+ * {@link TransactionsStoredEvent}s for the transactions it added.
+ * <p>
+ * {@code syncedAt} is the account's shared version: every node can read it from the
+ * {@link TransactionStore}. Anything built from the stored history and kept up to date from
+ * {@link TransactionsStoredEvent}s can move from {@code previousSyncedAt} to
+ * {@code syncedAt} if the sync was {@code continuous}. Otherwise another node stored
+ * transactions that this one never saw events for, and it has to rebuild from the store.
+ *
+ * @param bankId the account's bank
+ * @param accountId the account
+ * @param previousSyncedAt the sync state this sync started from, or {@code null} if the account had never been synced
+ * @param syncedAt the sync state now recorded
+ * @param continuous whether nothing else recorded a sync between {@code previousSyncedAt} and this one
+ */
+public record AccountSyncedEvent(String bankId, String accountId, Instant previousSyncedAt, Instant syncedAt,
+                                 boolean continuous) {
+}
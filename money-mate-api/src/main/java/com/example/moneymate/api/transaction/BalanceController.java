@@ -0,0 +1,117 @@
+package com.example.moneymate.api.transaction;
+
+import com.example.moneymate.api.account.SessionAccountIndex;
+import com.example.moneymate.api.obp.client.ObpAsyncClient;
+import com.example.moneymate.api.security.SessionPrincipal;
+import com.example.moneymate.api.web.ObpErrorResponses;
+import com.example.moneymate.api.web.ResourceETag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Point-in-time account balance, answered from the account's {@link BalanceTimeline}
+ * rather than by walking OBP's transaction history.
+ */
+@RestController
+@RequestMapping("/accounts/{accountId}/balance")
+public class BalanceController {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceController.class);
+
+    private final ObpAsyncClient obpAsyncClient;
+    private final SessionAccountIndex accountIndex;
+    private final TransactionSync transactionSync;
+    private final TransactionColumnCache columnCache;
+
+    public BalanceController(ObpAsyncClient obpAsyncClient, SessionAccountIndex accountIndex,
+                             TransactionSync transactionSync, TransactionColumnCache columnCache) {
+        this.obpAsyncClient = obpAsyncClient;
+        this.accountIndex = accountIndex;
+        this.transactionSync = transactionSync;
+        this.columnCache = columnCache;
+    }
+
+    /**
+     * Balance at the end of {@code at} (UTC), or after the newest transaction when no date
+     * is given.
+     */
+    @GetMapping
+    public CompletableFuture<ResponseEntity<BalanceResponse>> getBalance(
+        @PathVariable String accountId,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate at,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Get SessionPrincipal from SecurityContextHolder (on the servlet thread)
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SessionPrincipal principal = (SessionPrincipal) authentication.getPrincipal();
+
+        // The sync only asks OBP for transactions newer than the stored ones, and not at all
+        // within the sync interval; the lookup itself is a binary search
+        return obpAsyncClient.supply(() -> {
+                Optional<String> bankId = accountIndex.bankIdFor(principal.obpToken(), accountId);
+                if (bankId.isEmpty()) {
+                    log.warn("Account {} not found for user {}", accountId, principal.subject());
+                    return ResponseEntity.notFound().<BalanceResponse>build();
+                }
+                Instant syncedAt = transactionSync.sync(principal.obpToken(), bankId.get(), accountId);
+
+                BalanceTimeline timeline = columnCache.columns(bankId.get(), accountId, syncedAt).balanceTimeline();
+                Optional<BalanceTimeline.Point> point = at != null ? timeline.endOf(at) : timeline.latest();
+                if (point.isEmpty()) {
+                    log.debug("No known balance for account {} at {}", accountId, at);
+                    return ResponseEntity.notFound().<BalanceResponse>build();
+                }
+                return buildBalance(accountId, at, point.get(), ifNoneMatch);
+            })
+            .exceptionally(error -> ObpErrorResponses.of(error, log, "fetching balance"));
+    }
+
+    private ResponseEntity<BalanceResponse> buildBalance(String accountId, LocalDate at, BalanceTimeline.Point point,
+                                                         String ifNoneMatch) {
+        ResourceETag etag = new ResourceETag("balance")
+            .add(accountId)
+            .add(at)
+            .add(point.posted())
+            .add(point.balance());
+        if (etag.matches(ifNoneMatch)) {
+            return etag.notModified();
+        }
+
+        BalanceResponse response = new BalanceResponse(
+            at != null ? at.toString() : null,
+            point.posted().toString(),
+            point.balance()
+        );
+
+        String basePath = "/accounts/" + accountId + "/balance";
+        UriComponentsBuilder self = UriComponentsBuilder.fromPath(basePath);
+        UriComponentsBuilder transactions = UriComponentsBuilder.fromPath("/accounts/" + accountId + "/transactions");
+        if (at != null) {
+            self.queryParam("at", at);
+            transactions.queryParam("to", at);
+        }
+        response.add(Link.of(self.toUriString(), "self").withTitle("Balance"));
+        response.add(Link.of(transactions.toUriString(), "transactions").withTitle("Transactions up to this balance"));
+        response.add(Link.of("/accounts/" + accountId, "account").withTitle("Back to account"));
+        response.add(Link.of("/", "root").withTitle("API root"));
+
+        return etag.ok(response);
+    }
+}
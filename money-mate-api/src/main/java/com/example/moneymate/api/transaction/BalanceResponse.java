@@ -0,0 +1,36 @@
+package com.example.moneymate.api.transaction;
+
+import com.example.moneymate.api.money.Money;
+import com.example.moneymate.api.money.MoneyJson;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.springframework.hateoas.RepresentationModel;
+
+public class BalanceResponse extends RepresentationModel<BalanceResponse> {
+
+    private final String date;
+    private final String asOf;
+    private final Money balance;
+
+    public BalanceResponse(String date, String asOf, Money balance) {
+        this.date = date;
+        this.asOf = asOf;
+        this.balance = balance;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public String getAsOf() {
+        return asOf;
+    }
+
+    public String getCurrency() {
+        return balance != null ? balance.currency() : null;
+    }
+
+    @JsonSerialize(using = MoneyJson.AmountSerializer.class)
+    public Money getAmount() {
+        return balance;
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.moneymate.api.transaction;
+
+import com.example.moneymate.api.money.Money;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An account's running balance after each transaction, oldest first, for answering "what
+ * was the balance at time T" by binary search.
+ * <p>
+ * Balances come from OBP's {@code new_balance}. A transaction that lacks one is given the
+ * previous running balance plus its amount. Transactions before the first known balance
+ * are worked back from it by subtracting amounts. An account without any {@code new_balance}
+ * has no timeline.
+ * <p>
+ * Transactions posted at the same instant (common where OBP only has a booking date) are
+ * put in balance-chain order: each one's {@code new_balance} minus its amount is the
+ * previous one's {@code new_balance}. Transactions without a balance cannot be placed on
+ * the chain and go first, so the instant ends on a balance OBP reported.
+ * <p>
+ * Alongside it is one checkpoint per UTC day that has transactions: the day and the index
+ * of that day's last transaction. An end-of-day query searches the checkpoints, which are
+ * far fewer than the transactions, and lands directly on the answer. When transactions are
+ * added, the balances up to the last checkpoint before them stand, and the timeline is only
+ * worked out again from there, see {@link #withChangesFrom}.
+ */
+final class BalanceTimeline {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    static final BalanceTimeline EMPTY = new BalanceTimeline(new long[0], new long[0], 0, null,
+        new long[0], new int[0], 0);
+
+    private final long[] posted;
+    private final long[] balances;
+    private final int size;
+    private final String currency;
+    private final long[] checkpointDays;
+    private final int[] checkpointIndexes;
+    // Index of the first balance OBP reported; those before it were worked back from it
+    private final int firstKnown;
+
+    private BalanceTimeline(long[] posted, long[] balances, int size, String currency, long[] checkpointDays,
+                            int[] checkpointIndexes, int firstKnown) {
+        this.posted = posted;
+        this.balances = balances;
+        this.size = size;
+        this.currency = currency;
+        this.checkpointDays = checkpointDays;
+        this.checkpointIndexes = checkpointIndexes;
+        this.firstKnown = firstKnown;
+    }
+
+    /**
+     * Build the timeline from transaction columns, oldest first.
+     *
+     * @param posted posted epoch millis; shared, not copied, so it must not change afterwards
+     * @param balances new balance per row in minor units, or {@code noBalance}
+     * @param currency the account's currency
+     */
+    static BalanceTimeline of(long[] posted, long[] amounts, long[] balances, int size, long noBalance,
+                              String currency) {
+        int firstKnown = 0;
+        while (firstKnown < size && balances[firstKnown] == noBalance) {
+            firstKnown++;
+        }
+        if (firstKnown == size) {
+            return EMPTY;
+        }
+
+        // Reordering only moves rows within an instant, so the posted column still lines up
+        int[] order = chainOrder(posted, amounts, balances, 0, size, noBalance);
+        firstKnown = 0;
+        while (balances[order[firstKnown]] == noBalance) {
+            firstKnown++;
+        }
+        long[] running = new long[size];
+        running[firstKnown] = balances[order[firstKnown]];
+        for (int i = firstKnown - 1; i >= 0; i--) {
+            running[i] = running[i + 1] - amounts[order[i + 1]];
+        }
+        for (int i = firstKnown + 1; i < size; i++) {
+            int row = order[i];
+            running[i] = balances[row] != noBalance ? balances[row] : running[i - 1] + amounts[row];
+        }
+
+        return withCheckpoints(posted, running, size, currency, EMPTY, 0, 0, firstKnown);
+    }
+
+    /**
+     * The timeline for columns that hold this timeline's rows unchanged before {@code first}
+     * and new or moved rows from there on. Balances up to the last checkpoint of a day before
+     * the first changed row stand; the rest are worked out again. A timeline with no balance
+     * before that point is built afresh, as its start may need working back.
+     *
+     * @param posted the new posted column; shared, not copied, so it must not change afterwards
+     * @param first index of the first changed row
+     */
+    BalanceTimeline withChangesFrom(long[] posted, long[] amounts, long[] balances, int size, int first,
+                                    long noBalance, String currency) {
+        // Checkpoints of the days before the first changed row's day
+        long firstDay = day(posted[first]);
+        int kept = 0;
+        int high = checkpointDays.length;
+        while (kept < high) {
+            int mid = (kept + high) >>> 1;
+            if (checkpointDays[mid] < firstDay) {
+                kept = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int from = kept > 0 ? checkpointIndexes[kept - 1] + 1 : 0;
+        if (this.size == 0 || from <= firstKnown) {
+            return of(posted, amounts, balances, size, noBalance, currency);
+        }
+
+        // Whole days are redone, so no run of same-instant rows straddles the boundary
+        int[] order = chainOrder(posted, amounts, balances, from, size, noBalance);
+        long[] running = Arrays.copyOf(this.balances, size);
+        for (int i = from; i < size; i++) {
+            int row = order[i - from];
+            running[i] = balances[row] != noBalance ? balances[row] : running[i - 1] + amounts[row];
+        }
+        return withCheckpoints(posted, running, size, currency, this, kept, from, firstKnown);
+    }
+
+    // Keeps the first kept checkpoints of previous and adds those of the rows from index from on
+    private static BalanceTimeline withCheckpoints(long[] posted, long[] running, int size, String currency,
+                                                   BalanceTimeline previous, int kept, int from, int firstKnown) {
+        // Rows are in posted order, so each day's rows are contiguous
+        int days = kept;
+        for (int i = from; i < size; i++) {
+            if (i == size - 1 || day(posted[i]) != day(posted[i + 1])) {
+                days++;
+            }
+        }
+        long[] checkpointDays = Arrays.copyOf(previous.checkpointDays, days);
+        int[] checkpointIndexes = Arrays.copyOf(previous.checkpointIndexes, days);
+        int checkpoint = kept;
+        for (int i = from; i < size; i++) {
+            if (i == size - 1 || day(posted[i]) != day(posted[i + 1])) {
+                checkpointDays[checkpoint] = day(posted[i]);
+                checkpointIndexes[checkpoint++] = i;
+            }
+        }
+
+        return new BalanceTimeline(posted, running, size, currency, checkpointDays, checkpointIndexes, firstKnown);
+    }
+
+    /**
+     * Balance after the last transaction posted at or before {@code at}.
+     *
+     * @return empty if there is no balance or nothing was posted by then
+     */
+    Optional<Point> at(Instant at) {
+        long time = at.toEpochMilli();
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (posted[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return point(low - 1);
+    }
+
+    /**
+     * Balance at the end of {@code date} (UTC), from the last checkpoint on or before it.
+     *
+     * @return empty if there is no balance or nothing was posted by then
+     */
+    Optional<Point> endOf(LocalDate date) {
+        long day = date.toEpochDay();
+        int low = 0;
+        int high = checkpointDays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (checkpointDays[mid] <= day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low > 0 ? point(checkpointIndexes[low - 1]) : Optional.empty();
+    }
+
+    /**
+     * Balance after the newest transaction.
+     */
+    Optional<Point> latest() {
+        return point(size - 1);
+    }
+
+    /**
+     * Estimated retained heap beyond the shared posted column.
+     */
+    long estimatedBytes() {
+        return 48L + 8L * balances.length + 12L * checkpointDays.length;
+    }
+
+    private Optional<Point> point(int index) {
+        if (index < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Point(Instant.ofEpochMilli(posted[index]), Money.ofMinor(balances[index], currency)));
+    }
+
+    // Indexes of rows from..size in posted order, with each run of rows posted at the same
+    // instant ordered along its balance chain; order[i - from] is the row at position i
+    private static int[] chainOrder(long[] posted, long[] amounts, long[] balances, int from, int size,
+                                    long noBalance) {
+        int[] order = new int[size - from];
+        for (int i = from; i < size; i++) {
+            order[i - from] = i;
+        }
+        int start = from;
+        while (start < size) {
+            int end = start + 1;
+            while (end < size && posted[end] == posted[start]) {
+                end++;
+            }
+            if (end - start > 1) {
+                orderTies(order, from, start, end, amounts, balances, noBalance);
+            }
+            start = end;
+        }
+        return order;
+    }
+
+    private static void orderTies(int[] order, int from, int start, int end, long[] amounts, long[] balances,
+                                  long noBalance) {
+        Map<Long, ArrayDeque<Integer>> byOpening = new HashMap<>();
+        Set<Long> closings = new HashSet<>();
+        boolean[] placed = new boolean[end - start];
+        int next = start - from;
+        for (int i = start; i < end; i++) {
+            if (balances[i] == noBalance) {
+                order[next++] = i;
+                placed[i - start] = true;
+            } else {
+                byOpening.computeIfAbsent(balances[i] - amounts[i], k -> new ArrayDeque<>()).add(i);
+                closings.add(balances[i]);
+            }
+        }
+
+        // Follow each chain from its head, whose opening balance no row in the run closed on.
+        // Whatever is left is a cycle (zero amounts, say) and is followed from its lowest row.
+        for (int pass = 0; pass < 2; pass++) {
+            for (int head = start; head < end; head++) {
+                if (placed[head - start] || (pass == 0 && closings.contains(balances[head] - amounts[head]))) {
+                    continue;
+                }
+                for (int row = head; row >= 0; ) {
+                    order[next++] = row;
+                    placed[row - start] = true;
+                    row = nextUnplaced(byOpening.get(balances[row]), placed, start);
+                }
+            }
+        }
+    }
+
+    private static int nextUnplaced(ArrayDeque<Integer> candidates, boolean[] placed, int start) {
+        while (candidates != null && !candidates.isEmpty()) {
+            int row = candidates.poll();
+            if (!placed[row - start]) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private static long day(long epochMillis) {
+        return Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+    }
+
+    /**
+     * A balance and the posted time of the transaction that produced it.
+     */
+    record Point(Instant posted, Money balance) {}
+}
@@ -0,0 +1,140 @@
+package com.example.moneymate.api.transaction;
+
+import com.example.moneymate.api.account.SessionAccountIndex;
+import com.example.moneymate.api.analytics.SpendingAggregates;
+import com.example.moneymate.api.obp.client.ObpAsyncClient;
+import com.example.moneymate.api.security.SessionPrincipal;
+import com.example.moneymate.api.web.ObpErrorResponses;
+import com.example.moneymate.api.web.ResourceETag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Spending per category per month for one account, read from precomputed
+ * {@link SpendingAggregates}. A month with transactions in more than one currency has an
+ * entry per currency.
+ */
+@RestController
+@RequestMapping("/accounts/{accountId}/spending")
+public class SpendingController {
+
+    private static final Logger log = LoggerFactory.getLogger(SpendingController.class);
+
+    private final ObpAsyncClient obpAsyncClient;
+    private final SessionAccountIndex accountIndex;
+    private final TransactionSync transactionSync;
+    private final TransactionColumnCache columnCache;
+
+    public SpendingController(ObpAsyncClient obpAsyncClient, SessionAccountIndex accountIndex,
+                              TransactionSync transactionSync, TransactionColumnCache columnCache) {
+        this.obpAsyncClient = obpAsyncClient;
+        this.accountIndex = accountIndex;
+        this.transactionSync = transactionSync;
+        this.columnCache = columnCache;
+    }
+
+    @GetMapping
+    public CompletableFuture<ResponseEntity<SpendingResponse>> getSpending(
+        @PathVariable String accountId,
+        @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+        @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        // Get SessionPrincipal from SecurityContextHolder (on the servlet thread)
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SessionPrincipal principal = (SessionPrincipal) authentication.getPrincipal();
+
+        // Syncing adds any new transactions to the aggregates; reading them is a map lookup
+        return obpAsyncClient.supply(() -> {
+                Optional<String> bankId = accountIndex.bankIdFor(principal.obpToken(), accountId);
+                if (bankId.isEmpty()) {
+                    log.warn("Account {} not found for user {}", accountId, principal.subject());
+                    return ResponseEntity.notFound().<SpendingResponse>build();
+                }
+                Instant syncedAt = transactionSync.sync(principal.obpToken(), bankId.get(), accountId);
+                SpendingAggregates spending = columnCache.spending(bankId.get(), accountId, syncedAt);
+                return buildSpending(accountId, from, to, spending, ifNoneMatch);
+            })
+            .exceptionally(error -> ObpErrorResponses.of(error, log, "fetching spending"));
+    }
+
+    private ResponseEntity<SpendingResponse> buildSpending(String accountId, YearMonth from, YearMonth to,
+                                                           SpendingAggregates spending, String ifNoneMatch) {
+        List<SpendingAggregates.MonthlySpending> months = spending.months(from, to);
+
+        ResourceETag etag = new ResourceETag("spending")
+            .add(accountId)
+            .add(from)
+            .add(to)
+            .add(List.copyOf(spending.currencies()));
+        for (SpendingAggregates.MonthlySpending month : months) {
+            etag.add(month.month())
+                .add(month.currency());
+            for (SpendingAggregates.CategorySpending category : month.categories()) {
+                etag.add(category.category())
+                    .add(category.transactionCount())
+                    .add(category.spent())
+                    .add(category.received());
+            }
+        }
+        if (etag.matches(ifNoneMatch)) {
+            return etag.notModified();
+        }
+
+        List<SpendingResponse.MonthResponse> monthResponses = months.stream()
+            .map(month -> new SpendingResponse.MonthResponse(
+                month.month().toString(),
+                month.currency(),
+                month.spent(),
+                month.received(),
+                month.categories().stream()
+                    .map(category -> new SpendingResponse.CategoryResponse(
+                        category.category(),
+                        category.category().title(),
+                        category.transactionCount(),
+                        category.spent(),
+                        category.received()
+                    ))
+                    .toList()
+            ))
+            .toList();
+
+        SpendingResponse response = new SpendingResponse(List.copyOf(spending.currencies()), monthResponses);
+
+        UriComponentsBuilder self = UriComponentsBuilder.fromPath("/accounts/" + accountId + "/spending");
+        if (from != null) {
+            self.queryParam("from", from);
+        }
+        if (to != null) {
+            self.queryParam("to", to);
+        }
+        response.add(Link.of(self.toUriString(), "self").withTitle("Spending by category"));
+        response.add(Link.of("/accounts/" + accountId + "/transactions", "transactions").withTitle("Transactions"));
+        response.add(Link.of("/accounts/" + accountId, "account").withTitle("Back to account"));
+        response.add(Link.of("/", "root").withTitle("API root"));
+
+        return etag.ok(response);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.moneymate.api.transaction;
+
+import com.example.moneymate.api.analytics.SpendingCategory;
+import com.example.moneymate.api.money.Money;
+import com.example.moneymate.api.money.MoneyJson;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.springframework.hateoas.RepresentationModel;
+
+import java.util.List;
+
+public class SpendingResponse extends RepresentationModel<SpendingResponse> {
+
+    private final List<String> currencies;
+    private final List<MonthResponse> months;
+
+    public SpendingResponse(List<String> currencies, List<MonthResponse> months) {
+        this.currencies = currencies;
+        this.months = months;
+    }
+
+    public List<String> getCurrencies() {
+        return currencies;
+    }
+
+    public List<MonthResponse> getMonths() {
+        return months;
+    }
+
+    public record MonthResponse(
+        String month,
+        String currency,
+        @JsonSerialize(using = MoneyJson.AmountSerializer.class) Money spent,
+        @JsonSerialize(using = MoneyJson.AmountSerializer.class) Money received,
+        List<CategoryResponse> categories
+    ) {
+    }
+
+    public record CategoryResponse(
+        SpendingCategory category,
+        String title,
+        long transactionCount,
+        @JsonSerialize(using = MoneyJson.AmountSerializer.class) Money spent,
+        @JsonSerialize(using = MoneyJson.AmountSerializer.class) Money received
+    ) {
+    }
+}
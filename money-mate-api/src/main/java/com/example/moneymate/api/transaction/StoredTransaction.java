@@ -0,0 +1,26 @@
+package com.example.moneymate.api.transaction;
+
+import com.example.moneymate.api.analytics.SpendingTransaction;
+import com.example.moneymate.api.money.Money;
+
+import java.time.Instant;
+
+/**
+ * A transaction as mirrored in the local store.
+ *
+ * @param transactionId OBP transaction ID, unique within the account
+ * @param posted when OBP posted the transaction
+ * @param type OBP transaction type
+ * @param description OBP description
+ * @param amount signed amount
+ * @param newBalance account balance after the transaction, or {@code null} if OBP did not report it
+ */
+public record StoredTransaction(
+    String transactionId,
+    Instant posted,
+    String type,
+    String description,
+    Money amount,
+    Money newBalance
+) implements SpendingTransaction {
+}
@@ -0,0 +1,133 @@
+package com.example.moneymate.api.transaction;
+
+import com.example.moneymate.api.analytics.SpendingAggregates;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Each account's stored transactions, held in memory as {@link TransactionColumns}.
+ * <p>
+ * An account is loaded from the {@link TransactionStore} on first read and then kept up
+ * to date from {@link TransactionsStoredEvent}s, so new transactions are merged in rather
+ * than the account being reloaded. Total size is bounded by an estimated memory budget,
+ * exposed as the {@code transactions.column.cache.bytes} gauge.
+ * <p>
+ * Each cached account is tagged with the {@code synced_at} it reflects, and reads pass the
+ * current one from {@link TransactionSync#sync}. Syncs on this node move the tag along (see
+ * {@link AccountSyncedEvent}). A sync recorded by another node leaves it behind, and the
+ * next read reloads the account.
+ */
+@Component
+public class TransactionColumnCache {
+
+    private final TransactionStore store;
+    private final Cache<AccountKey, Versioned> cache;
+    // Bumped on every stored event, so a load that raced with one is not cached. Loads hold
+    // their generation strongly; once none is in flight the entry can be collected.
+    private final Cache<AccountKey, AtomicLong> generations = Caffeine.newBuilder().weakValues().build();
+
+    public TransactionColumnCache(TransactionStore store, TransactionProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.store = store;
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(properties.columnCache().maxMemory().toBytes())
+            .weigher((AccountKey key, Versioned entry) ->
+                (int) Math.min(Integer.MAX_VALUE, entry.columns().estimatedBytes()))
+            .build();
+
+        Gauge.builder("transactions.column.cache.bytes", cache, c -> c.asMap().values().stream()
+                .mapToLong(entry -> entry.columns().estimatedBytes())
+                .sum())
+            .description("Estimated heap held by cached transaction columns")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("transactions.column.cache.transactions", cache, c -> c.asMap().values().stream()
+                .mapToLong(entry -> entry.columns().size())
+                .sum())
+            .description("Transactions held in the column cache")
+            .register(meterRegistry);
+        Gauge.builder("transactions.column.cache.accounts", cache, Cache::estimatedSize)
+            .description("Accounts held in the column cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * The account's stored transactions as of {@code syncedAt}, loading them from the store
+     * if they are not cached or the cached copy is from an earlier sync. The load runs
+     * outside any cache lock; if new transactions are stored meanwhile it is used for this
+     * read but not cached.
+     *
+     * @param syncedAt the account's current {@code synced_at}, as returned by {@link TransactionSync#sync}
+     */
+    TransactionColumns columns(String bankId, String accountId, Instant syncedAt) {
+        AccountKey key = new AccountKey(bankId, accountId);
+        Versioned cached = cache.getIfPresent(key);
+        if (cached != null && cached.syncedAt().equals(syncedAt)) {
+            return cached.columns();
+        }
+
+        AtomicLong generation = generations.get(key, k -> new AtomicLong());
+        long before = generation.get();
+        Versioned loaded = new Versioned(TransactionColumns.of(store.history(bankId, accountId)), syncedAt);
+        if (generation.get() != before) {
+            return loaded.columns();
+        }
+        Versioned current = cache.asMap().compute(key, (k, existing) ->
+            existing != null && existing.syncedAt().equals(syncedAt) ? existing : loaded);
+        if (current == loaded && generation.get() != before) {
+            // An event slipped in between the check and the put, so this copy may lack its transactions
+            cache.asMap().remove(key, loaded);
+        }
+        return current.columns();
+    }
+
+    /**
+     * The account's per-category, per-month totals, see {@link TransactionColumns#spending()}.
+     */
+    public SpendingAggregates spending(String bankId, String accountId, Instant syncedAt) {
+        return columns(bankId, accountId, syncedAt).spending();
+    }
+
+    @EventListener
+    public void onTransactionsStored(TransactionsStoredEvent event) {
+        AccountKey key = new AccountKey(event.bankId(), event.accountId());
+        // No generation means no load in flight that could race with this event
+        AtomicLong generation = generations.getIfPresent(key);
+        if (generation != null) {
+            generation.incrementAndGet();
+        }
+        // The merge copies the columns, so it runs outside the map; if the entry changed
+        // meanwhile, merge into what replaced it
+        while (true) {
+            Versioned entry = cache.getIfPresent(key);
+            if (entry == null) {
+                return;
+            }
+            Versioned merged = new Versioned(entry.columns().withAdded(event.transactions()), entry.syncedAt());
+            if (cache.asMap().replace(key, entry, merged)) {
+                return;
+            }
+        }
+    }
+
+    @EventListener
+    public void onAccountSynced(AccountSyncedEvent event) {
+        // The stored events since the previous sync were merged in, so only the tag moves;
+        // if another node synced in between, the copy is missing its transactions
+        cache.asMap().computeIfPresent(new AccountKey(event.bankId(), event.accountId()), (k, entry) ->
+            event.continuous() && entry.syncedAt().equals(event.previousSyncedAt())
+                ? new Versioned(entry.columns(), event.syncedAt())
+                : null);
+    }
+
+    private record AccountKey(String bankId, String accountId) {}
+
+    private record Versioned(TransactionColumns columns, Instant syncedAt) {}
+}
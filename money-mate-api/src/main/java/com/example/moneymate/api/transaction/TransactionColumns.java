@@ -0,0 +1,367 @@
+package com.example.moneymate.api.transaction;
+
+import com.example.moneymate.api.analytics.SpendingAggregates;
+import com.example.moneymate.api.money.Money;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One account's transactions held column by column (struct of arrays), oldest first.
+ * <p>
+ * Row {@code i} is spread across parallel primitive arrays: posted epoch millis, amount and
+ * balance in minor units, and dictionary ids for description, type and currency. Each
+ * distinct string is stored once per account. Transaction IDs that are canonical UUIDs are
+ * kept as two longs; other ID formats fall back to a String column. Date-range filters are
+ * binary searches over the posted column, and a page only materialises the rows it returns.
+ * <p>
+ * Instances are immutable. {@link #withAdded} returns a new instance, so readers never
+ * need a lock.
+ */
+final class TransactionColumns {
+
+    static final long NO_BALANCE = Long.MIN_VALUE;
+
+    // Millisecond precision, as held in the posted column
+    private static final Comparator<StoredTransaction> OLDEST_FIRST = Comparator
+        .comparingLong((StoredTransaction transaction) -> transaction.posted().toEpochMilli())
+        .thenComparing(StoredTransaction::transactionId);
+    private static final long[] NO_IDS = new long[0];
+
+    // Rough JVM sizes used for the memory estimate
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private final int size;
+    private final long[] posted;
+    private final long[] amounts;
+    private final long[] balances;
+    private final int[] descriptionIds;
+    private final int[] typeIds;
+    private final int[] currencyIds;
+    private final long[] idMostBits;
+    private final long[] idLeastBits;
+    private final String[] rawIds;
+    private final String[] dictionary;
+    private final BalanceTimeline balanceTimeline;
+    private final SpendingAggregates spending;
+
+    private static final TransactionColumns EMPTY = new TransactionColumns(0, new long[0], new long[0], new long[0],
+        new int[0], new int[0], new int[0], NO_IDS, NO_IDS, null, new String[] {null}, BalanceTimeline.EMPTY,
+        SpendingAggregates.EMPTY);
+
+    private TransactionColumns(int size, long[] posted, long[] amounts, long[] balances, int[] descriptionIds,
+                               int[] typeIds, int[] currencyIds, long[] idMostBits, long[] idLeastBits,
+                               String[] rawIds, String[] dictionary, BalanceTimeline balanceTimeline,
+                               SpendingAggregates spending) {
+        this.size = size;
+        this.posted = posted;
+        this.amounts = amounts;
+        this.balances = balances;
+        this.descriptionIds = descriptionIds;
+        this.typeIds = typeIds;
+        this.currencyIds = currencyIds;
+        this.idMostBits = idMostBits;
+        this.idLeastBits = idLeastBits;
+        this.rawIds = rawIds;
+        this.dictionary = dictionary;
+        this.balanceTimeline = balanceTimeline;
+        this.spending = spending;
+    }
+
+    static TransactionColumns of(List<StoredTransaction> transactions) {
+        return EMPTY.withAdded(transactions);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Running balance after each transaction, kept up to date by {@link #withAdded}.
+     */
+    BalanceTimeline balanceTimeline() {
+        return balanceTimeline;
+    }
+
+    /**
+     * Per-category, per-month totals. {@link #withAdded} only categorizes the new transactions.
+     */
+    SpendingAggregates spending() {
+        return spending;
+    }
+
+    /**
+     * A copy with the given transactions merged in at their posted position. Transactions
+     * already present are ignored.
+     * <p>
+     * The columns are copied into arrays grown to the new size: rows before the first new
+     * transaction are copied in bulk and the rest are merged column by column, so existing
+     * rows are never materialised. Usually the new transactions are all newer than what is
+     * held, which makes this an append. The balance timeline is likewise only worked out
+     * again from the day of the first new transaction.
+     */
+    TransactionColumns withAdded(List<StoredTransaction> added) {
+        List<StoredTransaction> incoming = new ArrayList<>(added.size());
+        for (StoredTransaction transaction : added) {
+            if (indexOf(transaction) < 0) {
+                incoming.add(transaction);
+            }
+        }
+        if (incoming.isEmpty()) {
+            return this;
+        }
+        incoming.sort(OLDEST_FIRST);
+
+        UUID[] uuids = new UUID[incoming.size()];
+        boolean raw = rawIds != null;
+        for (int j = 0; j < uuids.length; j++) {
+            uuids[j] = canonicalUuid(incoming.get(j).transactionId());
+            raw |= uuids[j] == null;
+        }
+
+        int newSize = size + incoming.size();
+        int first = insertionPoint(incoming.getFirst());
+        long[] newPosted = Arrays.copyOf(posted, newSize);
+        long[] newAmounts = Arrays.copyOf(amounts, newSize);
+        long[] newBalances = Arrays.copyOf(balances, newSize);
+        int[] newDescriptionIds = Arrays.copyOf(descriptionIds, newSize);
+        int[] newTypeIds = Arrays.copyOf(typeIds, newSize);
+        int[] newCurrencyIds = Arrays.copyOf(currencyIds, newSize);
+        long[] newIdMostBits = raw ? NO_IDS : Arrays.copyOf(idMostBits, newSize);
+        long[] newIdLeastBits = raw ? NO_IDS : Arrays.copyOf(idLeastBits, newSize);
+        String[] newRawIds = null;
+        if (rawIds != null) {
+            newRawIds = Arrays.copyOf(rawIds, newSize);
+        } else if (raw) {
+            // A non-UUID ID arrived: every row's ID moves to the String column
+            newRawIds = new String[newSize];
+            for (int i = 0; i < first; i++) {
+                newRawIds[i] = transactionId(i);
+            }
+        }
+
+        List<String> newDictionary = new ArrayList<>(Arrays.asList(dictionary));
+        Map<String, Integer> ids = new HashMap<>();
+        for (int d = 0; d < dictionary.length; d++) {
+            ids.put(dictionary[d], d);
+        }
+
+        int i = first;
+        int j = 0;
+        for (int k = first; k < newSize; k++) {
+            if (j == incoming.size() || (i < size && compareRow(i, incoming.get(j)) < 0)) {
+                newPosted[k] = posted[i];
+                newAmounts[k] = amounts[i];
+                newBalances[k] = balances[i];
+                newDescriptionIds[k] = descriptionIds[i];
+                newTypeIds[k] = typeIds[i];
+                newCurrencyIds[k] = currencyIds[i];
+                if (newRawIds != null) {
+                    newRawIds[k] = transactionId(i);
+                } else {
+                    newIdMostBits[k] = idMostBits[i];
+                    newIdLeastBits[k] = idLeastBits[i];
+                }
+                i++;
+            } else {
+                StoredTransaction transaction = incoming.get(j);
+                newPosted[k] = transaction.posted().toEpochMilli();
+                newAmounts[k] = transaction.amount().minorUnits();
+                newBalances[k] = transaction.newBalance() != null ? transaction.newBalance().minorUnits() : NO_BALANCE;
+                newDescriptionIds[k] = ids.computeIfAbsent(transaction.description(), value -> add(newDictionary, value));
+                newTypeIds[k] = ids.computeIfAbsent(transaction.type(), value -> add(newDictionary, value));
+                newCurrencyIds[k] = ids.computeIfAbsent(transaction.amount().currency(),
+                    value -> add(newDictionary, value));
+                if (newRawIds != null) {
+                    newRawIds[k] = transaction.transactionId();
+                } else {
+                    newIdMostBits[k] = uuids[j].getMostSignificantBits();
+                    newIdLeastBits[k] = uuids[j].getLeastSignificantBits();
+                }
+                j++;
+            }
+        }
+
+        String[] newDictionaryArray = newDictionary.toArray(String[]::new);
+        BalanceTimeline newTimeline = balanceTimeline.withChangesFrom(newPosted, newAmounts, newBalances, newSize,
+            first, NO_BALANCE, newDictionaryArray[newCurrencyIds[newSize - 1]]);
+        return new TransactionColumns(newSize, newPosted, newAmounts, newBalances, newDescriptionIds, newTypeIds,
+            newCurrencyIds, newIdMostBits, newIdLeastBits, newRawIds, newDictionaryArray, newTimeline,
+            spending.plus(incoming));
+    }
+
+    /**
+     * Rows posted within [from, to] that sort before the given position, newest first, at
+     * most {@code limit} of them.
+     *
+     * @param from lower bound, or {@code null} for none
+     * @param to upper bound, or {@code null} for none
+     * @param posted posted time of the position, or {@code null} to start from the newest row
+     * @param transactionId transaction ID of the position
+     */
+    List<StoredTransaction> olderThan(Instant from, Instant to, Instant posted, String transactionId, int limit) {
+        int first = from != null ? lowerBound(from.toEpochMilli()) : 0;
+        int end = to != null ? upperBound(to.toEpochMilli()) : size;
+        if (posted != null) {
+            end = Math.min(end, seek(posted.toEpochMilli(), transactionId, false));
+        }
+
+        List<StoredTransaction> page = new ArrayList<>(Math.max(0, Math.min(limit, end - first)));
+        for (int i = end - 1; i >= first && page.size() < limit; i--) {
+            page.add(row(i));
+        }
+        return page;
+    }
+
+    /**
+     * Rows posted within [from, to] that sort after the given position, newest first, at
+     * most {@code limit} of them: the ones nearest the position.
+     *
+     * @param from lower bound, or {@code null} for none
+     * @param to upper bound, or {@code null} for none
+     */
+    List<StoredTransaction> newerThan(Instant from, Instant to, Instant posted, String transactionId, int limit) {
+        int first = from != null ? lowerBound(from.toEpochMilli()) : 0;
+        int end = to != null ? upperBound(to.toEpochMilli()) : size;
+        first = Math.max(first, seek(posted.toEpochMilli(), transactionId, true));
+
+        List<StoredTransaction> page = new ArrayList<>(Math.max(0, Math.min(limit, end - first)));
+        for (int i = Math.min(end, first + limit) - 1; i >= first; i--) {
+            page.add(row(i));
+        }
+        return page;
+    }
+
+    /**
+     * Estimated retained heap of this instance.
+     */
+    long estimatedBytes() {
+        long bytes = 6L * ARRAY_HEADER_BYTES + 8L * posted.length * 3 + 4L * descriptionIds.length * 3;
+        bytes += 2L * ARRAY_HEADER_BYTES + 16L * idMostBits.length;
+        if (rawIds != null) {
+            bytes += ARRAY_HEADER_BYTES + (long) rawIds.length * REFERENCE_BYTES;
+            for (String id : rawIds) {
+                bytes += STRING_OVERHEAD_BYTES + id.length();
+            }
+        }
+        bytes += ARRAY_HEADER_BYTES + (long) dictionary.length * REFERENCE_BYTES;
+        for (String entry : dictionary) {
+            bytes += entry != null ? STRING_OVERHEAD_BYTES + entry.length() : 0;
+        }
+        return bytes + balanceTimeline.estimatedBytes() + spending.estimatedBytes();
+    }
+
+    private StoredTransaction row(int i) {
+        String currency = dictionary[currencyIds[i]];
+        return new StoredTransaction(
+            transactionId(i),
+            Instant.ofEpochMilli(posted[i]),
+            dictionary[typeIds[i]],
+            dictionary[descriptionIds[i]],
+            Money.ofMinor(amounts[i], currency),
+            balances[i] != NO_BALANCE ? Money.ofMinor(balances[i], currency) : null
+        );
+    }
+
+    private String transactionId(int i) {
+        return rawIds != null ? rawIds[i] : new UUID(idMostBits[i], idLeastBits[i]).toString();
+    }
+
+    // Compares row i with a transaction in OLDEST_FIRST order
+    private int compareRow(int i, StoredTransaction transaction) {
+        return compareRow(i, transaction.posted().toEpochMilli(), transaction.transactionId());
+    }
+
+    private int compareRow(int i, long time, String transactionId) {
+        int byPosted = Long.compare(posted[i], time);
+        return byPosted != 0 ? byPosted : transactionId(i).compareTo(transactionId);
+    }
+
+    // First row that sorts after the position (or at it, unless exclusive)
+    private int seek(long time, String transactionId, boolean exclusive) {
+        int i = lowerBound(time);
+        while (i < size && posted[i] == time) {
+            int byId = transactionId(i).compareTo(transactionId);
+            if (byId > 0 || (byId == 0 && !exclusive)) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    // First row that sorts after the given transaction
+    private int insertionPoint(StoredTransaction transaction) {
+        int i = lowerBound(transaction.posted().toEpochMilli());
+        while (i < size && compareRow(i, transaction) < 0) {
+            i++;
+        }
+        return i;
+    }
+
+    private int indexOf(StoredTransaction transaction) {
+        long time = transaction.posted().toEpochMilli();
+        for (int i = lowerBound(time); i < size && posted[i] == time; i++) {
+            if (transactionId(i).equals(transaction.transactionId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // First row posted at or after the given time
+    private int lowerBound(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (posted[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First row posted after the given time
+    private int upperBound(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (posted[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int add(List<String> dictionary, String value) {
+        dictionary.add(value);
+        return dictionary.size() - 1;
+    }
+
+    // The UUID only if formatting it back gives exactly the same ID
+    private static UUID canonicalUuid(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.moneymate.api.transaction;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TransactionProperties.class)
+public class TransactionConfig {
+}
@@ -1,22 +1,32 @@
 package com.example.moneymate.api.transaction;
 
-import com.example.moneymate.api.obp.client.ObpClient;
-import com.example.moneymate.api.obp.client.ObpClientException;
-import com.example.moneymate.api.obp.client.ObpTransactionsResponse;
+import com.example.moneymate.api.account.SessionAccountIndex;
+import com.example.moneymate.api.obp.client.ObpAsyncClient;
 import com.example.moneymate.api.security.SessionPrincipal;
+import com.example.moneymate.api.web.ObpErrorResponses;
+import com.example.moneymate.api.web.ResourceETag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.hateoas.Link;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -25,100 +35,211 @@ public class TransactionController {
 
     private static final Logger log = LoggerFactory.getLogger(TransactionController.class);
 
-    private final ObpClient obpClient;
-
-    public TransactionController(ObpClient obpClient) {
-        this.obpClient = obpClient;
+    private final ObpAsyncClient obpAsyncClient;
+    private final SessionAccountIndex accountIndex;
+    private final TransactionSync transactionSync;
+    private final TransactionColumnCache columnCache;
+    private final TransactionProperties properties;
+
+    public TransactionController(ObpAsyncClient obpAsyncClient, SessionAccountIndex accountIndex,
+                                 TransactionSync transactionSync, TransactionColumnCache columnCache,
+                                 TransactionProperties properties) {
+        this.obpAsyncClient = obpAsyncClient;
+        this.accountIndex = accountIndex;
+        this.transactionSync = transactionSync;
+        this.columnCache = columnCache;
+        this.properties = properties;
     }
 
     @GetMapping
-    public ResponseEntity<TransactionCollectionResponse> getTransactions(@PathVariable String accountId) {
+    public CompletableFuture<ResponseEntity<TransactionCollectionResponse>> getTransactions(
+        @PathVariable String accountId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestParam(required = false) Integer size,
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Get SessionPrincipal from SecurityContextHolder (on the servlet thread)
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SessionPrincipal principal = (SessionPrincipal) authentication.getPrincipal();
+
+        // Work out which page is being asked for; a cursor carries its own filter and size
+        TransactionCursor page;
         try {
-            // Get SessionPrincipal from SecurityContextHolder
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            SessionPrincipal principal = (SessionPrincipal) authentication.getPrincipal();
-
-            // Fetch accounts to find bankId for this accountId
-            var accountsResponse = obpClient.getAccounts(principal.obpToken());
-            var account = accountsResponse.accounts().stream()
-                .filter(acc -> acc.id().equals(accountId))
-                .findFirst()
-                .orElse(null);
-
-            if (account == null) {
-                log.warn("Account {} not found for user {}", accountId, principal.subject());
-                return ResponseEntity.notFound().build();
+            page = cursor != null
+                ? TransactionCursor.decode(cursor)
+                : TransactionCursor.first(pageSize(size), from, to);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected transactions cursor for account {}: {}", accountId, e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        if (page.size() > properties.maxPageSize()
+            || (page.from() != null && page.to() != null && page.from().isAfter(page.to()))) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        // Resolve bankId from the session's account index (only the caller's own accounts),
+        // pull any new transactions from OBP into the local store, then read the page from
+        // the store - all without holding the servlet thread
+        return obpAsyncClient.supply(() -> {
+                Optional<String> bankId = accountIndex.bankIdFor(principal.obpToken(), accountId);
+                if (bankId.isEmpty()) {
+                    log.warn("Account {} not found for user {}", accountId, principal.subject());
+                    return ResponseEntity.notFound().<TransactionCollectionResponse>build();
+                }
+                Instant syncedAt = transactionSync.sync(principal.obpToken(), bankId.get(), accountId);
+                return buildPage(accountId, readPage(bankId.get(), accountId, syncedAt, page), ifNoneMatch);
+            })
+            .exceptionally(error -> ObpErrorResponses.of(error, log, "fetching transactions"));
+    }
+
+    /**
+     * Read a page from the account's cached columns, seeking to the cursor's position. One
+     * extra transaction is read in the page's direction so we know whether another page lies
+     * beyond it.
+     */
+    private Page readPage(String bankId, String accountId, Instant syncedAt, TransactionCursor page) {
+        TransactionColumns columns = columnCache.columns(bankId, accountId, syncedAt);
+        Instant from = startOfDay(page.from());
+        Instant to = endOfDay(page.to());
+        if (page.direction() == TransactionCursor.Direction.NEWER) {
+            List<StoredTransaction> newer = columns.newerThan(from, to, page.posted(), page.transactionId(),
+                page.size() + 1);
+            if (newer.size() > page.size()) {
+                // The extra transaction is the newest one, beyond this page
+                return new Page(page, newer.subList(1, newer.size()), true, true);
             }
+            // Back at the top of the list: serve the first page, which is a full one
+            page = page.first();
+        }
+        List<StoredTransaction> older = columns.olderThan(from, to, page.posted(), page.transactionId(),
+            page.size() + 1);
+        boolean hasNext = older.size() > page.size();
+        return new Page(page, hasNext ? older.subList(0, page.size()) : older, hasNext, !page.isFirst());
+    }
+
+    private ResponseEntity<TransactionCollectionResponse> buildPage(String accountId, Page read,
+                                                                    String ifNoneMatch) {
+        TransactionCursor page = read.cursor();
+        List<StoredTransaction> stored = read.transactions();
+
+        // Validator over the page position and every transaction shown on it; the extra
+        // look-ahead transaction only affects the links, so hasNext/hasPrevious stand in for it
+        ResourceETag etag = new ResourceETag("transactions")
+            .add(accountId)
+            .add(page.encode())
+            .add(read.hasNext())
+            .add(read.hasPrevious());
+        stored.forEach(storedTxn -> etag.add(storedTxn.transactionId())
+                .add(storedTxn.posted())
+                .add(storedTxn.description())
+                .add(storedTxn.amount())
+                .add(storedTxn.newBalance()));
+        if (etag.matches(ifNoneMatch)) {
+            return etag.notModified();
+        }
+
+        // Map stored transactions to TransactionResponse (without id field)
+        List<TransactionResponse> transactions = stored.stream()
+            .map(storedTxn -> {
+                TransactionResponse txn = new TransactionResponse(
+                    storedTxn.posted().toString(),
+                    storedTxn.description(),
+                    storedTxn.amount(),
+                    storedTxn.newBalance()
+                );
+
+                // Add links - using transaction ID only in the URL, not as a field
+                txn.add(Link.of(
+                    "/accounts/" + accountId + "/transactions/" + storedTxn.transactionId(),
+                    "self"
+                ).withTitle("Transaction details"));
+
+                txn.add(Link.of(
+                    "/accounts/" + accountId,
+                    "account"
+                ).withTitle("Account"));
+
+                return txn;
+            })
+            .collect(Collectors.toList());
+
+        // Build collection response (without accountId field)
+        TransactionCollectionResponse response = new TransactionCollectionResponse(
+            transactions.size(),
+            transactions
+        );
+
+        // Add collection-level links
+        String basePath = "/accounts/" + accountId + "/transactions";
+        response.add(Link.of(
+            page.isFirst() ? firstPageHref(basePath, page) : cursorHref(basePath, page),
+            "self"
+        ).withTitle("Account transactions"));
+
+        if (read.hasNext()) {
+            response.add(Link.of(cursorHref(basePath, page.olderThan(stored.getLast())), "next")
+                .withTitle("Older transactions"));
+        }
+
+        if (read.hasPrevious()) {
+            // An empty page (a date window with nothing older) has no row to step back from
+            String previous = stored.isEmpty()
+                ? firstPageHref(basePath, page)
+                : cursorHref(basePath, page.newerThan(stored.getFirst()));
+            response.add(Link.of(previous, "prev").withTitle("Newer transactions"));
+        }
+
+        response.add(Link.of(
+            "/accounts/" + accountId,
+            "account"
+        ).withTitle("Back to account"));
 
-            String bankId = account.bankId();
-
-            // Fetch transactions from OBP
-            ObpTransactionsResponse transactionsResponse = obpClient.getTransactions(
-                principal.obpToken(),
-                bankId,
-                accountId
-            );
-
-            // Map OBP transactions to TransactionResponse (without id field)
-            List<TransactionResponse> transactions = transactionsResponse.transactions().stream()
-                .map(obpTxn -> {
-                    TransactionResponse txn = new TransactionResponse(
-                        obpTxn.details().posted(),
-                        obpTxn.details().description(),
-                        obpTxn.details().value().amount(),
-                        obpTxn.details().value().currency(),
-                        obpTxn.details().newBalance().amount()
-                    );
-
-                    // Add links - using transaction ID only in the URL, not as a field
-                    txn.add(Link.of(
-                        "/accounts/" + accountId + "/transactions/" + obpTxn.id(),
-                        "self"
-                    ).withTitle("Transaction details"));
-
-                    txn.add(Link.of(
-                        "/accounts/" + accountId,
-                        "account"
-                    ).withTitle("Account"));
-
-                    return txn;
-                })
-                .collect(Collectors.toList());
-
-            // Build collection response (without accountId field)
-            TransactionCollectionResponse response = new TransactionCollectionResponse(
-                transactions.size(),
-                transactions
-            );
-
-            // Add collection-level links
-            response.add(Link.of(
-                "/accounts/" + accountId + "/transactions",
-                "self"
-            ).withTitle("Account transactions"));
-
-            response.add(Link.of(
-                "/accounts/" + accountId,
-                "account"
-            ).withTitle("Back to account"));
-
-            response.add(Link.of(
-                "/",
-                "root"
-            ).withTitle("API root"));
-
-            return ResponseEntity.ok(response);
-
-        } catch (ObpClientException e) {
-            log.error("Failed to fetch transactions from OBP: {}", e.getMessage(), e);
-            return ResponseEntity
-                .status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(null);
-        } catch (Exception e) {
-            log.error("Unexpected error fetching transactions: {}", e.getMessage(), e);
-            return ResponseEntity
-                .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(null);
+        response.add(Link.of(
+            "/",
+            "root"
+        ).withTitle("API root"));
+
+        return etag.ok(response);
+    }
+
+    /**
+     * A page as read: the cursor it was served for and whether more transactions lie on
+     * either side of it.
+     */
+    private record Page(TransactionCursor cursor, List<StoredTransaction> transactions,
+                        boolean hasNext, boolean hasPrevious) {
+    }
+
+    private int pageSize(Integer requested) {
+        return requested != null && requested > 0 ? requested : properties.pageSize();
+    }
+
+    private static Instant startOfDay(LocalDate date) {
+        return date != null ? date.atStartOfDay(ZoneOffset.UTC).toInstant() : null;
+    }
+
+    private static Instant endOfDay(LocalDate date) {
+        return date != null ? date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().minusMillis(1) : null;
+    }
+
+    private String firstPageHref(String basePath, TransactionCursor page) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromPath(basePath);
+        if (page.from() != null) {
+            uri.queryParam("from", page.from());
+        }
+        if (page.to() != null) {
+            uri.queryParam("to", page.to());
         }
+        if (page.size() != properties.pageSize()) {
+            uri.queryParam("size", page.size());
+        }
+        return uri.toUriString();
+    }
+
+    private static String cursorHref(String basePath, TransactionCursor page) {
+        return UriComponentsBuilder.fromPath(basePath)
+            .queryParam("cursor", page.encode())
+            .toUriString();
     }
 }
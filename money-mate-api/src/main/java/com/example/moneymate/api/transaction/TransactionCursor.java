@@ -0,0 +1,102 @@
+package com.example.moneymate.api.transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in an account's transaction list, handed to clients as an opaque token in
+ * {@code next}/{@code prev} links. It names the row a page continues from by posted time and
+ * transaction ID (a keyset position) rather than counting rows: the list is newest first,
+ * so every transaction a sync adds would shift an offset. Carries the date filter so that
+ * following a link keeps the same window.
+ *
+ * @param direction whether the page holds the rows older or newer than the position
+ * @param posted posted time of the row the page continues from, or {@code null} for the first page
+ * @param transactionId ID of that row, or {@code null} for the first page
+ * @param size page size
+ * @param from first day included, or {@code null}
+ * @param to last day included, or {@code null}
+ */
+record TransactionCursor(Direction direction, Instant posted, String transactionId, int size,
+                         LocalDate from, LocalDate to) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    enum Direction {
+        OLDER,
+        NEWER
+    }
+
+    /**
+     * The newest transactions in the window.
+     */
+    static TransactionCursor first(int size, LocalDate from, LocalDate to) {
+        return new TransactionCursor(Direction.OLDER, null, null, size, from, to);
+    }
+
+    TransactionCursor first() {
+        return first(size, from, to);
+    }
+
+    boolean isFirst() {
+        return posted == null;
+    }
+
+    /**
+     * The page of transactions older than {@code transaction}.
+     */
+    TransactionCursor olderThan(StoredTransaction transaction) {
+        return new TransactionCursor(Direction.OLDER, transaction.posted(), transaction.transactionId(), size, from, to);
+    }
+
+    /**
+     * The page of transactions newer than {@code transaction}.
+     */
+    TransactionCursor newerThan(StoredTransaction transaction) {
+        return new TransactionCursor(Direction.NEWER, transaction.posted(), transaction.transactionId(), size, from, to);
+    }
+
+    String encode() {
+        // The transaction ID goes last so that it may contain the separator
+        String raw = (direction == Direction.OLDER ? "o" : "n")
+            + "|" + (posted != null ? posted.toEpochMilli() : "")
+            + "|" + size
+            + "|" + (from != null ? from : "")
+            + "|" + (to != null ? to : "")
+            + "|" + (transactionId != null ? transactionId : "");
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 6);
+            if (parts.length != 6 || parts[1].isEmpty() != parts[5].isEmpty()) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            Direction direction = switch (parts[0]) {
+                case "o" -> Direction.OLDER;
+                case "n" -> Direction.NEWER;
+                default -> throw new IllegalArgumentException("Malformed cursor");
+            };
+            Instant posted = parts[1].isEmpty() ? null : Instant.ofEpochMilli(Long.parseLong(parts[1]));
+            int size = Integer.parseInt(parts[2]);
+            if (size < 1 || (posted == null && direction == Direction.NEWER)) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            LocalDate from = parts[3].isEmpty() ? null : LocalDate.parse(parts[3]);
+            LocalDate to = parts[4].isEmpty() ? null : LocalDate.parse(parts[4]);
+            String transactionId = parts[5].isEmpty() ? null : parts[5];
+            return new TransactionCursor(direction, posted, transactionId, size, from, to);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.moneymate.api.transaction;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Paging and local store settings for the transactions resource.
+ *
+ * @param pageSize number of transactions per page when the client does not ask for a size
+ * @param maxPageSize largest page a client may request
+ * @param sync how the local transaction store is kept up to date with OBP
+ * @param retention how long the local transaction store keeps an account's history
+ * @param columnCache in-memory copy of the store used to serve pages
+ */
+@ConfigurationProperties(prefix = "money-mate.transactions")
+public record TransactionProperties(
+    int pageSize,
+    int maxPageSize,
+    SyncProperties sync,
+    RetentionProperties retention,
+    ColumnCacheProperties columnCache
+) {
+    /**
+     * Incremental sync from OBP into the local store.
+     *
+     * @param interval how long an account's stored transactions are served before OBP is asked for new ones
+     * @param batchSize OBP page size used while syncing, and the number of transactions stored per insert
+     * @param lookBack how far before the watermark each sync asks OBP again, to pick up transactions
+     *                 that OBP reports late with an earlier posted date
+     */
+    public record SyncProperties(
+        Duration interval,
+        int batchSize,
+        Duration lookBack
+    ) {
+    }
+
+    /**
+     * Bound on how long mirrored transactions are kept.
+     *
+     * @param inactiveAfter an account not synced for this long has its stored history deleted; it is
+     *                      pulled from OBP afresh if it is looked at again
+     * @param sweepInterval how often inactive accounts are looked for
+     */
+    public record RetentionProperties(
+        Duration inactiveAfter,
+        Duration sweepInterval
+    ) {
+    }
+
+    /**
+     * Per-account columnar cache of stored transactions, see {@link TransactionColumnCache}.
+     *
+     * @param maxMemory estimated memory budget shared by all cached accounts
+     */
+    public record ColumnCacheProperties(
+        DataSize maxMemory
+    ) {
+    }
+}
@@ -1,20 +1,21 @@
 package com.example.moneymate.api.transaction;
 
+import com.example.moneymate.api.money.Money;
+import com.example.moneymate.api.money.MoneyJson;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import org.springframework.hateoas.RepresentationModel;
 
 public class TransactionResponse extends RepresentationModel<TransactionResponse> {
 
     private final String date;
     private final String description;
-    private final String amount;
-    private final String currency;
-    private final String balanceAfter;
+    private final Money amount;
+    private final Money balanceAfter;
 
-    public TransactionResponse(String date, String description, String amount, String currency, String balanceAfter) {
+    public TransactionResponse(String date, String description, Money amount, Money balanceAfter) {
         this.date = date;
         this.description = description;
         this.amount = amount;
-        this.currency = currency;
         this.balanceAfter = balanceAfter;
     }
 
@@ -26,15 +27,17 @@ public class TransactionResponse extends RepresentationModel<TransactionResponse
         return description;
     }
 
-    public String getAmount() {
+    @JsonSerialize(using = MoneyJson.AmountSerializer.class)
+    public Money getAmount() {
         return amount;
     }
 
     public String getCurrency() {
-        return currency;
+        return amount != null ? amount.currency() : null;
     }
 
-    public String getBalanceAfter() {
+    @JsonSerialize(using = MoneyJson.AmountSerializer.class)
+    public Money getBalanceAfter() {
         return balanceAfter;
     }
 }
@@ -0,0 +1,245 @@
+package com.example.moneymate.api.transaction;
+
+import com.example.moneymate.api.money.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Local mirror of each account's OBP transactions, plus a per-account sync watermark.
+ * <p>
+ * Backed by the embedded database configured as the application's DataSource (a file-based
+ * H2 database by default, see {@code schema.sql}). A sync only ever adds rows: a transaction
+ * is identified by (bank, account, transaction ID), and re-syncing one already stored is a
+ * no-op. An account's rows are deleted as a whole once it has not been synced for the
+ * retention period, see {@link #purgeNotSyncedSince(Instant)}.
+ */
+@Repository
+public class TransactionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionStore.class);
+
+    private static final RowMapper<StoredTransaction> TRANSACTION_MAPPER = (rs, rowNum) -> new StoredTransaction(
+        rs.getString("transaction_id"),
+        rs.getObject("posted", OffsetDateTime.class).toInstant(),
+        rs.getString("type"),
+        rs.getString("description"),
+        Money.of(rs.getString("amount"), rs.getString("currency")),
+        Money.ofNullable(rs.getString("new_balance"), rs.getString("currency"))
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransactionStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * How far the account has been synced, or empty if it never has been.
+     */
+    public Optional<SyncState> syncState(String bankId, String accountId) {
+        return jdbcTemplate.query("""
+                SELECT watermark_posted, watermark_transaction_id, synced_at
+                FROM account_sync
+                WHERE bank_id = ? AND account_id = ?
+                """,
+            (rs, rowNum) -> new SyncState(
+                toInstant(rs.getObject("watermark_posted", OffsetDateTime.class)),
+                rs.getString("watermark_transaction_id"),
+                rs.getObject("synced_at", OffsetDateTime.class).toInstant()
+            ),
+            bankId, accountId
+        ).stream().findFirst();
+    }
+
+    /**
+     * Record that the account has been synced up to the given watermark.
+     *
+     * @param previous the state the sync started from, or {@code null} if the account had never been synced
+     * @return whether {@code previous} was still the recorded state, i.e. no other node
+     *         recorded a sync in between
+     */
+    public boolean saveSyncState(String bankId, String accountId, SyncState previous, SyncState state) {
+        // Update-then-insert rather than MERGE, which H2 and PostgreSQL spell differently.
+        // The update only applies if the state is still the one the sync started from.
+        Object[] values = {toTimestamp(state.watermarkPosted()), state.watermarkTransactionId(),
+            toTimestamp(state.syncedAt()), bankId, accountId};
+        String update = """
+            UPDATE account_sync SET watermark_posted = ?, watermark_transaction_id = ?, synced_at = ?
+            WHERE bank_id = ? AND account_id = ?
+            """;
+        if (previous != null) {
+            Object[] conditional = Arrays.copyOf(values, values.length + 1);
+            conditional[values.length] = toTimestamp(previous.syncedAt());
+            if (jdbcTemplate.update(update + " AND synced_at = ?", conditional) > 0) {
+                return true;
+            }
+        } else if (insertSyncState(values)) {
+            return true;
+        }
+
+        // Another node synced meanwhile; this sync is the latest, so its state still wins
+        if (jdbcTemplate.update(update, values) == 0 && !insertSyncState(values)) {
+            jdbcTemplate.update(update, values);
+        }
+        return false;
+    }
+
+    private boolean insertSyncState(Object[] values) {
+        try {
+            jdbcTemplate.update("""
+                    INSERT INTO account_sync (watermark_posted, watermark_transaction_id, synced_at, bank_id, account_id)
+                    VALUES (?, ?, ?, ?, ?)
+                    """,
+                values);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Insert the transactions that are not stored yet. Another node may be storing some of
+     * the same transactions at once; those are left to it.
+     *
+     * @return the transactions that were actually inserted
+     */
+    public List<StoredTransaction> addNew(String bankId, String accountId, List<StoredTransaction> transactions) {
+        if (transactions.isEmpty()) {
+            return List.of();
+        }
+
+        // A delta batch is small, so one IN query finds the ones already stored
+        String placeholders = String.join(",", transactions.stream().map(t -> "?").toList());
+        List<Object> args = new ArrayList<>(transactions.size() + 2);
+        args.add(bankId);
+        args.add(accountId);
+        transactions.forEach(t -> args.add(t.transactionId()));
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT transaction_id FROM account_transaction WHERE bank_id = ? AND account_id = ?"
+                + " AND transaction_id IN (" + placeholders + ")",
+            String.class, args.toArray()));
+
+        Set<String> seen = new HashSet<>(existing);
+        List<StoredTransaction> added = transactions.stream()
+            .filter(t -> seen.add(t.transactionId()))
+            .toList();
+
+        try {
+            // One transaction, so that a conflict leaves none of the batch behind
+            transactionTemplate.executeWithoutResult(status -> insert(bankId, accountId, added));
+            return added;
+        } catch (DuplicateKeyException e) {
+            // Another node stored some of them since the check; insert the rest one by one
+            List<StoredTransaction> inserted = new ArrayList<>(added.size());
+            for (StoredTransaction transaction : added) {
+                try {
+                    insert(bankId, accountId, List.of(transaction));
+                    inserted.add(transaction);
+                } catch (DuplicateKeyException duplicate) {
+                    log.debug("Transaction {} for {}/{} was stored concurrently", transaction.transactionId(),
+                        bankId, accountId);
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private void insert(String bankId, String accountId, List<StoredTransaction> transactions) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO account_transaction
+                    (bank_id, account_id, transaction_id, posted, type, description, amount, currency, new_balance)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """,
+            transactions, transactions.size(), (ps, t) -> {
+                ps.setString(1, bankId);
+                ps.setString(2, accountId);
+                ps.setString(3, t.transactionId());
+                ps.setObject(4, toTimestamp(t.posted()));
+                ps.setString(5, t.type());
+                ps.setString(6, t.description());
+                ps.setString(7, t.amount().toPlainString());
+                ps.setString(8, t.amount().currency());
+                ps.setString(9, t.newBalance() != null ? t.newBalance().toPlainString() : null);
+            });
+    }
+
+    /**
+     * All of the account's stored transactions, oldest first. Rows without an amount are
+     * skipped; none are written, but the column allows them.
+     */
+    public List<StoredTransaction> history(String bankId, String accountId) {
+        return jdbcTemplate.query("""
+                SELECT transaction_id, posted, type, description, amount, currency, new_balance
+                FROM account_transaction
+                WHERE bank_id = ? AND account_id = ? AND amount IS NOT NULL
+                ORDER BY posted, transaction_id
+                """,
+            TRANSACTION_MAPPER, bankId, accountId);
+    }
+
+    /**
+     * Number of the account's stored transactions, counting the same rows as {@link #history}.
+     */
+    public long count(String bankId, String accountId) {
+        return jdbcTemplate.queryForObject("""
+                SELECT COUNT(*)
+                FROM account_transaction
+                WHERE bank_id = ? AND account_id = ? AND amount IS NOT NULL
+                """,
+            Long.class, bankId, accountId);
+    }
+
+    /**
+     * Delete the stored transactions and sync state of every account last synced before the
+     * cutoff. An account synced again later starts over with a full pull from OBP.
+     *
+     * @return the number of accounts deleted
+     */
+    public int purgeNotSyncedSince(Instant cutoff) {
+        OffsetDateTime timestamp = toTimestamp(cutoff);
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update("""
+                    DELETE FROM account_transaction
+                    WHERE (bank_id, account_id) IN (SELECT bank_id, account_id FROM account_sync WHERE synced_at < ?)
+                    """,
+                timestamp);
+            return jdbcTemplate.update("DELETE FROM account_sync WHERE synced_at < ?", timestamp);
+        });
+    }
+
+    private static OffsetDateTime toTimestamp(Instant instant) {
+        return instant != null ? instant.atOffset(ZoneOffset.UTC) : null;
+    }
+
+    private static Instant toInstant(OffsetDateTime timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    /**
+     * Per-account sync progress.
+     *
+     * @param watermarkPosted posted time of the newest stored transaction, or {@code null} if there are none
+     * @param watermarkTransactionId ID of that transaction
+     * @param syncedAt when the account was last synced with OBP
+     */
+    public record SyncState(Instant watermarkPosted, String watermarkTransactionId, Instant syncedAt) {
+    }
+}
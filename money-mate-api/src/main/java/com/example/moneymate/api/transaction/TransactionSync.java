@@ -0,0 +1,191 @@
+package com.example.moneymate.api.transaction;
+
+import com.example.moneymate.api.obp.client.ObpClient;
+import com.example.moneymate.api.obp.client.ObpClientException;
+import com.example.moneymate.api.obp.client.ObpStaleness;
+import com.example.moneymate.api.obp.client.ObpTransactionQuery;
+import com.example.moneymate.api.obp.client.ObpTransactionsResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the local {@link TransactionStore} in step with OBP, one account at a time.
+ * <p>
+ * Each account has a watermark: the posted time and ID of the newest transaction stored.
+ * A sync asks OBP only for transactions posted since the watermark less a look-back window,
+ * newest first, and stores the ones it has not seen; the overlap picks up transactions that
+ * OBP reports late with an earlier posted date. The first sync of an account pulls its whole
+ * history. Accounts synced within the configured interval are served from the store
+ * without contacting OBP. If OBP cannot be reached, an account that has been synced
+ * before is served from the store and the response is flagged stale. Accounts not synced
+ * within the retention period have their stored history deleted.
+ */
+@Service
+public class TransactionSync {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionSync.class);
+
+    private final ObpClient obpClient;
+    private final TransactionStore store;
+    private final TransactionProperties.SyncProperties properties;
+    private final TransactionProperties.RetentionProperties retention;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock = Clock.systemUTC();
+    // Weak values: an account's lock lives only while some thread is syncing or waiting on it
+    private final Cache<AccountKey, ReentrantLock> locks = Caffeine.newBuilder().weakValues().build();
+
+    public TransactionSync(ObpClient obpClient, TransactionStore store, TransactionProperties properties,
+                           ApplicationEventPublisher eventPublisher) {
+        this.obpClient = obpClient;
+        this.store = store;
+        this.properties = properties.sync();
+        this.retention = properties.retention();
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Bring the account's stored transactions up to date with OBP, unless it was synced
+     * recently. Concurrent calls for the same account wait for one sync rather than each
+     * going to OBP.
+     *
+     * @return the account's {@code synced_at}, the version of its stored history that
+     *         {@link TransactionColumnCache} reads are checked against
+     * @throws ObpClientException if OBP fails and the account has never been synced
+     */
+    public Instant sync(String obpToken, String bankId, String accountId) {
+        ReentrantLock lock = locks.get(new AccountKey(bankId, accountId), key -> new ReentrantLock());
+        lock.lock();
+        try {
+            Optional<TransactionStore.SyncState> state = store.syncState(bankId, accountId);
+            // Stored with microsecond precision, so that the value read back compares equal
+            Instant now = clock.instant().truncatedTo(ChronoUnit.MICROS);
+            if (state.isPresent() && state.get().syncedAt().plus(properties.interval()).isAfter(now)) {
+                return state.get().syncedAt();
+            }
+
+            try {
+                pullDelta(obpToken, bankId, accountId, state.orElse(null), now);
+                return now;
+            } catch (ObpClientException e) {
+                if (state.isEmpty()) {
+                    throw e;
+                }
+                log.warn("Serving stored transactions for {}/{} after OBP failure: {}",
+                    bankId, accountId, e.getMessage());
+                ObpStaleness.markStale();
+                return state.get().syncedAt();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void pullDelta(String obpToken, String bankId, String accountId,
+                           TransactionStore.SyncState state, Instant now) {
+        Instant watermarkPosted = state != null ? state.watermarkPosted() : null;
+        String watermarkId = state != null ? state.watermarkTransactionId() : null;
+        Instant since = watermarkPosted != null ? watermarkPosted.minus(properties.lookBack()) : null;
+        ObpTransactionQuery query = ObpTransactionQuery.firstPage(properties.batchSize())
+            .withDateRange(since, null);
+        int added = 0;
+
+        // Stored batch by batch as the pages arrive, so the first sync of a long history
+        // never holds all of it in memory. Transactions in the look-back window come back
+        // again and are skipped as already stored; any OBP has added there since are new.
+        Iterator<ObpTransactionsResponse.Transaction> delta =
+            obpClient.streamTransactions(obpToken, bankId, accountId, query).iterator();
+        List<StoredTransaction> batch = new ArrayList<>(properties.batchSize());
+        while (delta.hasNext()) {
+            StoredTransaction transaction = toStored(delta.next());
+            if (transaction == null) {
+                continue;
+            }
+            if (watermarkPosted == null || isAfter(transaction, watermarkPosted, watermarkId)) {
+                watermarkPosted = transaction.posted();
+                watermarkId = transaction.transactionId();
+            }
+            batch.add(transaction);
+            if (batch.size() == properties.batchSize() || !delta.hasNext()) {
+                added += store(bankId, accountId, batch);
+                batch = new ArrayList<>(properties.batchSize());
+            }
+        }
+
+        boolean continuous = store.saveSyncState(bankId, accountId, state,
+            new TransactionStore.SyncState(watermarkPosted, watermarkId, now));
+        eventPublisher.publishEvent(new AccountSyncedEvent(bankId, accountId,
+            state != null ? state.syncedAt() : null, now, continuous));
+        log.debug("Synced {}/{}: {} new transactions since {}", bankId, accountId, added, since);
+    }
+
+    /**
+     * Bound how long history is kept: delete the stored transactions of accounts that have
+     * not been synced, i.e. looked at, within the retention period.
+     */
+    @Scheduled(fixedDelayString = "${money-mate.transactions.retention.sweep-interval}")
+    void purgeInactive() {
+        int purged = store.purgeNotSyncedSince(clock.instant().minus(retention.inactiveAfter()));
+        if (purged > 0) {
+            log.info("Deleted stored transactions of {} accounts not synced within {}", purged,
+                retention.inactiveAfter());
+        }
+    }
+
+    private int store(String bankId, String accountId, List<StoredTransaction> batch) {
+        List<StoredTransaction> added = store.addNew(bankId, accountId, batch);
+        if (!added.isEmpty()) {
+            eventPublisher.publishEvent(new TransactionsStoredEvent(bankId, accountId, added));
+        }
+        return added.size();
+    }
+
+    private static boolean isAfter(StoredTransaction transaction, Instant posted, String transactionId) {
+        int byTime = transaction.posted().compareTo(posted);
+        return byTime > 0 || (byTime == 0 && transaction.transactionId().compareTo(transactionId) > 0);
+    }
+
+    private static StoredTransaction toStored(ObpTransactionsResponse.Transaction transaction) {
+        ObpTransactionsResponse.Details details = transaction.details();
+        Instant posted = parsePosted(details.posted());
+        if (posted == null || details.value() == null) {
+            log.warn("Skipping OBP transaction {} without a usable posted date or amount", transaction.id());
+            return null;
+        }
+        return new StoredTransaction(
+            transaction.id(),
+            posted,
+            details.type(),
+            details.description(),
+            details.value(),
+            details.newBalance()
+        );
+    }
+
+    private static Instant parsePosted(String posted) {
+        if (posted == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(posted);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private record AccountKey(String bankId, String accountId) {}
+}
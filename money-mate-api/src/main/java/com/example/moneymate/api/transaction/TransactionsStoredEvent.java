@@ -0,0 +1,14 @@
+package com.example.moneymate.api.transaction;
+
+import java.util.List;
+
+/**
+ * Published after a sync adds transactions to the local store, so that anything derived
+ * from an account's history can be updated from just the new transactions.
+ *
+ * @param bankId the account's bank
+ * @param accountId the account
+ * @param transactions the transactions that were not in the store before, in no particular order
+ */
+public record TransactionsStoredEvent(String bankId, String accountId, List<StoredTransaction> transactions) {
+}
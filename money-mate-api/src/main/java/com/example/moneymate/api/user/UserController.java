@@ -1,22 +1,26 @@
 package com.example.moneymate.api.user;
 
-import com.example.moneymate.api.obp.client.ObpClient;
-import com.example.moneymate.api.obp.client.ObpClientException;
+import com.example.moneymate.api.account.SessionAccountIndex;
+import com.example.moneymate.api.obp.client.ObpAccountsResponse;
+import com.example.moneymate.api.obp.client.ObpAsyncClient;
 import com.example.moneymate.api.obp.client.UserDetailsResponse;
 import com.example.moneymate.api.security.SessionPrincipal;
+import com.example.moneymate.api.web.ObpErrorResponses;
+import com.example.moneymate.api.web.ResourceETag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.hateoas.Link;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import java.util.concurrent.CompletableFuture;
+
 
 @RestController
 @RequestMapping("/users")
@@ -24,62 +28,71 @@ public class UserController {
 
     private static final Logger log = LoggerFactory.getLogger(UserController.class);
 
-    private final ObpClient obpClient;
+    private final ObpAsyncClient obpAsyncClient;
+    private final SessionAccountIndex accountIndex;
 
-    public UserController(ObpClient obpClient) {
-        this.obpClient = obpClient;
+    public UserController(ObpAsyncClient obpAsyncClient, SessionAccountIndex accountIndex) {
+        this.obpAsyncClient = obpAsyncClient;
+        this.accountIndex = accountIndex;
     }
 
     @GetMapping("/me")
-    public ResponseEntity<UserResponse> getCurrentUser() {
-        try {
-            // Get SessionPrincipal from SecurityContextHolder
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            SessionPrincipal principal = (SessionPrincipal) authentication.getPrincipal();
-
-            // Fetch real user data from OBP
-            UserDetailsResponse obpUser = obpClient.getCurrentUser(principal.obpToken());
-
-            // Fetch accounts to calculate counts
-            var accounts = obpClient.getAccounts(principal.obpToken());
-            int accountCount = accounts.accounts().size();
-
-            // Count unique banks
-            long bankCount = accounts.accounts().stream()
-                .map(account -> account.bankId())
-                .distinct()
-                .count();
-
-            // Map OBP response to our UserResponse
-            UserResponse response = new UserResponse(
-                obpUser.username(),
-                obpUser.email(),
-                accountCount,
-                (int) bankCount
-            );
-
-            Link selfLink = linkTo(methodOn(UserController.class).getCurrentUser()).withSelfRel();
-            Link rootLink = Link.of("/", "root");
-            Link accountsLink = Link.of("/accounts", "accounts").withTitle("All my accounts");
-            Link banksLink = Link.of("/banks", "banks").withTitle("Banks I bank with");
-
-            response.add(selfLink);
-            response.add(rootLink);
-            response.add(accountsLink);
-            response.add(banksLink);
-
-            return ResponseEntity.ok(response);
-
-        } catch (ObpClientException e) {
-            log.error("Failed to fetch user details from OBP: {}", e.getMessage(), e);
-            return ResponseEntity
-                .status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(null);
-        } catch (Exception e) {
-            log.error("Unexpected error fetching user details: {}", e.getMessage(), e);
-            return ResponseEntity
-                .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(null);
+    public CompletableFuture<ResponseEntity<UserResponse>> getCurrentUser(
+        @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Get SessionPrincipal from SecurityContextHolder (on the servlet thread)
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SessionPrincipal principal = (SessionPrincipal) authentication.getPrincipal();
+
+        // Fetch user data and accounts from OBP concurrently, without holding the servlet thread
+        CompletableFuture<UserDetailsResponse> obpUser = obpAsyncClient.getCurrentUser(principal.obpToken());
+        CompletableFuture<ObpAccountsResponse> accounts = obpAsyncClient.getAccounts(principal.obpToken());
+
+        return obpUser.thenCombine(accounts, (user, accountsResponse) -> buildUser(principal, user, accountsResponse, ifNoneMatch))
+            .exceptionally(error -> ObpErrorResponses.of(error, log, "fetching user details"));
+    }
+
+    private ResponseEntity<UserResponse> buildUser(SessionPrincipal principal, UserDetailsResponse obpUser,
+                                                   ObpAccountsResponse accounts, String ifNoneMatch) {
+        accountIndex.record(principal.obpToken(), accounts);
+        int accountCount = accounts.accounts().size();
+
+        // Count unique banks
+        long bankCount = accounts.accounts().stream()
+            .map(account -> account.bankId())
+            .distinct()
+            .count();
+
+        ResourceETag etag = new ResourceETag("user")
+            .add(obpUser.username())
+            .add(obpUser.email())
+            .add(accountCount)
+            .add(bankCount);
+        if (etag.matches(ifNoneMatch)) {
+            return etag.notModified();
         }
+
+        // Map OBP response to our UserResponse
+        UserResponse response = new UserResponse(
+            obpUser.username(),
+            obpUser.email(),
+            accountCount,
+            (int) bankCount
+        );
+
+        // Built on an OBP worker thread, after the request has left the servlet thread, so linkTo()
+        // cannot read the current request; methodOn() also cannot proxy a CompletableFuture
+        Link selfLink = Link.of("/users/me").withSelfRel();
+        Link rootLink = Link.of("/", "root");
+        Link accountsLink = Link.of("/accounts", "accounts").withTitle("All my accounts");
+        Link banksLink = Link.of("/banks", "banks").withTitle("Banks I bank with");
+        Link netWorthLink = Link.of("/users/me/net-worth", "net-worth").withTitle("Everything I have, in one currency");
+
+        response.add(selfLink);
+        response.add(rootLink);
+        response.add(accountsLink);
+        response.add(banksLink);
+        response.add(netWorthLink);
+
+        return etag.ok(response);
     }
 }
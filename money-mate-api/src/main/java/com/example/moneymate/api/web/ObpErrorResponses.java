@@ -0,0 +1,38 @@
+package com.example.moneymate.api.web;
+
+import com.example.moneymate.api.obp.client.ObpAsyncClient;
+import com.example.moneymate.api.obp.client.ObpClientException;
+import com.example.moneymate.api.obp.client.ObpUnavailableException;
+import org.slf4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * The response for a request whose OBP-backed work failed: 503, with {@code Retry-After}
+ * when OBP said when to come back, if OBP failed or was unavailable; 500 for anything else.
+ * Controllers use it in their {@code exceptionally} stage.
+ */
+public final class ObpErrorResponses {
+
+    private ObpErrorResponses() {
+    }
+
+    /**
+     * @param log the controller's logger, so the failure is logged under the controller
+     * @param activity what was being done, for the log message, e.g. {@code "fetching accounts"}
+     */
+    public static <T> ResponseEntity<T> of(Throwable error, Logger log, String activity) {
+        Throwable cause = ObpAsyncClient.unwrap(error);
+        if (cause instanceof ObpClientException e) {
+            log.error("OBP call failed while {}: {}", activity, e.getMessage(), e);
+            return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .headers(ObpUnavailableException.retryAfterHeaders(e))
+                .build();
+        }
+        log.error("Unexpected error {}: {}", activity, cause.getMessage(), cause);
+        return ResponseEntity
+            .status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .build();
+    }
+}
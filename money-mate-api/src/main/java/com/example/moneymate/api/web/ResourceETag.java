@@ -0,0 +1,115 @@
+package com.example.moneymate.api.web;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Strong validator for a resource, computed from the OBP data it is built from rather than
+ * from the serialized body.
+ * <p>
+ * Controllers feed in every value that shows up in the representation (IDs, amounts,
+ * balances, paging position) before building it. When the client's {@code If-None-Match}
+ * already matches, the response is a bodyless 304 and the HAL document is neither built
+ * nor serialized.
+ */
+public final class ResourceETag {
+
+    // Responses are per-user: clients may keep them, shared caches must not, and every reuse revalidates
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private static final int HASH_BYTES = 16;
+    private static final byte SEPARATOR = 0;
+
+    private final MessageDigest digest;
+    private String value;
+
+    public ResourceETag(String resource) {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        add(resource);
+    }
+
+    /**
+     * Include a value in the validator. {@code null} is hashed distinctly from the string "null".
+     */
+    public ResourceETag add(Object part) {
+        if (value != null) {
+            throw new IllegalStateException("ETag already computed");
+        }
+        if (part == null) {
+            digest.update((byte) 1);
+        } else {
+            digest.update(part.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update(SEPARATOR);
+        return this;
+    }
+
+    /**
+     * The quoted entity tag, e.g. {@code "3q2-7w..."}.
+     */
+    public String value() {
+        if (value == null) {
+            byte[] hash = Arrays.copyOf(digest.digest(), HASH_BYTES);
+            value = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        }
+        return value;
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names this validator. Uses weak comparison,
+     * as RFC 9110 requires for {@code If-None-Match}.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String etag = value();
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 304 carrying this validator, for when {@link #matches(String)} is true. Marked stale
+     * like the 200 would have been, see {@link StaleResponseAdvice}.
+     */
+    public <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(value())
+            .cacheControl(CACHE_CONTROL)
+            .headers(StaleResponseAdvice::markIfStale)
+            .build();
+    }
+
+    /**
+     * 200 with the body and this validator.
+     */
+    public <T> ResponseEntity<T> ok(T body) {
+        return ResponseEntity.ok()
+            .eTag(value())
+            .cacheControl(CACHE_CONTROL)
+            .headers(StaleResponseAdvice::markIfStale)
+            .body(body);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.moneymate.api.web;
+
+import com.example.moneymate.api.obp.client.ObpStaleness;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marks responses built from stale OBP data (served from cache while OBP was unavailable)
+ * with a {@value #STALE_HEADER}{@code : true} header, so clients can tell them apart from
+ * live data.
+ * <p>
+ * The advice only sees responses with a body. {@link ResourceETag} sets the header itself
+ * when building a response, so a bodyless 304 that revalidates a stale representation
+ * carries it too. {@code Warning: 110} is not used: RFC 9111 obsoleted the
+ * {@code Warning} header.
+ */
+@RestControllerAdvice
+public class StaleResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STALE_HEADER = "Money-Mate-Stale";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+            && ObpStaleness.isStale(servletRequest.getServletRequest())) {
+            markStale(response.getHeaders());
+        }
+        return body;
+    }
+
+    /**
+     * Add the stale marker if anything served so far for the current request was stale.
+     */
+    static void markIfStale(HttpHeaders headers) {
+        if (ObpStaleness.isStale()) {
+            markStale(headers);
+        }
+    }
+
+    private static void markStale(HttpHeaders headers) {
+        headers.set(STALE_HEADER, "true");
+    }
+}
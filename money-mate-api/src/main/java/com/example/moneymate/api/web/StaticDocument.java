@@ -0,0 +1,165 @@
+package com.example.moneymate.api.web;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body that never changes once built, held as ready-to-send bytes together
+ * with a gzip-compressed copy and a strong ETag for each.
+ * <p>
+ * Serving one costs a header check and a {@link ResponseEntity}: the body is neither
+ * encoded nor compressed per request, and a client that already has it gets a bodyless 304.
+ * Each encoding has its own ETag, as a strong validator must, and responses vary on
+ * {@code Accept-Encoding}.
+ */
+public final class StaticDocument {
+
+    private static final int HASH_BYTES = 16;
+    private static final MediaType MARKDOWN = new MediaType("text", "markdown", StandardCharsets.UTF_8);
+
+    private final byte[] identity;
+    private final byte[] gzip;
+    private final String identityETag;
+    private final String gzipETag;
+    private final MediaType contentType;
+    private final CacheControl cacheControl;
+    private final String[] vary;
+
+    private StaticDocument(byte[] body, MediaType contentType, CacheControl cacheControl, String[] vary) {
+        this.identity = body;
+        byte[] compressed = gzip(body);
+        // Tiny bodies can grow when compressed; those are only ever sent as they are
+        this.gzip = compressed.length < body.length ? compressed : null;
+        String hash = hash(body);
+        this.identityETag = "\"" + hash + "\"";
+        this.gzipETag = "\"" + hash + "-gzip\"";
+        this.contentType = contentType;
+        this.cacheControl = cacheControl;
+        this.vary = new String[vary.length + 1];
+        this.vary[0] = HttpHeaders.ACCEPT_ENCODING;
+        System.arraycopy(vary, 0, this.vary, 1, vary.length);
+    }
+
+    /**
+     * @param vary request headers besides {@code Accept-Encoding} the body was chosen by
+     */
+    public static StaticDocument of(byte[] body, MediaType contentType, CacheControl cacheControl, String... vary) {
+        return new StaticDocument(body.clone(), contentType, cacheControl, vary);
+    }
+
+    /**
+     * A UTF-8 {@code text/markdown} document.
+     */
+    public static StaticDocument markdown(String text, CacheControl cacheControl) {
+        return new StaticDocument(text.getBytes(StandardCharsets.UTF_8), MARKDOWN, cacheControl, new String[0]);
+    }
+
+    /**
+     * 304 if {@code ifNoneMatch} names the document, otherwise 200 with the body, gzipped
+     * when the client accepts it.
+     */
+    public ResponseEntity<byte[]> respond(String acceptEncoding, String ifNoneMatch) {
+        boolean gzipped = gzip != null && acceptsGzip(acceptEncoding);
+        String etag = gzipped ? gzipETag : identityETag;
+        if (matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(vary)
+                .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(contentType)
+            .eTag(etag)
+            .cacheControl(cacheControl)
+            .varyBy(vary);
+        if (gzipped) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzipped ? gzip : identity);
+    }
+
+    // Weak comparison, as RFC 9110 requires for If-None-Match; either encoding's tag will do
+    private boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(identityETag) || tag.equals(gzipETag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // gzip listed without q=0, or failing that *
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            int params = coding.indexOf(';');
+            String name = (params < 0 ? coding : coding.substring(0, params)).trim();
+            boolean accepted = params < 0 || !isZeroQuality(coding.substring(params + 1));
+            if (name.equalsIgnoreCase("gzip")) {
+                return accepted;
+            }
+            if (name.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return wildcard;
+    }
+
+    private static boolean isZeroQuality(String params) {
+        for (String param : params.split(";")) {
+            String[] pair = param.split("=", 2);
+            if (pair.length == 2 && pair[0].trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(pair[1].trim()) == 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 2 + 32);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String hash(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, HASH_BYTES));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+-- Local mirror of OBP transactions, see TransactionStore
+-- Portable between the embedded H2 database and PostgreSQL
+
+CREATE TABLE IF NOT EXISTS account_transaction (
+    bank_id        VARCHAR(128)  NOT NULL,
+    account_id     VARCHAR(128)  NOT NULL,
+    transaction_id VARCHAR(128)  NOT NULL,
+    posted         TIMESTAMP WITH TIME ZONE NOT NULL,
+    type           VARCHAR(64),
+    description    VARCHAR(2000),
+    amount         VARCHAR(64),
+    currency       VARCHAR(8),
+    new_balance    VARCHAR(64),
+    PRIMARY KEY (bank_id, account_id, transaction_id)
+);
+
+CREATE INDEX IF NOT EXISTS account_transaction_posted
+    ON account_transaction (bank_id, account_id, posted DESC, transaction_id DESC);
+
+CREATE TABLE IF NOT EXISTS account_sync (
+    bank_id                  VARCHAR(128) NOT NULL,
+    account_id               VARCHAR(128) NOT NULL,
+    watermark_posted         TIMESTAMP WITH TIME ZONE,
+    watermark_transaction_id VARCHAR(128),
+    synced_at                TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (bank_id, account_id)
+);
+
+-- Shared sessions, see JdbcSessionTokenStore (money-mate.session.store=jdbc)
+
+CREATE TABLE IF NOT EXISTS session_token (
+    token_hash   VARCHAR(64)   NOT NULL,
+    subject      VARCHAR(256)  NOT NULL,
+    obp_token    VARCHAR(4096) NOT NULL,
+    created_at   TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_used_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (token_hash)
+);
+
+CREATE INDEX IF NOT EXISTS session_token_created_at ON session_token (created_at);
+
+CREATE INDEX IF NOT EXISTS session_token_last_used_at ON session_token (last_used_at);
+
+CREATE TABLE IF NOT EXISTS session_revocation (
+    version    BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    token_hash VARCHAR(64) NOT NULL,
+    revoked_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (version)
+);
+
+CREATE INDEX IF NOT EXISTS session_revocation_revoked_at ON session_revocation (revoked_at);
+
+-- Revoked self-contained tokens, see EncryptedSessionTokenStore (money-mate.session.store=encrypted)
+
+CREATE TABLE IF NOT EXISTS session_denylist (
+    version    BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    token_id   VARCHAR(36) NOT NULL,
+    revoked_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (version)
+);
+
+CREATE INDEX IF NOT EXISTS session_denylist_revoked_at ON session_denylist (revoked_at);
+
+CREATE INDEX IF NOT EXISTS session_denylist_expires_at ON session_denylist (expires_at);
@@ -0,0 +1,71 @@
+package com.example.moneymate.api.analytics;
+
+import com.example.moneymate.api.money.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the per-category, per-month spending totals.
+ */
+@DisplayName("SpendingAggregates Tests")
+class SpendingAggregatesTest {
+
+    private static final Instant MARCH = Instant.parse("2026-03-05T10:00:00Z");
+    private static final Instant APRIL = Instant.parse("2026-04-05T10:00:00Z");
+
+    @Test
+    @DisplayName("keeps separate totals for each currency")
+    void months_shouldNotMixCurrencies() {
+        SpendingAggregates spending = SpendingAggregates.EMPTY
+            .plus(List.of(transaction(MARCH, "Starbucks", -350, "EUR"), transaction(MARCH, "Starbucks", -500, "GBP")))
+            .plus(List.of(transaction(APRIL, "Starbucks", -400, "EUR")));
+
+        assertThat(spending.currencies()).containsExactly("EUR", "GBP");
+        List<SpendingAggregates.MonthlySpending> months = spending.months(null, null);
+        assertThat(months).extracting(SpendingAggregates.MonthlySpending::month)
+            .containsExactly(YearMonth.of(2026, 4), YearMonth.of(2026, 3), YearMonth.of(2026, 3));
+        assertThat(months).extracting(SpendingAggregates.MonthlySpending::spent)
+            .containsExactly(Money.ofMinor(400, "EUR"), Money.ofMinor(350, "EUR"), Money.ofMinor(500, "GBP"));
+    }
+
+    @Test
+    @DisplayName("leaves the instance it was added to unchanged")
+    void plus_shouldNotChangeOriginal() {
+        SpendingAggregates march = SpendingAggregates.EMPTY.plus(List.of(transaction(MARCH, "Starbucks", -350, "EUR")));
+
+        march.plus(List.of(transaction(MARCH, "Starbucks", -100, "EUR")));
+
+        assertThat(march.months(null, null).getFirst().spent()).isEqualTo(Money.ofMinor(350, "EUR"));
+    }
+
+    private static SpendingTransaction transaction(Instant posted, String description, long minorUnits,
+                                                   String currency) {
+        return new SpendingTransaction() {
+            @Override
+            public Instant posted() {
+                return posted;
+            }
+
+            @Override
+            public String type() {
+                return "CARD";
+            }
+
+            @Override
+            public String description() {
+                return description;
+            }
+
+            @Override
+            public Money amount() {
+                return Money.ofMinor(minorUnits, currency);
+            }
+        };
+    }
+}
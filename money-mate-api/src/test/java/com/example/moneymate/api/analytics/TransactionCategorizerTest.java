@@ -0,0 +1,42 @@
+package com.example.moneymate.api.analytics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for keyword categorization of OBP transactions.
+ */
+@DisplayName("TransactionCategorizer Tests")
+class TransactionCategorizerTest {
+
+    @Test
+    @DisplayName("categorizes by description before falling back to type")
+    void categorize_shouldPreferDescriptionOverType() {
+        assertThat(TransactionCategorizer.categorize("SEPA", "Starbucks Coffee #123", false))
+            .isEqualTo(SpendingCategory.COFFEE);
+        assertThat(TransactionCategorizer.categorize("SEPA", "Payment ref 8812", false))
+            .isEqualTo(SpendingCategory.TRANSFERS);
+        assertThat(TransactionCategorizer.categorize(null, null, false))
+            .isEqualTo(SpendingCategory.OTHER);
+    }
+
+    @Test
+    @DisplayName("matches keywords only at the start of a word")
+    void categorize_shouldMatchWholeWordPrefixes() {
+        assertThat(TransactionCategorizer.categorize(null, "Flat rental June", false))
+            .isEqualTo(SpendingCategory.HOUSING);
+        assertThat(TransactionCategorizer.categorize(null, "Current account adjustment", false))
+            .isEqualTo(SpendingCategory.OTHER);
+    }
+
+    @Test
+    @DisplayName("only counts credits as income")
+    void categorize_shouldOnlyTreatCreditsAsIncome() {
+        assertThat(TransactionCategorizer.categorize(null, "Salary October", true))
+            .isEqualTo(SpendingCategory.INCOME);
+        assertThat(TransactionCategorizer.categorize(null, "Salary advance repayment", false))
+            .isEqualTo(SpendingCategory.OTHER);
+    }
+}
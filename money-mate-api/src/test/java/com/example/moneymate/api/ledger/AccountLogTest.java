@@ -0,0 +1,129 @@
+package com.example.moneymate.api.ledger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the memory-mapped account log: segment roll, crash recovery and
+ * rollback of a failed append.
+ */
+@DisplayName("AccountLog Tests")
+class AccountLogTest {
+
+    private static final int GBP = LogEntry.packCurrency("GBP");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("starts a new segment when one fills up and reads across segments")
+    void append_shouldRollSegments() throws IOException {
+        try (AccountLog log = AccountLog.open(directory, 2)) {
+            log.append(List.of(entry(1, -100, "one"), entry(2, -200, null), entry(3, 300, "three")));
+            log.append(List.of(entry(4, -400, "four"), entry(5, 500, "five")));
+
+            assertThat(log.size()).isEqualTo(5);
+            assertThat(segmentFiles()).containsExactly(
+                "00000000000000000000.log", "00000000000000000002.log", "00000000000000000004.log");
+            assertThat(scan(log, 2, 4)).containsExactly(1L, 2L, 3L);
+            assertThat(log.description(1)).isNull();
+            assertThat(log.description(4)).isEqualTo("five");
+            assertThat(log.totals(0, 10)).isEqualTo(new AccountLog.Totals(5, 800, -700, GBP));
+        }
+
+        try (AccountLog reopened = AccountLog.open(directory, 2)) {
+            assertThat(reopened.size()).isEqualTo(5);
+            assertThat(reopened.description(2)).isEqualTo("three");
+
+            reopened.append(List.of(entry(6, 600, "six")));
+            assertThat(reopened.size()).isEqualTo(6);
+            assertThat(reopened.description(5)).isEqualTo("six");
+        }
+    }
+
+    @Test
+    @DisplayName("drops a torn record and everything after it on reopening")
+    void open_shouldRecoverTornTail() throws IOException {
+        try (AccountLog log = AccountLog.open(directory, 16)) {
+            log.append(List.of(entry(1, -100, "one"), entry(2, -200, "two"), entry(3, -300, "three")));
+        }
+        // Corrupt the second record as a crash mid-write would
+        Path segment = directory.resolve("00000000000000000000.log");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putLong(0, 42), LogSegment.HEADER_BYTES + LogSegment.RECORD_BYTES);
+        }
+
+        try (AccountLog recovered = AccountLog.open(directory, 16)) {
+            assertThat(recovered.size()).isEqualTo(1);
+            assertThat(recovered.description(0)).isEqualTo("one");
+
+            recovered.append(List.of(entry(4, -400, "four")));
+            assertThat(recovered.size()).isEqualTo(2);
+            assertThat(recovered.description(1)).isEqualTo("four");
+        }
+        try (AccountLog reopened = AccountLog.open(directory, 16)) {
+            assertThat(reopened.size()).isEqualTo(2);
+            assertThat(scan(reopened, 0, 10)).containsExactly(0L, 1L);
+        }
+    }
+
+    @Test
+    @DisplayName("a rolled-back append leaves no trace, even after reopening")
+    void rollback_shouldDiscardUncommittedRecords() throws IOException {
+        try (LogSegment segment = LogSegment.create(directory, 0, 16)) {
+            segment.append(1, -100, LogSegment.NO_BALANCE, GBP, "kept");
+            segment.commit();
+            segment.append(2, -200, LogSegment.NO_BALANCE, GBP, "discarded");
+            segment.rollback();
+            segment.append(3, -300, LogSegment.NO_BALANCE, GBP, "replacement");
+            segment.commit();
+
+            assertThat(segment.count()).isEqualTo(2);
+            assertThat(segment.posted(1)).isEqualTo(3);
+            assertThat(segment.description(1)).isEqualTo("replacement");
+        }
+
+        try (LogSegment segment = LogSegment.create(directory, 16, 16)) {
+            segment.append(1, -100, LogSegment.NO_BALANCE, GBP, "committed");
+            segment.commit();
+            segment.append(2, -200, LogSegment.NO_BALANCE, GBP, "uncommitted");
+            segment.rollback();
+        }
+        try (LogSegment reopened = LogSegment.open(directory, 16)) {
+            assertThat(reopened.count()).isEqualTo(1);
+            assertThat(reopened.description(0)).isEqualTo("committed");
+        }
+    }
+
+    private static LogEntry entry(long posted, long amount, String description) {
+        return new LogEntry(posted, amount, LogSegment.NO_BALANCE, GBP, description);
+    }
+
+    private static List<Long> scan(AccountLog log, long from, long to) {
+        List<Long> ordinals = new ArrayList<>();
+        log.scan(from, to, (ordinal, posted, amount, balance, currency) -> ordinals.add(ordinal));
+        return ordinals;
+    }
+
+    private List<String> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                .filter(name -> name.endsWith(".log"))
+                .sorted()
+                .toList();
+        }
+    }
+}
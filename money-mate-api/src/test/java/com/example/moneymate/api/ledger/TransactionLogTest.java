@@ -0,0 +1,152 @@
+package com.example.moneymate.api.ledger;
+
+import com.example.moneymate.api.money.Money;
+import com.example.moneymate.api.transaction.AccountSyncedEvent;
+import com.example.moneymate.api.transaction.StoredTransaction;
+import com.example.moneymate.api.transaction.TransactionStore;
+import com.example.moneymate.api.transaction.TransactionsStoredEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the per-account logs: which version a read may use, rebuilds into a new
+ * generation, closing idle logs and deleting the logs of purged accounts.
+ */
+@DisplayName("TransactionLog Tests")
+class TransactionLogTest {
+
+    private static final Instant SYNC_1 = Instant.parse("2026-03-01T12:00:00Z");
+    private static final Instant SYNC_2 = Instant.parse("2026-03-02T12:00:00Z");
+    private static final int EUR = LogEntry.packCurrency("EUR");
+
+    @TempDir
+    private Path directory;
+
+    private TransactionStore store;
+    private TransactionLog transactionLog;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        store = new TransactionStore(new JdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource));
+        transactionLog = new TransactionLog(
+            new TransactionLogProperties(true, directory, 16, Duration.ZERO), store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionLog.close();
+    }
+
+    @Test
+    @DisplayName("reads the log only once it is known to reflect the caller's sync")
+    void totals_shouldUseLogOnlyWhenCurrent() {
+        sync(null, SYNC_1, true, transaction("t1", 1_000), transaction("t2", -250));
+        // Stored by another node; this node's log does not have it
+        store.addNew("bank", "account", List.of(transaction("t3", -50)));
+
+        assertThat(transactionLog.totals("bank", "account", SYNC_1, Long.MIN_VALUE, Long.MAX_VALUE))
+            .isEqualTo(new AccountLog.Totals(2, 1_000, -250, EUR));
+        assertThat(transactionLog.totals("bank", "account", SYNC_2, Long.MIN_VALUE, Long.MAX_VALUE))
+            .isEqualTo(new AccountLog.Totals(3, 1_000, -300, EUR));
+    }
+
+    @Test
+    @DisplayName("rebuilds into a new generation and deletes the one it replaces")
+    void onAccountSynced_shouldSwapInRebuiltGeneration() throws IOException {
+        sync(null, SYNC_1, true, transaction("t1", 1_000));
+        store.addNew("bank", "account", List.of(transaction("t2", -50)));
+
+        sync(SYNC_1, SYNC_2, false);
+
+        assertThat(transactionLog.totals("bank", "account", SYNC_2, Long.MIN_VALUE, Long.MAX_VALUE))
+            .isEqualTo(new AccountLog.Totals(2, 1_000, -50, EUR));
+        assertThat(generations()).containsExactly("0000000001");
+    }
+
+    @Test
+    @DisplayName("closes idle logs and reopens them with the same content")
+    void closeIdle_shouldReopenOnNextUse() {
+        sync(null, SYNC_1, true, transaction("t1", 1_000));
+
+        transactionLog.closeIdle();
+
+        assertThat(transactionLog.totals("bank", "account", SYNC_1, Long.MIN_VALUE, Long.MAX_VALUE))
+            .isEqualTo(new AccountLog.Totals(1, 1_000, 0, EUR));
+    }
+
+    @Test
+    @DisplayName("rebuilds a log that outlived the account's purge instead of appending the history again")
+    void onAccountSynced_shouldRebuildLogLeftFromBeforePurge() {
+        sync(null, SYNC_1, true, transaction("t1", 1_000), transaction("t2", -250));
+        store.purgeNotSyncedSince(SYNC_2);
+
+        // The store starts over with a full pull; the log's files are still there
+        sync(null, SYNC_2, true, transaction("t1", 1_000), transaction("t2", -250));
+
+        assertThat(transactionLog.totals("bank", "account", SYNC_2, Long.MIN_VALUE, Long.MAX_VALUE))
+            .isEqualTo(new AccountLog.Totals(2, 1_000, -250, EUR));
+    }
+
+    @Test
+    @DisplayName("deletes the closed logs of accounts the store no longer knows")
+    void deleteOrphaned_shouldDeletePurgedAccounts() throws IOException {
+        sync(null, SYNC_1, true, transaction("t1", 1_000));
+        transactionLog.closeIdle();
+
+        transactionLog.deleteOrphaned();
+        assertThat(generations()).containsExactly("0000000000");
+
+        store.purgeNotSyncedSince(SYNC_2);
+        transactionLog.deleteOrphaned();
+        try (Stream<Path> accounts = Files.list(directory)) {
+            assertThat(accounts).isEmpty();
+        }
+    }
+
+    private void sync(Instant previous, Instant syncedAt, boolean continuous, StoredTransaction... transactions) {
+        List<StoredTransaction> added = store.addNew("bank", "account", List.of(transactions));
+        if (!added.isEmpty()) {
+            transactionLog.onTransactionsStored(new TransactionsStoredEvent("bank", "account", added));
+        }
+        store.saveSyncState("bank", "account",
+            previous != null ? new TransactionStore.SyncState(null, null, previous) : null,
+            new TransactionStore.SyncState(null, null, syncedAt));
+        transactionLog.onAccountSynced(new AccountSyncedEvent("bank", "account", previous, syncedAt, continuous));
+    }
+
+    private List<String> generations() throws IOException {
+        try (Stream<Path> accounts = Files.list(directory)) {
+            Path account = accounts.findFirst().orElseThrow();
+            try (Stream<Path> files = Files.list(account)) {
+                return files.map(path -> path.getFileName().toString()).sorted().toList();
+            }
+        }
+    }
+
+    private static StoredTransaction transaction(String id, long minorUnits) {
+        return new StoredTransaction(id, Instant.parse("2026-03-01T10:00:00Z"), "DEBIT", id,
+            Money.ofMinor(minorUnits, "EUR"), null);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.moneymate.api.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for Money parsing, formatting, arithmetic and JSON mapping.
+ */
+@DisplayName("Money Tests")
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("parses decimal strings into minor units of the currency")
+    void of_shouldParseIntoMinorUnits() {
+        assertThat(Money.of("12.34", "EUR").minorUnits()).isEqualTo(1234);
+        assertThat(Money.of("-0.5", "EUR").minorUnits()).isEqualTo(-50);
+        assertThat(Money.of("7", "GBP").minorUnits()).isEqualTo(700);
+        assertThat(Money.of("1500", "JPY").minorUnits()).isEqualTo(1500);
+        assertThat(Money.of("10.250", "USD").minorUnits()).isEqualTo(1025);
+    }
+
+    @Test
+    @DisplayName("rounds excess decimals half-even")
+    void of_shouldRoundExcessDecimals() {
+        assertThat(Money.of("0.125", "EUR").minorUnits()).isEqualTo(12);
+        assertThat(Money.of("0.135", "EUR").minorUnits()).isEqualTo(14);
+        assertThat(Money.of("1E+2", "EUR").minorUnits()).isEqualTo(10000);
+    }
+
+    @Test
+    @DisplayName("rejects text that is not an amount")
+    void of_shouldRejectNonNumbers() {
+        assertThatThrownBy(() -> Money.of("abc", "EUR")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Money.of("-", "EUR")).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    @DisplayName("formats with exactly the currency's decimals")
+    void toPlainString_shouldUseCurrencyDecimals() {
+        assertThat(Money.ofMinor(1234, "EUR").toPlainString()).isEqualTo("12.34");
+        assertThat(Money.ofMinor(-5, "EUR").toPlainString()).isEqualTo("-0.05");
+        assertThat(Money.ofMinor(1500, "JPY").toPlainString()).isEqualTo("1500");
+    }
+
+    @Test
+    @DisplayName("adds and compares within a currency and refuses to mix currencies")
+    void arithmetic_shouldStayWithinOneCurrency() {
+        Money total = Money.of("10.00", "EUR").plus(Money.of("-2.50", "EUR"));
+
+        assertThat(total).isEqualTo(Money.of("7.5", "EUR"));
+        assertThat(total.compareTo(Money.zero("EUR"))).isPositive();
+        assertThatThrownBy(() -> total.plus(Money.of("1", "USD"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("reads and writes OBP's currency/amount object")
+    void json_shouldRoundTripObpShape() throws Exception {
+        Money money = objectMapper.readValue("{\"currency\":\"EUR\",\"amount\":\"-12.3\"}", Money.class);
+
+        assertThat(money).isEqualTo(Money.ofMinor(-1230, "EUR"));
+        assertThat(money.currency()).isSameAs(Money.zero("EUR").currency());
+        assertThat(objectMapper.writeValueAsString(money)).isEqualTo("{\"currency\":\"EUR\",\"amount\":\"-12.30\"}");
+    }
+
+    @Test
+    @DisplayName("reads an unparseable amount as null rather than failing")
+    void json_shouldReadBadAmountAsNull() throws Exception {
+        assertThat(objectMapper.readValue("{\"currency\":\"EUR\",\"amount\":\"n/a\"}", Money.class)).isNull();
+        assertThat(objectMapper.readValue("{\"currency\":\"EUR\",\"amount\":\"1e400\"}", Money.class)).isNull();
+    }
+
+    @Test
+    @DisplayName("skips an object or array where a scalar is expected and keeps reading")
+    void json_shouldSkipNonScalarValues() throws Exception {
+        Holder holder = objectMapper.readValue("""
+            {"first": {"currency": "EUR", "amount": {"value": "1.00", "scale": [2]}},
+             "second": {"currency": ["GBP"], "amount": "2.50"}}
+            """, Holder.class);
+
+        assertThat(holder.first()).isNull();
+        assertThat(holder.second()).isEqualTo(Money.of("2.50", null));
+    }
+
+    @Test
+    @DisplayName("treats codes outside ISO 4217 as two-decimal currencies that still compare by code")
+    void of_shouldAcceptUnknownCurrencies() {
+        Money points = Money.of("1.5", "XPT-POINTS");
+
+        assertThat(points.minorUnits()).isEqualTo(150);
+        assertThat(points).isEqualTo(Money.ofMinor(150, "XPT-POINTS"));
+        assertThat(points.plus(Money.of("1", "XPT-POINTS")).minorUnits()).isEqualTo(250);
+        assertThatThrownBy(() -> points.plus(Money.of("1", "EUR"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private record Holder(Money first, Money second) {
+    }
+}
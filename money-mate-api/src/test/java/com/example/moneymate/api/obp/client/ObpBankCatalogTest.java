@@ -0,0 +1,88 @@
+package com.example.moneymate.api.obp.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the bank catalog: what a refresh keeps, and how an empty catalog is retried
+ * ahead of the regular refresh. Time is passed in as nanoseconds.
+ */
+@DisplayName("ObpBankCatalog Tests")
+class ObpBankCatalogTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+    private static final ObpBanksResponse.Bank BANK =
+        new ObpBanksResponse.Bank("bank-1", "Bank One", "Bank One plc", null, null);
+
+    private final ObpClient obpClient = mock(ObpClient.class);
+    private final ObpBankCatalog catalog = new ObpBankCatalog(obpClient, new ObpProperties(null, null, null,
+        new ObpProperties.BankCatalogProperties(Duration.ofSeconds(3), Duration.ofSeconds(1)), null));
+
+    @Test
+    @DisplayName("treats a missing response or bank list as an empty catalog")
+    void refresh_shouldTolerateMissingBanks() {
+        catalog.refresh(0);
+        when(obpClient.getBanks()).thenReturn(new ObpBanksResponse(null));
+        catalog.refresh(0);
+
+        assertThat(catalog.banks()).isEmpty();
+        assertThat(catalog.bankName("bank-1")).isEqualTo("bank-1");
+    }
+
+    @Test
+    @DisplayName("keeps the last good catalog when a refresh fails")
+    void refresh_shouldKeepCatalogOnFailure() {
+        when(obpClient.getBanks())
+            .thenReturn(new ObpBanksResponse(List.of(BANK)))
+            .thenThrow(new ObpClientException("Unavailable"));
+
+        catalog.refresh(0);
+        catalog.refresh(0);
+
+        assertThat(catalog.banks()).containsExactly(BANK);
+        assertThat(catalog.bankName("bank-1")).isEqualTo("Bank One");
+    }
+
+    @Test
+    @DisplayName("retries an empty catalog with a doubling backoff until it loads")
+    void retryWhileEmpty_shouldBackOffUntilLoaded() {
+        when(obpClient.getBanks())
+            .thenReturn(new ObpBanksResponse(List.of()))
+            .thenThrow(new ObpClientException("Unavailable"))
+            .thenReturn(new ObpBanksResponse(List.of(BANK)));
+
+        catalog.refresh(0);
+        catalog.retryWhileEmpty(SECOND / 2);
+        catalog.retryWhileEmpty(SECOND);
+        catalog.retryWhileEmpty(2 * SECOND);
+        catalog.retryWhileEmpty(3 * SECOND);
+        catalog.retryWhileEmpty(60 * SECOND);
+
+        verify(obpClient, times(3)).getBanks();
+        assertThat(catalog.bankName("bank-1")).isEqualTo("Bank One");
+    }
+
+    @Test
+    @DisplayName("backs off no further than the regular refresh interval")
+    void retryWhileEmpty_shouldCapBackoffAtRefreshInterval() {
+        when(obpClient.getBanks()).thenThrow(new ObpClientException("Unavailable"));
+
+        catalog.refresh(0);
+        catalog.retryWhileEmpty(SECOND);
+        catalog.retryWhileEmpty(3 * SECOND);
+        catalog.retryWhileEmpty(6 * SECOND - 1);
+        verify(obpClient, times(3)).getBanks();
+
+        catalog.retryWhileEmpty(6 * SECOND);
+        verify(obpClient, times(4)).getBanks();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.moneymate.api.obp.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the count-based circuit breaker: the failure-rate window and the
+ * open, half-open and closed transitions.
+ */
+@DisplayName("ObpCircuitBreaker Tests")
+class ObpCircuitBreakerTest {
+
+    @Test
+    @DisplayName("opens once the minimum calls are in and the failure rate reaches the threshold")
+    void onFailure_shouldOpenAtThreshold() {
+        ObpCircuitBreaker breaker = new ObpCircuitBreaker(10, 4, 50, Duration.ofHours(1));
+
+        breaker.onFailure(breaker.tryAcquire());
+        breaker.onFailure(breaker.tryAcquire());
+        breaker.onSuccess(breaker.tryAcquire());
+        assertThat(breaker.state()).isEqualTo(ObpCircuitBreaker.State.CLOSED);
+
+        breaker.onSuccess(breaker.tryAcquire());
+        assertThat(breaker.state()).isEqualTo(ObpCircuitBreaker.State.OPEN);
+        ObpCircuitBreaker.Permit rejected = breaker.tryAcquire();
+        assertThat(rejected.granted()).isFalse();
+        assertThat(rejected.retryAfter()).isPositive().isLessThanOrEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("judges only the last window of calls")
+    void onFailure_shouldForgetCallsOutsideWindow() {
+        ObpCircuitBreaker breaker = new ObpCircuitBreaker(4, 4, 50, Duration.ofHours(1));
+
+        breaker.onFailure(breaker.tryAcquire());
+        for (int i = 0; i < 6; i++) {
+            breaker.onSuccess(breaker.tryAcquire());
+        }
+        breaker.onFailure(breaker.tryAcquire());
+        // One failure in the window; two of eight overall
+        assertThat(breaker.state()).isEqualTo(ObpCircuitBreaker.State.CLOSED);
+
+        breaker.onFailure(breaker.tryAcquire());
+        // Two of the last four, though only three of nine overall
+        assertThat(breaker.state()).isEqualTo(ObpCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    @DisplayName("lets one probe through once open, and closes when it succeeds")
+    void tryAcquire_shouldProbeWhenOpenDurationHasPassed() {
+        ObpCircuitBreaker breaker = opened();
+
+        ObpCircuitBreaker.Permit probe = breaker.tryAcquire();
+        assertThat(probe.granted()).isTrue();
+        assertThat(breaker.state()).isEqualTo(ObpCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire().granted()).isFalse();
+
+        breaker.onSuccess(probe);
+        assertThat(breaker.state()).isEqualTo(ObpCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire().granted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("re-opens when the probe fails")
+    void onFailure_shouldReopenAfterFailedProbe() {
+        ObpCircuitBreaker breaker = opened();
+
+        breaker.onFailure(breaker.tryAcquire());
+
+        assertThat(breaker.state()).isEqualTo(ObpCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    @DisplayName("lets the next call probe when the probe is abandoned")
+    void abandon_shouldFreeProbe() {
+        ObpCircuitBreaker breaker = opened();
+
+        breaker.abandon(breaker.tryAcquire());
+
+        assertThat(breaker.state()).isEqualTo(ObpCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire().granted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("ignores calls let through before it opened that finish while the probe is out")
+    void onSuccess_shouldIgnoreLateResultsWhileHalfOpen() {
+        ObpCircuitBreaker breaker = new ObpCircuitBreaker(4, 1, 100, Duration.ZERO);
+        ObpCircuitBreaker.Permit late = breaker.tryAcquire();
+        breaker.onFailure(breaker.tryAcquire());
+        ObpCircuitBreaker.Permit probe = breaker.tryAcquire();
+        assertThat(breaker.state()).isEqualTo(ObpCircuitBreaker.State.HALF_OPEN);
+
+        breaker.onSuccess(late);
+        breaker.abandon(late);
+        assertThat(breaker.state()).isEqualTo(ObpCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire().granted()).isFalse();
+
+        breaker.onFailure(late);
+        assertThat(breaker.state()).isEqualTo(ObpCircuitBreaker.State.HALF_OPEN);
+
+        breaker.onSuccess(probe);
+        assertThat(breaker.state()).isEqualTo(ObpCircuitBreaker.State.CLOSED);
+    }
+
+    // Opened by a single failure, with an open duration that has already passed
+    private static ObpCircuitBreaker opened() {
+        ObpCircuitBreaker breaker = new ObpCircuitBreaker(4, 1, 100, Duration.ZERO);
+        breaker.onFailure(breaker.tryAcquire());
+        assertThat(breaker.state()).isEqualTo(ObpCircuitBreaker.State.OPEN);
+        return breaker;
+    }
+}
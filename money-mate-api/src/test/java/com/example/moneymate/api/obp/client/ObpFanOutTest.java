@@ -0,0 +1,77 @@
+package com.example.moneymate.api.obp.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for fan-out calls: results in input order, fallbacks for failed calls, and the
+ * deadline both when calls run concurrently and when they run one after another.
+ */
+@DisplayName("ObpFanOut Tests")
+class ObpFanOutTest {
+
+    private static final Duration DEADLINE = Duration.ofMillis(100);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("returns results in input order, falling back for failed and late calls")
+    void map_shouldFallBackForFailedAndLateCalls() {
+        List<String> results = fanOut(true).map(List.of("fast", "failing", "slow", "last"),
+            Function.identity(), this::call, item -> "fallback " + item);
+
+        assertThat(results).containsExactly("fast", "fallback failing", "fallback slow", "last");
+    }
+
+    @Test
+    @DisplayName("stops starting calls once the deadline has passed when running them one after another")
+    void map_shouldHonourDeadlineSequentially() {
+        List<String> results = fanOut(false).map(List.of("fast", "failing", "slow", "last"),
+            Function.identity(), this::call, item -> "fallback " + item);
+
+        assertThat(results).containsExactly("fast", "fallback failing", "slow", "fallback last");
+        assertThat(calls).hasValue(3);
+    }
+
+    private ObpFanOut fanOut(boolean enabled) {
+        return new ObpFanOut(executor, new ObpProperties(
+            new ObpProperties.ApiProperties(null, null, null, null,
+                new ObpProperties.FanOutProperties(enabled, 4, DEADLINE), null, null),
+            null, null, null, null));
+    }
+
+    private String call(String item) {
+        calls.incrementAndGet();
+        if (item.equals("failing")) {
+            throw new ObpClientException("Unavailable");
+        }
+        if (item.equals("slow")) {
+            sleep(DEADLINE.multipliedBy(2));
+        }
+        return item;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
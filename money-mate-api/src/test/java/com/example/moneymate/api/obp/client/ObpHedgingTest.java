@@ -0,0 +1,226 @@
+package com.example.moneymate.api.obp.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for hedged and retried OBP calls, driven by a stub exchange: when a hedge is
+ * sent, what happens to the copy that loses, and when the retry budget stops extra attempts.
+ */
+@DisplayName("ObpHedging Tests")
+class ObpHedgingTest {
+
+    private static final ObpProperties.RetryProperties RETRY = new ObpProperties.RetryProperties(3, Duration.ZERO);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("does not hedge a call that answers within the hedge delay")
+    void execute_shouldNotHedgeFastCall() {
+        ObpHedging hedging = hedging(hedge(Duration.ofSeconds(5)), null, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(hedging.execute(ObpEndpoint.ACCOUNTS, () -> "call " + calls.incrementAndGet())).isEqualTo("call 1");
+
+        assertThat(calls).hasValue(1);
+        assertThat(count("obp.hedge.sent")).isZero();
+    }
+
+    @Test
+    @DisplayName("sends a hedge after the delay, returns whichever answers first and cancels the other")
+    void execute_shouldHedgeSlowCallAndCancelLoser() throws InterruptedException {
+        ObpHedging hedging = hedging(hedge(Duration.ofMillis(20)), null, 10);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        String result = hedging.execute(ObpEndpoint.ACCOUNTS, () -> {
+            if (calls.incrementAndGet() > 1) {
+                return "hedge";
+            }
+            try {
+                Thread.sleep(Duration.ofSeconds(10));
+                return "primary";
+            } catch (InterruptedException e) {
+                cancelled.countDown();
+                throw new ObpClientException("Cancelled", e);
+            }
+        });
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(calls).hasValue(2);
+        assertThat(cancelled.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(count("obp.hedge.sent")).isEqualTo(1);
+        assertThat(count("obp.hedge.won")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("waits for the slow call instead of hedging once the budget is spent")
+    void execute_shouldNotHedgeWithoutBudget() {
+        ObpHedging hedging = hedging(hedge(Duration.ofMillis(10)), null, 0);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = hedging.execute(ObpEndpoint.ACCOUNTS, () -> {
+            calls.incrementAndGet();
+            sleep(Duration.ofMillis(200));
+            return "primary";
+        });
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(calls).hasValue(1);
+        assertThat(count("obp.hedge.sent")).isZero();
+        assertThat(count("obp.retry.budget.exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("retries server errors until a call succeeds")
+    void execute_shouldRetryOutages() {
+        ObpHedging hedging = hedging(null, RETRY, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = hedging.execute(ObpEndpoint.ACCOUNTS, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObpClientException("Unavailable", HttpStatus.SERVICE_UNAVAILABLE, "");
+            }
+            return "accounts";
+        });
+
+        assertThat(result).isEqualTo("accounts");
+        assertThat(count("obp.retry.attempts")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("does not retry client errors or calls rejected without being attempted")
+    void execute_shouldNotRetryOtherFailures() {
+        ObpHedging hedging = hedging(null, RETRY, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> hedging.execute(ObpEndpoint.ACCOUNTS, () -> {
+            calls.incrementAndGet();
+            throw new ObpClientException("Not found", HttpStatus.NOT_FOUND, "");
+        })).hasMessage("Not found");
+        assertThatThrownBy(() -> hedging.execute(ObpEndpoint.ACCOUNTS, () -> {
+            calls.incrementAndGet();
+            throw new ObpUnavailableException("Rejected", Duration.ofSeconds(1));
+        })).isInstanceOf(ObpUnavailableException.class);
+
+        assertThat(calls).hasValue(2);
+        assertThat(count("obp.retry.attempts")).isZero();
+    }
+
+    @Test
+    @DisplayName("stops retrying once the budget is spent")
+    void execute_shouldStopRetryingWithoutBudget() {
+        ObpHedging hedging = hedging(null, RETRY, 1);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> hedging.execute(ObpEndpoint.ACCOUNTS, () -> {
+            calls.incrementAndGet();
+            throw new ObpClientException("Unavailable", HttpStatus.SERVICE_UNAVAILABLE, "");
+        })).hasMessage("Unavailable");
+
+        assertThat(calls).hasValue(2);
+        assertThat(count("obp.retry.attempts")).isEqualTo(1);
+        assertThat(count("obp.retry.budget.exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("derives the hedge delay from the exchange alone, not the wait for a bulkhead slot")
+    void execute_shouldNotCountBulkheadWaitAsLatency() throws Exception {
+        ObpProperties.HedgeProperties hedge = new ObpProperties.HedgeProperties(true, 100, Duration.ofSeconds(5));
+        ObpResilience resilience = resilience(1);
+        ObpHedging hedging = new ObpHedging(executor, resilience, properties(hedge, null, 10), registry);
+
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> holder = CompletableFuture.supplyAsync(() ->
+            resilience.call(ObpEndpoint.BANKS, () -> {
+                inFlight.countDown();
+                await(release);
+                return null;
+            }), executor);
+        assertThat(inFlight.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() ->
+            hedging.execute(ObpEndpoint.ACCOUNTS, () -> "queued"), executor);
+        sleep(Duration.ofMillis(300));
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+
+        // Enough samples for the tracker to compute its percentile (the slowest one here)
+        for (int i = 1; i < 32; i++) {
+            hedging.execute(ObpEndpoint.ACCOUNTS, () -> "fast");
+        }
+
+        assertThat(hedging.hedgeDelay(ObpEndpoint.ACCOUNTS, hedge)).isLessThan(Duration.ofMillis(150));
+    }
+
+    private ObpHedging hedging(ObpProperties.HedgeProperties hedge, ObpProperties.RetryProperties retry,
+                               int budgetTokens) {
+        return new ObpHedging(executor, resilience(10), properties(hedge, retry, budgetTokens), registry);
+    }
+
+    // Breakers that never open here; the bulkhead waits up to 5s for a slot
+    private ObpResilience resilience(int maxConcurrentCalls) {
+        return new ObpResilience(new ObpProperties(null, null, null, null,
+            new ObpProperties.ResilienceProperties(true,
+                new ObpProperties.CircuitBreakerProperties(100, 100, 50, Duration.ofHours(1)),
+                new ObpProperties.BulkheadProperties(maxConcurrentCalls, Duration.ofSeconds(5), Duration.ofSeconds(1)))),
+            registry);
+    }
+
+    // A retry budget that starts with budgetTokens and is not refilled by requests
+    private static ObpProperties properties(ObpProperties.HedgeProperties hedge, ObpProperties.RetryProperties retry,
+                                            int budgetTokens) {
+        return new ObpProperties(
+            new ObpProperties.ApiProperties(null, null, null, null, null,
+                new ObpProperties.RetryBudgetProperties(0, budgetTokens),
+                Map.of(ObpEndpoint.ACCOUNTS, new ObpProperties.EndpointProperties(hedge, retry))),
+            null, null, null, null);
+    }
+
+    private static ObpProperties.HedgeProperties hedge(Duration delay) {
+        return new ObpProperties.HedgeProperties(true, 95, delay);
+    }
+
+    private double count(String counter) {
+        return registry.get(counter).counter().count();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
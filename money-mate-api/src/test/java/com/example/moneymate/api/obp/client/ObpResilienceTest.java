@@ -0,0 +1,125 @@
+package com.example.moneymate.api.obp.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the circuit breakers and bulkhead around OBP calls: which failures count
+ * against OBP, and what is rejected without being attempted.
+ */
+@DisplayName("ObpResilience Tests")
+class ObpResilienceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("does not count client errors against OBP")
+    void call_shouldNotOpenOnClientErrors() {
+        ObpResilience resilience = resilience(Duration.ofHours(1), 1);
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> resilience.call(ObpEndpoint.ACCOUNTS, () -> {
+                throw new ObpClientException("Not found", HttpStatus.NOT_FOUND, "");
+            })).isNotInstanceOf(ObpUnavailableException.class);
+        }
+
+        assertThat(resilience.call(ObpEndpoint.ACCOUNTS, () -> "accounts")).isEqualTo("accounts");
+    }
+
+    @Test
+    @DisplayName("opens on server errors and then rejects calls without attempting them")
+    void call_shouldRejectWhileOpen() {
+        ObpResilience resilience = resilience(Duration.ofHours(1), 1);
+        AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> resilience.call(ObpEndpoint.ACCOUNTS, () -> {
+                attempts.incrementAndGet();
+                throw new ObpClientException("Unavailable", HttpStatus.SERVICE_UNAVAILABLE, "");
+            })).isNotInstanceOf(ObpUnavailableException.class);
+        }
+        assertThatThrownBy(() -> resilience.call(ObpEndpoint.ACCOUNTS, attempts::incrementAndGet))
+            .isInstanceOf(ObpUnavailableException.class)
+            .hasMessageContaining("circuit is open");
+
+        assertThat(attempts).hasValue(2);
+        assertThat(registry.get("obp.circuit.rejected").tag("endpoint", "accounts").counter().count()).isEqualTo(1);
+        // Each endpoint family has its own breaker
+        assertThat(resilience.call(ObpEndpoint.BANKS, () -> "banks")).isEqualTo("banks");
+    }
+
+    @Test
+    @DisplayName("hands back a half-open probe whose caller cancelled it")
+    void call_shouldAbandonInterruptedProbe() {
+        ObpResilience resilience = resilience(Duration.ZERO, 1);
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> resilience.call(ObpEndpoint.ACCOUNTS, () -> {
+                throw new ObpClientException("Unavailable", HttpStatus.SERVICE_UNAVAILABLE, "");
+            }));
+        }
+
+        try {
+            assertThatThrownBy(() -> resilience.call(ObpEndpoint.ACCOUNTS, () -> {
+                // The losing copy of a hedged call
+                Thread.currentThread().interrupt();
+                throw new ObpClientException("Cancelled", new InterruptedException());
+            })).hasMessage("Cancelled");
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertThat(resilience.call(ObpEndpoint.ACCOUNTS, () -> "probe")).isEqualTo("probe");
+    }
+
+    @Test
+    @DisplayName("rejects calls beyond the concurrency limit once the wait runs out")
+    void call_shouldRejectWhenBulkheadIsFull() throws Exception {
+        ObpResilience resilience = resilience(Duration.ofHours(1), 1);
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() ->
+            resilience.call(ObpEndpoint.ACCOUNTS, () -> {
+                inFlight.countDown();
+                await(release);
+                return "first";
+            }));
+        assertThat(inFlight.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> resilience.call(ObpEndpoint.BANKS, () -> "second"))
+            .isInstanceOf(ObpUnavailableException.class)
+            .hasMessageContaining("Too many concurrent OBP calls");
+        assertThat(registry.get("obp.bulkhead.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(resilience.call(ObpEndpoint.BANKS, () -> "third")).isEqualTo("third");
+    }
+
+    // Breakers open at half of at least two calls; the bulkhead waits 10ms for a slot
+    private ObpResilience resilience(Duration openDuration, int maxConcurrentCalls) {
+        ObpProperties properties = new ObpProperties(null, null, null, null,
+            new ObpProperties.ResilienceProperties(true,
+                new ObpProperties.CircuitBreakerProperties(4, 2, 50, openDuration),
+                new ObpProperties.BulkheadProperties(maxConcurrentCalls, Duration.ofMillis(10), Duration.ofSeconds(2))));
+        return new ObpResilience(properties, registry);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.moneymate.api.obp.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the token bucket that caps hedges and retries.
+ */
+@DisplayName("ObpRetryBudget Tests")
+class ObpRetryBudgetTest {
+
+    @Test
+    @DisplayName("starts full and allows one extra attempt per whole token")
+    void tryWithdraw_shouldSpendWholeTokens() {
+        ObpRetryBudget budget = new ObpRetryBudget(0.5, 2);
+
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+        assertThat(budget.availableTokens()).isZero();
+    }
+
+    @Test
+    @DisplayName("earns back a token per 1/ratio original requests")
+    void recordRequest_shouldRefillAtRatio() {
+        ObpRetryBudget budget = new ObpRetryBudget(0.5, 1);
+        budget.tryWithdraw();
+
+        budget.recordRequest();
+        assertThat(budget.tryWithdraw()).isFalse();
+        budget.recordRequest();
+        assertThat(budget.tryWithdraw()).isTrue();
+    }
+
+    @Test
+    @DisplayName("banks no more than the configured maximum during quiet periods")
+    void recordRequest_shouldCapBalance() {
+        ObpRetryBudget budget = new ObpRetryBudget(0.5, 2);
+
+        for (int i = 0; i < 100; i++) {
+            budget.recordRequest();
+        }
+
+        assertThat(budget.availableTokens()).isEqualTo(2.0);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.moneymate.api.obp.client;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Concurrency tests for request coalescing: callers that arrive while an identical request
+ * is in flight share its outcome, and nothing is shared beyond that.
+ */
+@DisplayName("ObpSingleFlight Tests")
+class ObpSingleFlightTest {
+
+    private static final String URI = "/banks/bank-1/accounts/account-1/account";
+
+    private final ObpSingleFlight singleFlight = new ObpSingleFlight();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    @DisplayName("makes one call for concurrent identical requests and hands every caller its result")
+    void execute_shouldShareInFlightCall() throws Exception {
+        Object response = new Object();
+        CompletableFuture<Object> leader = start("token-a", blocking(() -> response));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<CompletableFuture<Object>> followers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            followers.add(start("token-a", threads, blocking(() -> new Object())));
+        }
+        awaitBlocked(threads);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        for (CompletableFuture<Object> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("shares a failure with the callers waiting on it, then lets the next request call again")
+    void execute_shouldForgetFailedCall() throws Exception {
+        RuntimeException failure = new ObpClientException("Unavailable");
+        CompletableFuture<Object> leader = start("token-a", blocking(() -> {
+            throw failure;
+        }));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Thread> threads = new ArrayList<>();
+        CompletableFuture<Object> follower = start("token-a", threads, () -> "not called");
+        awaitBlocked(threads);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class).cause().isSameAs(failure);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class).cause().isSameAs(failure);
+
+        assertThat(singleFlight.execute("token-a", URI, () -> "retried")).isEqualTo("retried");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("does not share a result between different tokens, even for the same URI")
+    void execute_shouldNotShareAcrossTokens() throws Exception {
+        CompletableFuture<Object> alice = start("token-a", blocking(() -> "alice's accounts"));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(singleFlight.execute("token-b", URI, () -> "bob's accounts")).isEqualTo("bob's accounts");
+
+        release.countDown();
+        assertThat(alice.get(5, TimeUnit.SECONDS)).isEqualTo("alice's accounts");
+    }
+
+    /**
+     * A call that counts itself and holds until the test releases it.
+     */
+    private Supplier<Object> blocking(Supplier<Object> result) {
+        return () -> {
+            calls.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result.get();
+        };
+    }
+
+    private CompletableFuture<Object> start(String obpToken, Supplier<Object> call) {
+        return start(obpToken, new ArrayList<>(), call);
+    }
+
+    private CompletableFuture<Object> start(String obpToken, List<Thread> threads, Supplier<Object> call) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        threads.add(Thread.ofPlatform().start(() -> {
+            try {
+                result.complete(singleFlight.execute(obpToken, URI, call));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }));
+        return result;
+    }
+
+    // Followers park waiting for the leader's result; wait until all of them have
+    private static void awaitBlocked(List<Thread> threads) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for (Thread thread : threads) {
+            while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertThat(thread.getState()).isEqualTo(Thread.State.WAITING);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.moneymate.api.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the Bloom filter in front of the revocation denylist.
+ */
+@DisplayName("BloomFilter Tests")
+class BloomFilterTest {
+
+    private static final int KEYS = 10_000;
+
+    @Test
+    @DisplayName("finds every key that was put")
+    void mightContain_shouldHaveNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.forCapacity(KEYS, 0.01);
+        Random random = new Random(42);
+        long[] keys = new long[KEYS * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+
+        // Twice the capacity: the false positive rate rises, but nothing put is ever missed
+        for (int i = 0; i < keys.length; i += 2) {
+            filter.put(keys[i], keys[i + 1]);
+        }
+
+        for (int i = 0; i < keys.length; i += 2) {
+            assertThat(filter.mightContain(keys[i], keys[i + 1])).as("key %d", i / 2).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("keeps false positives near the rate it was sized for")
+    void mightContain_shouldKeepFalsePositiveRate() {
+        BloomFilter filter = BloomFilter.forCapacity(KEYS, 0.01);
+        Random random = new Random(7);
+        for (int i = 0; i < KEYS; i++) {
+            filter.put(random.nextLong(), random.nextLong());
+        }
+
+        int falsePositives = 0;
+        int lookups = 100_000;
+        for (int i = 0; i < lookups; i++) {
+            if (filter.mightContain(random.nextLong(), random.nextLong())) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / lookups).isLessThan(0.02);
+    }
+
+    @Test
+    @DisplayName("an empty filter contains nothing")
+    void mightContain_shouldBeFalseWhenEmpty() {
+        BloomFilter filter = BloomFilter.forCapacity(1, 0.01);
+
+        assertThat(filter.mightContain(0, 0)).isFalse();
+        assertThat(filter.mightContain(-1, 1)).isFalse();
+        assertThat(filter.bitCount()).isPositive();
+    }
+}
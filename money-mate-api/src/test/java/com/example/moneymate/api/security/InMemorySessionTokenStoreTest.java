@@ -0,0 +1,189 @@
+package com.example.moneymate.api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for resolving bearer tokens on the in-memory store, through the header range
+ * fast path and through {@link InMemorySessionTokenStore#find}, and for how its sessions end.
+ */
+@DisplayName("InMemorySessionTokenStore Tests")
+class InMemorySessionTokenStoreTest {
+
+    private static final String BEARER = "Bearer ";
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+    private static final SessionRevokedEvent ALICE_ENDED =
+        new SessionRevokedEvent(new SessionPrincipal("alice", "obp-alice"));
+
+    private InMemorySessionTokenStore store;
+    private String token;
+    private String header;
+
+    // Ten-second idle and one-minute absolute timeout, on a clock the tests drive through expireSessions
+    private final BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private InMemorySessionTokenStore expiring;
+    private long start;
+
+    @BeforeEach
+    void setUp() {
+        SessionProperties properties = new SessionProperties(SessionProperties.StoreType.MEMORY,
+            Duration.ofMinutes(30), Duration.ofHours(12), 100_000, Duration.ofSeconds(1), null, null);
+        store = new InMemorySessionTokenStore(event -> {}, properties, new SimpleMeterRegistry());
+        for (int i = 0; i < 1_000; i++) {
+            store.create("user" + i, "obp-token-" + i);
+        }
+        token = store.create("alice", "obp-token");
+        header = BEARER + token;
+
+        expiring = new InMemorySessionTokenStore(events::add, new SessionProperties(SessionProperties.StoreType.MEMORY,
+            Duration.ofSeconds(10), Duration.ofMinutes(1), 100, Duration.ofSeconds(1), null, null), registry);
+        start = System.nanoTime();
+        expiring.expireSessions(start);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+        expiring.close();
+    }
+
+    @Test
+    @DisplayName("resolves the token in place to the same session find returns")
+    void authenticate_shouldMatchFind() {
+        Authentication authentication = store.authenticate(header, BEARER.length(), header.length());
+
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getPrincipal()).isEqualTo(store.find(token).orElseThrow());
+        assertThat(authentication.isAuthenticated()).isTrue();
+    }
+
+    @Test
+    @DisplayName("hands out one authentication per session rather than one per request")
+    void authenticate_shouldShareAuthentication() {
+        assertThat(store.authenticate(header, BEARER.length(), header.length()))
+            .isSameAs(store.authenticate(header, BEARER.length(), header.length()));
+    }
+
+    @Test
+    @DisplayName("accepts the token's UUID in upper case")
+    void authenticate_shouldIgnoreHexCase() {
+        String upper = MmatTokens.PREFIX + token.substring(MmatTokens.PREFIX.length()).toUpperCase(Locale.ROOT);
+
+        assertThat(store.find(upper)).isEqualTo(store.find(token));
+    }
+
+    @Test
+    @DisplayName("rejects tokens that are not an MMAT prefix and an ASCII UUID")
+    void authenticate_shouldRejectMalformedTokens() {
+        // The version nibble of a random UUID is always 4; U+0664 is the Arabic-Indic digit four
+        int version = MmatTokens.PREFIX.length() + 14;
+        assertThat(token.charAt(version)).isEqualTo('4');
+        String imitation = token.substring(0, version) + '\u0664' + token.substring(version + 1);
+
+        assertThat(store.find(imitation)).isEmpty();
+        assertThat(store.find(token.substring(1))).isEmpty();
+        assertThat(store.find(token + "0")).isEmpty();
+        assertThat(store.find("mmat-" + token.substring(MmatTokens.PREFIX.length()))).isEmpty();
+        assertThat(store.find(token.replace('-', '_'))).isEmpty();
+        assertThat(store.authenticate(header, 0, header.length())).isNull();
+    }
+
+    @Test
+    @DisplayName("expires a session left idle, counting and announcing it")
+    void expireSessions_shouldExpireIdleSession() throws InterruptedException {
+        String alice = expiring.create("alice", "obp-alice");
+
+        expiring.expireSessions(start + 11 * SECOND);
+
+        assertThat(expiring.find(alice)).isEmpty();
+        assertThat(evicted("idle")).isEqualTo(1);
+        assertThat(activeSessions()).isZero();
+        assertThat(events.poll(5, TimeUnit.SECONDS)).isEqualTo(ALICE_ENDED);
+    }
+
+    @Test
+    @DisplayName("pushes the idle deadline back each time the session is used")
+    void find_shouldExtendIdleDeadline() {
+        String alice = expiring.create("alice", "obp-alice");
+
+        expiring.expireSessions(start + 6 * SECOND);
+        assertThat(expiring.find(alice)).isPresent();
+        // Past the deadline as created, not the one the use set
+        expiring.expireSessions(start + 12 * SECOND);
+        assertThat(activeSessions()).isEqualTo(1);
+
+        expiring.expireSessions(start + 17 * SECOND);
+        assertThat(expiring.find(alice)).isEmpty();
+        assertThat(evicted("idle")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("ends a session at the absolute timeout however often it is used")
+    void expireSessions_shouldEnforceAbsoluteTimeout() throws InterruptedException {
+        String alice = expiring.create("alice", "obp-alice");
+
+        for (int second = 5; second < 60; second += 5) {
+            expiring.expireSessions(start + second * SECOND);
+            assertThat(expiring.find(alice)).isPresent();
+        }
+        expiring.expireSessions(start + 61 * SECOND);
+
+        assertThat(expiring.find(alice)).isEmpty();
+        assertThat(evicted("absolute")).isEqualTo(1);
+        assertThat(evicted("idle")).isZero();
+        assertThat(events.poll(5, TimeUnit.SECONDS)).isEqualTo(ALICE_ENDED);
+    }
+
+    @Test
+    @DisplayName("refuses limits that would end every session at once")
+    void properties_shouldRejectNonPositiveLimits() {
+        assertThatThrownBy(() -> new SessionProperties(SessionProperties.StoreType.MEMORY,
+            Duration.ofMinutes(30), Duration.ofHours(12), 0, Duration.ofSeconds(1), null, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("max-sessions");
+        assertThatThrownBy(() -> new SessionProperties(SessionProperties.StoreType.MEMORY,
+            Duration.ZERO, Duration.ofHours(12), 100, Duration.ofSeconds(1), null, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("idle-timeout");
+    }
+
+    @Test
+    @DisplayName("announces a session evicted for capacity without holding up the login")
+    void create_shouldAnnounceEvictionInBackground() throws InterruptedException {
+        SessionProperties properties = new SessionProperties(SessionProperties.StoreType.MEMORY,
+            Duration.ofMinutes(30), Duration.ofHours(12), 1, Duration.ofSeconds(1), null, null);
+        InMemorySessionTokenStore small = new InMemorySessionTokenStore(events::add, properties,
+            new SimpleMeterRegistry());
+        try {
+            String oldest = small.create("alice", "obp-alice");
+            small.create("bob", "obp-bob");
+
+            assertThat(small.find(oldest)).isEmpty();
+            assertThat(events.poll(5, TimeUnit.SECONDS)).isEqualTo(ALICE_ENDED);
+        } finally {
+            small.close();
+        }
+    }
+
+    private double evicted(String reason) {
+        return registry.get("sessions.evicted").tag("reason", reason).counter().count();
+    }
+
+    private double activeSessions() {
+        return registry.get("sessions.active").gauge().value();
+    }
+}
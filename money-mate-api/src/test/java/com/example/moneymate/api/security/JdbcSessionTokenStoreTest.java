@@ -0,0 +1,189 @@
+package com.example.moneymate.api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the shared session store, run against an in-memory H2 database with the
+ * real schema. Each store instance stands in for one node.
+ */
+@DisplayName("JdbcSessionTokenStore Tests")
+class JdbcSessionTokenStoreTest {
+
+    private static final String KEY = Base64.getEncoder().encodeToString(SessionTokenCipher.generateKey());
+
+    private JdbcTemplate jdbcTemplate;
+    private final List<SessionRevokedEvent> nodeAEvents = new ArrayList<>();
+    private final List<SessionRevokedEvent> nodeBEvents = new ArrayList<>();
+    private JdbcSessionTokenStore nodeA;
+    private JdbcSessionTokenStore nodeB;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        nodeA = node(nodeAEvents, 100);
+        nodeB = node(nodeBEvents, 100);
+    }
+
+    @Test
+    @DisplayName("issues a token any node can resolve, storing neither it nor the OBP token in the clear")
+    void create_shouldBeResolvableFromAnyNode() {
+        String token = nodeA.create("alice", "obp-token-alice");
+
+        assertThat(nodeA.find(token)).contains(new SessionPrincipal("alice", "obp-token-alice"));
+        assertThat(nodeB.find(token)).contains(new SessionPrincipal("alice", "obp-token-alice"));
+        assertThat(nodeB.find("MMAT-" + UUID.randomUUID())).isEmpty();
+
+        String stored = jdbcTemplate.queryForObject(
+            "SELECT token_hash || ' ' || obp_token FROM session_token WHERE subject = 'alice'", String.class);
+        assertThat(stored).doesNotContain(token.substring("MMAT-".length()), "obp-token-alice");
+    }
+
+    @Test
+    @DisplayName("does not accept an OBP token copied into another session's row")
+    void find_shouldRejectObpTokenMovedBetweenRows() {
+        nodeA.create("alice", "obp-token-alice");
+        String mallory = nodeA.create("mallory", "obp-token-mallory");
+
+        jdbcTemplate.update("UPDATE session_token SET obp_token = "
+            + "(SELECT obp_token FROM session_token WHERE subject = 'alice') WHERE subject = 'mallory'");
+
+        assertThat(nodeB.find(mallory)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("revoking a session ends it everywhere and publishes its principal")
+    void revoke_shouldEndSessionEverywhere() {
+        String token = nodeA.create("alice", "obp-token-alice");
+
+        nodeA.revoke(token);
+
+        assertThat(nodeA.find(token)).isEmpty();
+        assertThat(nodeB.find(token)).isEmpty();
+        assertThat(nodeAEvents).containsExactly(
+            new SessionRevokedEvent(new SessionPrincipal("alice", "obp-token-alice")));
+    }
+
+    @Test
+    @DisplayName("drops a session revoked on another node from the near-cache when polling")
+    void pollRevocations_shouldInvalidateNearCache() {
+        String token = nodeA.create("alice", "obp-token-alice");
+        assertThat(nodeB.find(token)).isPresent();
+
+        nodeA.revoke(token);
+        nodeB.pollRevocations();
+
+        assertThat(nodeB.find(token)).isEmpty();
+        assertThat(nodeBEvents).containsExactly(
+            new SessionRevokedEvent(new SessionPrincipal("alice", "obp-token-alice")));
+    }
+
+    @Test
+    @DisplayName("applies a revocation that committed after a later version, and each only once")
+    void pollRevocations_shouldApplyRevocationsCommittedOutOfOrder() {
+        String alice = nodeA.create("alice", "obp-token-alice");
+        String bob = nodeA.create("bob", "obp-token-bob");
+        assertThat(nodeB.find(alice)).isPresent();
+        assertThat(nodeB.find(bob)).isPresent();
+
+        // Bob's revocation took a later version than alice's, but committed first
+        nodeA.revoke(bob);
+        jdbcTemplate.update("UPDATE session_revocation SET version = version + 100");
+        nodeB.pollRevocations();
+        nodeA.revoke(alice);
+        nodeB.pollRevocations();
+        nodeB.pollRevocations();
+
+        assertThat(nodeB.find(alice)).isEmpty();
+        assertThat(nodeBEvents).containsExactly(
+            new SessionRevokedEvent(new SessionPrincipal("bob", "obp-token-bob")),
+            new SessionRevokedEvent(new SessionPrincipal("alice", "obp-token-alice")));
+    }
+
+    @Test
+    @DisplayName("sweeps expired sessions, revoking them on every node that has them cached")
+    void sweep_shouldRevokeExpiredSessions() {
+        String alice = nodeA.create("alice", "obp-token-alice");
+        String bob = nodeA.create("bob", "obp-token-bob");
+        assertThat(nodeB.find(alice)).isPresent();
+        setCreatedAt("alice", Instant.now().minus(Duration.ofHours(13)));
+
+        nodeA.sweep();
+        nodeA.pollRevocations();
+        nodeB.pollRevocations();
+
+        assertThat(nodeA.find(alice)).isEmpty();
+        assertThat(nodeB.find(alice)).isEmpty();
+        assertThat(nodeA.find(bob)).isPresent();
+        SessionRevokedEvent revoked = new SessionRevokedEvent(new SessionPrincipal("alice", "obp-token-alice"));
+        assertThat(nodeAEvents).containsExactly(revoked);
+        assertThat(nodeBEvents).containsExactly(revoked);
+    }
+
+    @Test
+    @DisplayName("sweeps the oldest sessions beyond the capacity limit")
+    void sweep_shouldEvictOldestOverCapacity() {
+        JdbcSessionTokenStore small = node(nodeAEvents, 2);
+        String alice = small.create("alice", "obp-token-alice");
+        String bob = small.create("bob", "obp-token-bob");
+        String carol = small.create("carol", "obp-token-carol");
+        setCreatedAt("alice", Instant.now().minus(Duration.ofMinutes(2)));
+        setCreatedAt("bob", Instant.now().minus(Duration.ofMinutes(1)));
+
+        small.sweep();
+
+        assertThat(small.find(alice)).isEmpty();
+        assertThat(small.find(bob)).isPresent();
+        assertThat(small.find(carol)).isPresent();
+        assertThat(nodeAEvents).containsExactly(
+            new SessionRevokedEvent(new SessionPrincipal("alice", "obp-token-alice")));
+    }
+
+    @Test
+    @DisplayName("refuses to start without a key for the stored OBP tokens")
+    void constructor_shouldRequireKey() {
+        assertThatThrownBy(() -> new JdbcSessionTokenStore(jdbcTemplate, event -> {}, properties(100, null),
+            new SimpleMeterRegistry()))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("money-mate.session.jdbc.key");
+    }
+
+    private JdbcSessionTokenStore node(List<SessionRevokedEvent> events, int maxSessions) {
+        return new JdbcSessionTokenStore(jdbcTemplate, event -> events.add((SessionRevokedEvent) event),
+            properties(maxSessions, KEY), new SimpleMeterRegistry());
+    }
+
+    private void setCreatedAt(String subject, Instant createdAt) {
+        jdbcTemplate.update("UPDATE session_token SET created_at = ? WHERE subject = ?",
+            createdAt.atOffset(ZoneOffset.UTC), subject);
+    }
+
+    // A near-cache that outlives each test, so only revocations can invalidate it
+    private static SessionProperties properties(int maxSessions, String key) {
+        return new SessionProperties(SessionProperties.StoreType.JDBC, Duration.ofMinutes(30), Duration.ofHours(12),
+            maxSessions, Duration.ofSeconds(1),
+            new SessionProperties.JdbcStoreProperties(Duration.ofHours(1), 1_000, Duration.ofMinutes(1),
+                Duration.ofSeconds(1), Duration.ofHours(1), Duration.ofMinutes(1), key, null),
+            null);
+    }
+}
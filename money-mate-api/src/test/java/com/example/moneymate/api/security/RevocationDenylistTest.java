@@ -0,0 +1,80 @@
+package com.example.moneymate.api.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the revoked-token denylist: exact answers through filter growth, and
+ * forgetting revocations once their tokens have expired.
+ */
+@DisplayName("RevocationDenylist Tests")
+class RevocationDenylistTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T10:00:00Z");
+
+    @Test
+    @DisplayName("finds every revoked id, even after outgrowing its initial capacity")
+    void contains_shouldFindEveryRevokedIdAsItGrows() {
+        RevocationDenylist denylist = new RevocationDenylist(4);
+        List<UUID> revoked = ids(new Random(1), 1_000);
+
+        for (UUID id : revoked) {
+            assertThat(denylist.add(id, NOW.plus(Duration.ofHours(1)))).isTrue();
+            assertThat(denylist.contains(id)).isTrue();
+        }
+
+        assertThat(denylist.size()).isEqualTo(1_000);
+        assertThat(revoked).allMatch(denylist::contains);
+        // The filter can say "maybe", but the answer is exact
+        assertThat(ids(new Random(2), 10_000)).noneMatch(denylist::contains);
+    }
+
+    @Test
+    @DisplayName("reports an id that is already revoked")
+    void add_shouldReportDuplicate() {
+        RevocationDenylist denylist = new RevocationDenylist(16);
+        UUID id = UUID.randomUUID();
+
+        assertThat(denylist.add(id, NOW.plus(Duration.ofHours(1)))).isTrue();
+        assertThat(denylist.add(id, NOW.plus(Duration.ofHours(2)))).isFalse();
+        assertThat(denylist.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("forgets ids whose tokens have expired and keeps the rest")
+    void prune_shouldForgetExpiredIds() {
+        RevocationDenylist denylist = new RevocationDenylist(16);
+        List<UUID> expiring = ids(new Random(3), 50);
+        List<UUID> live = ids(new Random(4), 50);
+        expiring.forEach(id -> denylist.add(id, NOW));
+        live.forEach(id -> denylist.add(id, NOW.plusSeconds(1)));
+
+        assertThat(denylist.prune(NOW.minusSeconds(1))).isZero();
+        assertThat(denylist.prune(NOW)).isEqualTo(50);
+
+        assertThat(expiring).noneMatch(denylist::contains);
+        assertThat(live).allMatch(denylist::contains);
+        assertThat(denylist.size()).isEqualTo(50);
+
+        // A pruned id can be revoked again
+        assertThat(denylist.add(expiring.getFirst(), NOW.plus(Duration.ofHours(1)))).isTrue();
+        assertThat(denylist.contains(expiring.getFirst())).isTrue();
+    }
+
+    private static List<UUID> ids(Random random, int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        return ids;
+    }
+}
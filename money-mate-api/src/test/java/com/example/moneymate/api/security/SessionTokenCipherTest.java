@@ -0,0 +1,72 @@
+package com.example.moneymate.api.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for sealing and opening self-contained session tokens.
+ */
+@DisplayName("SessionTokenCipher Tests")
+class SessionTokenCipherTest {
+
+    private static final SessionTokenCipher.Claims CLAIMS = new SessionTokenCipher.Claims(
+        UUID.randomUUID(),
+        Instant.parse("2026-01-01T10:00:00Z"),
+        Instant.parse("2026-01-01T22:00:00Z"),
+        "alice",
+        "obp-direct-login-token"
+    );
+
+    @Test
+    @DisplayName("opens the claims it sealed")
+    void open_shouldReturnSealedClaims() {
+        SessionTokenCipher cipher = new SessionTokenCipher(List.of(SessionTokenCipher.generateKey()));
+
+        String token = cipher.seal(CLAIMS);
+
+        assertThat(token).startsWith("MMAT-").doesNotContain("alice", "obp-direct-login-token");
+        assertThat(cipher.open(token)).contains(CLAIMS);
+    }
+
+    @Test
+    @DisplayName("rejects a token with any character changed")
+    void open_shouldRejectTamperedToken() {
+        SessionTokenCipher cipher = new SessionTokenCipher(List.of(SessionTokenCipher.generateKey()));
+        String token = cipher.seal(CLAIMS);
+
+        for (int i = "MMAT-".length(); i < token.length(); i++) {
+            char replacement = token.charAt(i) == 'A' ? 'B' : 'A';
+            String tampered = token.substring(0, i) + replacement + token.substring(i + 1);
+            assertThat(cipher.open(tampered)).as("changed at %d", i).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("rejects tokens sealed with another key and UUID tokens")
+    void open_shouldRejectForeignTokens() {
+        SessionTokenCipher cipher = new SessionTokenCipher(List.of(SessionTokenCipher.generateKey()));
+        SessionTokenCipher other = new SessionTokenCipher(List.of(SessionTokenCipher.generateKey()));
+
+        assertThat(cipher.open(other.seal(CLAIMS))).isEmpty();
+        assertThat(cipher.open("MMAT-" + UUID.randomUUID())).isEmpty();
+        assertThat(cipher.open("not-a-token")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("still opens tokens sealed with a previous key after rotation")
+    void open_shouldAcceptPreviousKeys() {
+        byte[] oldKey = SessionTokenCipher.generateKey();
+        String issuedBeforeRotation = new SessionTokenCipher(List.of(oldKey)).seal(CLAIMS);
+
+        SessionTokenCipher rotated = new SessionTokenCipher(List.of(SessionTokenCipher.generateKey(), oldKey));
+
+        assertThat(rotated.open(issuedBeforeRotation)).contains(CLAIMS);
+        assertThat(new SessionTokenCipher(List.of(oldKey)).open(rotated.seal(CLAIMS))).isEmpty();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.moneymate.api.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the hashed timing wheel behind session expiry.
+ */
+@DisplayName("TimingWheel Tests")
+class TimingWheelTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    @DisplayName("returns items once their tick has elapsed, not before")
+    void advance_shouldReturnItemsWhenDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), 8, 0);
+        wheel.schedule("a", 2 * SECOND + 1);
+        wheel.schedule("b", 5 * SECOND);
+
+        assertThat(wheel.advance(2 * SECOND + 1)).isEmpty();
+        assertThat(wheel.advance(3 * SECOND)).containsExactly("a");
+        assertThat(wheel.advance(6 * SECOND)).containsExactly("b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("keeps items that share a slot but are due in a later revolution")
+    void advance_shouldKeepItemsFromLaterRevolutions() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), 4, 0);
+        wheel.schedule("soon", 1 * SECOND);
+        wheel.schedule("later", 5 * SECOND);
+
+        assertThat(wheel.advance(2 * SECOND)).containsExactly("soon");
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(6 * SECOND)).containsExactly("later");
+    }
+
+    @Test
+    @DisplayName("never returns a cancelled item")
+    void cancel_shouldDropItem() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), 4, 0);
+        TimingWheel.Timer<String> cancelled = wheel.schedule("cancelled", 1 * SECOND);
+        wheel.schedule("kept", 1 * SECOND);
+
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled);
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(2 * SECOND)).containsExactly("kept");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("catches up after a long pause by visiting each slot once")
+    void advance_shouldCatchUpAfterPause() {
+        TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), 4, 0);
+        for (int i = 0; i < 20; i++) {
+            wheel.schedule("item-" + i, i * SECOND);
+        }
+
+        assertThat(wheel.advance(100 * SECOND)).hasSize(20);
+        assertThat(wheel.size()).isZero();
+    }
+}
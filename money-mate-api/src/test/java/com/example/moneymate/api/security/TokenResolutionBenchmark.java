@@ -0,0 +1,110 @@
+package com.example.moneymate.api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating a request by its bearer token: one pass of the shipped
+ * {@link UuidBearerTokenAuthFilter} over a request carrying the token of one of 100,000
+ * sessions in the in-memory store, with the resulting {@link Authentication} taken out of
+ * the security context again.
+ * <p>
+ * Not part of the test run. Run it from {@code money-mate-api} after
+ * {@code mvn test-compile}, with the {@code gc} profiler reporting bytes allocated per
+ * call ({@code gc.alloc.rate.norm}):
+ * <pre>
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) \
+ *     com.example.moneymate.api.security.TokenResolutionBenchmark
+ * </pre>
+ * Measured on JDK 21.0.1 (the project targets 25, which was not available) on a single
+ * vCPU Xeon VM, over three forks of ten one-second iterations
+ * ({@code org.openjdk.jmh.Main TokenResolutionBenchmark -f 3 -wi 5 -w 1 -i 10 -r 1 -prof gc}),
+ * against this tree and against the filter and String-keyed store it replaced (the same
+ * benchmark, with that store built by its no-argument constructor):
+ * <pre>
+ * String-keyed store  320 ± 35 ns/op  400 B/op
+ * this store          299 ± 24 ns/op  208 B/op
+ * </pre>
+ * Both include what the mock request and {@code OncePerRequestFilter}'s bookkeeping allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenResolutionBenchmark {
+
+    private static final int SESSIONS = 100_000;
+
+    private InMemorySessionTokenStore store;
+    private UuidBearerTokenAuthFilter filter;
+    private MockHttpServletRequest request;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final FilterChain chain = (request, response) -> {};
+
+    @Setup
+    public void setUp() {
+        SessionProperties properties = new SessionProperties(SessionProperties.StoreType.MEMORY,
+            Duration.ofMinutes(30), Duration.ofHours(12), SESSIONS, Duration.ofSeconds(1), null, null);
+        store = new InMemorySessionTokenStore(event -> {}, properties, new SimpleMeterRegistry());
+        String token = null;
+        for (int i = 0; i < SESSIONS; i++) {
+            token = store.create("user" + i, "obp-token-" + i);
+        }
+        filter = new UuidBearerTokenAuthFilter(store);
+
+        request = new MockHttpServletRequest("GET", "/accounts");
+        request.setRemoteAddr("192.0.2.10");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    public Authentication authenticate() throws ServletException, IOException {
+        filter.doFilter(request, response, chain);
+        SecurityContext context = SecurityContextHolder.getContext();
+        Authentication authentication = context.getAuthentication();
+        context.setAuthentication(null);
+        return authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(TokenResolutionBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build())
+            .run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.moneymate.api.transaction;
+
+import com.example.moneymate.api.money.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the running-balance timeline built from transaction columns.
+ */
+@DisplayName("BalanceTimeline Tests")
+class BalanceTimelineTest {
+
+    private static final long NO_BALANCE = TransactionColumns.NO_BALANCE;
+    private static final long DAY_1 = Instant.parse("2026-03-01T00:00:00Z").toEpochMilli();
+    private static final long DAY_2 = Instant.parse("2026-03-02T00:00:00Z").toEpochMilli();
+
+    @Test
+    @DisplayName("orders transactions posted at the same instant along their balance chain")
+    void of_shouldFollowBalanceChainForSameInstant() {
+        // Held in transaction ID order, which is not the order they happened in:
+        // 100 -> (c) 70 -> (b) 120 -> (a) 95
+        long[] posted = {DAY_1, DAY_2, DAY_2, DAY_2};
+        long[] amounts = {10_000, -2_500, 5_000, -3_000};
+        long[] balances = {10_000, 9_500, 12_000, 7_000};
+
+        BalanceTimeline timeline = BalanceTimeline.of(posted, amounts, balances, 4, NO_BALANCE, "EUR");
+
+        assertThat(timeline.at(Instant.ofEpochMilli(DAY_2)).orElseThrow().balance())
+            .isEqualTo(Money.ofMinor(9_500, "EUR"));
+        assertThat(timeline.endOf(LocalDate.parse("2026-03-02")).orElseThrow().balance())
+            .isEqualTo(Money.ofMinor(9_500, "EUR"));
+        assertThat(timeline.endOf(LocalDate.parse("2026-03-01")).orElseThrow().balance())
+            .isEqualTo(Money.ofMinor(10_000, "EUR"));
+    }
+
+    @Test
+    @DisplayName("ends a same-instant run on a reported balance when some transactions lack one")
+    void of_shouldPlaceTransactionsWithoutBalanceFirst() {
+        long[] posted = {DAY_1, DAY_1, DAY_1};
+        long[] amounts = {-1_000, -200, 500};
+        long[] balances = {4_000, 3_800, NO_BALANCE};
+
+        BalanceTimeline timeline = BalanceTimeline.of(posted, amounts, balances, 3, NO_BALANCE, "EUR");
+
+        assertThat(timeline.latest().orElseThrow().balance()).isEqualTo(Money.ofMinor(3_800, "EUR"));
+    }
+
+    @Test
+    @DisplayName("works balances back from the first known one and forward across gaps")
+    void of_shouldBackfillAndCarryForward() {
+        long t0 = DAY_1;
+        long[] posted = {t0, t0 + 1_000, t0 + 2_000, DAY_2};
+        long[] amounts = {1_000, 2_000, 500, -1_000};
+        long[] balances = {NO_BALANCE, NO_BALANCE, 10_000, NO_BALANCE};
+
+        BalanceTimeline timeline = BalanceTimeline.of(posted, amounts, balances, 4, NO_BALANCE, "EUR");
+
+        assertThat(timeline.at(Instant.ofEpochMilli(t0)).orElseThrow().balance())
+            .isEqualTo(Money.ofMinor(7_500, "EUR"));
+        assertThat(timeline.at(Instant.ofEpochMilli(t0 + 1_500)).orElseThrow().balance())
+            .isEqualTo(Money.ofMinor(9_500, "EUR"));
+        assertThat(timeline.latest().orElseThrow().balance()).isEqualTo(Money.ofMinor(9_000, "EUR"));
+        assertThat(timeline.at(Instant.ofEpochMilli(t0 - 1))).isEmpty();
+        assertThat(timeline.endOf(LocalDate.parse("2026-02-28"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("extends from the last checkpoint to the same balances as a full build")
+    void withChangesFrom_shouldMatchFullBuild() {
+        long day3 = DAY_2 + 86_400_000L;
+        long[] posted = {DAY_1, DAY_1 + 1_000, DAY_2, DAY_2, day3};
+        long[] amounts = {10_000, -1_000, -2_500, 5_000, -500};
+        long[] balances = {10_000, NO_BALANCE, 6_500, 11_500, NO_BALANCE};
+        BalanceTimeline timeline = BalanceTimeline.of(posted, amounts, balances, 3, NO_BALANCE, "EUR");
+
+        // Rows 3 and 4 arrive; row 3 lands on a day that already has a checkpoint
+        BalanceTimeline extended = timeline.withChangesFrom(posted, amounts, balances, 5, 3, NO_BALANCE, "EUR");
+        BalanceTimeline built = BalanceTimeline.of(posted, amounts, balances, 5, NO_BALANCE, "EUR");
+
+        for (String date : new String[] {"2026-03-01", "2026-03-02", "2026-03-03"}) {
+            assertThat(extended.endOf(LocalDate.parse(date))).isEqualTo(built.endOf(LocalDate.parse(date)));
+        }
+        assertThat(extended.at(Instant.ofEpochMilli(DAY_2))).isEqualTo(built.at(Instant.ofEpochMilli(DAY_2)));
+        assertThat(extended.latest().orElseThrow().balance()).isEqualTo(Money.ofMinor(11_000, "EUR"));
+    }
+
+    @Test
+    @DisplayName("has no timeline without any reported balance")
+    void of_shouldBeEmptyWithoutBalances() {
+        BalanceTimeline timeline = BalanceTimeline.of(new long[] {DAY_1}, new long[] {100},
+            new long[] {NO_BALANCE}, 1, NO_BALANCE, "EUR");
+
+        assertThat(timeline.latest()).isEmpty();
+    }
+}
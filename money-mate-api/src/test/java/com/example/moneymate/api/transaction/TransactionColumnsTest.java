@@ -0,0 +1,55 @@
+package com.example.moneymate.api.transaction;
+
+import com.example.moneymate.api.money.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for keyset reads over transaction columns.
+ */
+@DisplayName("TransactionColumns Tests")
+class TransactionColumnsTest {
+
+    private static final Instant DAY_1 = Instant.parse("2026-03-01T10:00:00Z");
+    private static final Instant DAY_2 = Instant.parse("2026-03-02T10:00:00Z");
+    private static final Instant DAY_3 = Instant.parse("2026-03-03T10:00:00Z");
+
+    @Test
+    @DisplayName("continues after the last row served even when newer transactions arrive")
+    void olderThan_shouldNotShiftWhenTransactionsAreAdded() {
+        TransactionColumns columns = TransactionColumns.of(List.of(
+            transaction("a", DAY_1), transaction("b", DAY_2), transaction("c", DAY_2)));
+
+        List<StoredTransaction> first = columns.olderThan(null, null, null, null, 2);
+        assertThat(first).extracting(StoredTransaction::transactionId).containsExactly("c", "b");
+
+        TransactionColumns synced = columns.withAdded(List.of(transaction("d", DAY_3)));
+        StoredTransaction last = first.getLast();
+        assertThat(synced.olderThan(null, null, last.posted(), last.transactionId(), 2))
+            .extracting(StoredTransaction::transactionId)
+            .containsExactly("a");
+    }
+
+    @Test
+    @DisplayName("steps back to the rows nearest the position, newest first")
+    void newerThan_shouldReturnNearestRows() {
+        TransactionColumns columns = TransactionColumns.of(List.of(
+            transaction("a", DAY_1), transaction("b", DAY_2), transaction("c", DAY_2), transaction("d", DAY_3)));
+
+        assertThat(columns.newerThan(null, null, DAY_1, "a", 2))
+            .extracting(StoredTransaction::transactionId)
+            .containsExactly("c", "b");
+        assertThat(columns.newerThan(null, DAY_2, DAY_2, "b", 2))
+            .extracting(StoredTransaction::transactionId)
+            .containsExactly("c");
+    }
+
+    private static StoredTransaction transaction(String id, Instant posted) {
+        return new StoredTransaction(id, posted, "DEBIT", "Coffee", Money.ofMinor(-350, "EUR"), null);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.moneymate.api.transaction;
+
+import com.example.moneymate.api.money.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the transaction store, run against an in-memory H2 database with the real schema.
+ */
+@DisplayName("TransactionStore Tests")
+class TransactionStoreTest {
+
+    private static final Instant POSTED = Instant.parse("2026-03-01T10:00:00Z");
+
+    private DriverManagerDataSource dataSource;
+    private TransactionStore store;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        store = new TransactionStore(new JdbcTemplate(dataSource), new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    @DisplayName("adds only the transactions that are not stored yet")
+    void addNew_shouldSkipStoredTransactions() {
+        store.addNew("bank", "account", List.of(transaction("t1"), transaction("t2")));
+
+        List<StoredTransaction> added = store.addNew("bank", "account",
+            List.of(transaction("t2"), transaction("t3"), transaction("t3")));
+
+        assertThat(added).extracting(StoredTransaction::transactionId).containsExactly("t3");
+        assertThat(store.history("bank", "account")).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("reports only its own inserts when another node stores some of the same transactions at once")
+    void addNew_shouldSurviveConcurrentInsert() {
+        store.addNew("bank", "account", List.of(transaction("t1")));
+        // A check that misses t1, as when another node inserts it between the check and the insert
+        TransactionStore racing = new TransactionStore(new JdbcTemplate(dataSource) {
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+                return List.of();
+            }
+        }, new DataSourceTransactionManager(dataSource));
+
+        List<StoredTransaction> added = racing.addNew("bank", "account",
+            List.of(transaction("t1"), transaction("t2"), transaction("t3")));
+
+        assertThat(added).extracting(StoredTransaction::transactionId).containsExactly("t2", "t3");
+        assertThat(store.history("bank", "account")).extracting(StoredTransaction::transactionId)
+            .containsExactly("t1", "t2", "t3");
+    }
+
+    @Test
+    @DisplayName("deletes the history of accounts not synced since the cutoff")
+    void purgeNotSyncedSince_shouldDeleteInactiveAccounts() {
+        store.addNew("bank", "idle", List.of(transaction("t1")));
+        store.saveSyncState("bank", "idle", null, state("t1", "2026-01-01T10:00:00Z"));
+        store.addNew("bank", "active", List.of(transaction("t2")));
+        store.saveSyncState("bank", "active", null, state("t2", "2026-03-01T10:00:00Z"));
+
+        assertThat(store.purgeNotSyncedSince(Instant.parse("2026-02-01T00:00:00Z"))).isEqualTo(1);
+
+        assertThat(store.syncState("bank", "idle")).isEmpty();
+        assertThat(store.history("bank", "idle")).isEmpty();
+        assertThat(store.history("bank", "active")).extracting(StoredTransaction::transactionId)
+            .containsExactly("t2");
+    }
+
+    @Test
+    @DisplayName("tells a sync whether it carried on from the state it started from")
+    void saveSyncState_shouldDetectInterveningSync() {
+        TransactionStore.SyncState first = state("t1", "2026-03-01T10:00:00Z");
+        TransactionStore.SyncState mine = state("t2", "2026-03-01T10:01:00Z");
+        TransactionStore.SyncState theirs = state("t3", "2026-03-01T10:02:00Z");
+        TransactionStore.SyncState later = state("t4", "2026-03-01T10:03:00Z");
+
+        assertThat(store.saveSyncState("bank", "account", null, first)).isTrue();
+        assertThat(store.saveSyncState("bank", "account", first, mine)).isTrue();
+        assertThat(store.saveSyncState("bank", "account", first, theirs)).isFalse();
+        assertThat(store.syncState("bank", "account")).contains(theirs);
+
+        assertThat(store.saveSyncState("bank", "account", null, later)).isFalse();
+        assertThat(store.syncState("bank", "account")).contains(later);
+    }
+
+    private static StoredTransaction transaction(String id) {
+        return new StoredTransaction(id, POSTED, "CARD", "Coffee", Money.of("-3.50", "EUR"),
+            Money.of("96.50", "EUR"));
+    }
+
+    private static TransactionStore.SyncState state(String watermarkId, String syncedAt) {
+        return new TransactionStore.SyncState(POSTED, watermarkId, Instant.parse(syncedAt));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.moneymate.api.web;
+
+import com.example.moneymate.api.obp.client.ObpAccountsResponse;
+import com.example.moneymate.api.obp.client.ObpClient;
+import com.example.moneymate.api.obp.client.ObpStaleness;
+import com.example.moneymate.api.obp.client.UserDetailsResponse;
+import com.example.moneymate.api.security.SessionTokenStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Stale-on-error through an asynchronous controller: the OBP work finishes after the
+ * controller has returned its future and the initial dispatch has completed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("Stale response marking for async controllers")
+class StaleResponseAdviceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SessionTokenStore tokenStore;
+
+    @MockitoBean
+    private ObpClient obpClient;
+
+    @Test
+    @DisplayName("a stale OBP copy served after the initial dispatch still yields 200 marked stale")
+    void getCurrentUser_shouldMarkStaleResponseFromWorkerThread() throws Exception {
+        CountDownLatch dispatched = new CountDownLatch(1);
+        // What ObpResponseCache does when OBP fails and a cached copy exists
+        when(obpClient.getCurrentUser(anyString())).thenAnswer(invocation -> {
+            dispatched.await(5, TimeUnit.SECONDS);
+            ObpStaleness.markStale();
+            return new UserDetailsResponse("user-1", "alice@example.com", "alice", "provider", "obp");
+        });
+        when(obpClient.getAccounts(anyString())).thenReturn(new ObpAccountsResponse(List.of()));
+        String token = tokenStore.create("alice", "obp-token");
+
+        MvcResult started = mockMvc.perform(get("/users/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        dispatched.countDown();
+
+        mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(header().string(StaleResponseAdvice.STALE_HEADER, "true"))
+            .andExpect(header().doesNotExist(HttpHeaders.WARNING));
+    }
+
+    @Test
+    @DisplayName("a 304 revalidating a stale copy is marked stale too, a live one is not")
+    void getCurrentUser_shouldMarkStaleNotModified() throws Exception {
+        AtomicBoolean stale = new AtomicBoolean();
+        when(obpClient.getCurrentUser(anyString())).thenAnswer(invocation -> {
+            if (stale.get()) {
+                ObpStaleness.markStale();
+            }
+            return new UserDetailsResponse("user-1", "alice@example.com", "alice", "provider", "obp");
+        });
+        when(obpClient.getAccounts(anyString())).thenReturn(new ObpAccountsResponse(List.of()));
+        String token = tokenStore.create("alice", "obp-token");
+
+        MvcResult live = mockMvc.perform(asyncDispatch(getUser(token, null)))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(StaleResponseAdvice.STALE_HEADER))
+            .andReturn();
+        String etag = live.getResponse().getHeader(HttpHeaders.ETAG);
+
+        stale.set(true);
+        mockMvc.perform(asyncDispatch(getUser(token, etag)))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(StaleResponseAdvice.STALE_HEADER, "true"));
+    }
+
+    private MvcResult getUser(String token, String ifNoneMatch) throws Exception {
+        MockHttpServletRequestBuilder builder = get("/users/me")
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        if (ifNoneMatch != null) {
+            builder.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(builder)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.moneymate.api.web;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for precomputed static responses.
+ */
+@DisplayName("StaticDocument Tests")
+class StaticDocumentTest {
+
+    private static final String TEXT = "# Title\n\n" + "Some markdown that compresses well. ".repeat(40);
+    private static final StaticDocument DOCUMENT =
+        StaticDocument.markdown(TEXT, CacheControl.maxAge(Duration.ofHours(1)).cachePublic());
+
+    @Test
+    @DisplayName("sends gzip to clients that accept it, with its own ETag")
+    void respond_shouldGzipWhenAccepted() throws IOException {
+        ResponseEntity<byte[]> plain = DOCUMENT.respond(null, null);
+        ResponseEntity<byte[]> gzipped = DOCUMENT.respond("br, gzip;q=0.8", null);
+
+        assertThat(new String(plain.getBody(), StandardCharsets.UTF_8)).isEqualTo(TEXT);
+        assertThat(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(TEXT);
+        }
+        assertThat(gzipped.getHeaders().getETag()).isNotEqualTo(plain.getHeaders().getETag());
+        assertThat(gzipped.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(gzipped.getHeaders().getCacheControl()).isEqualTo("max-age=3600, public");
+    }
+
+    @Test
+    @DisplayName("does not gzip when the client refuses it")
+    void respond_shouldNotGzipWhenRefused() {
+        assertThat(DOCUMENT.respond("gzip;q=0, *", null).getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING))
+            .isFalse();
+        assertThat(DOCUMENT.respond("identity", null).getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING))
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("answers a matching If-None-Match with a bodyless 304")
+    void respond_shouldReturnNotModified() {
+        String etag = DOCUMENT.respond("gzip", null).getHeaders().getETag();
+
+        ResponseEntity<byte[]> revalidated = DOCUMENT.respond("gzip", "\"other\", " + etag);
+
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidated.getBody()).isNull();
+        assertThat(revalidated.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(DOCUMENT.respond(null, "\"other\"").getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+}